@@ -0,0 +1,84 @@
+package com.github.gribanoveu.libruary.benchmark;
+
+import com.github.gribanoveu.libruary.compiler.MethodHandleCompiler;
+import com.github.gribanoveu.libruary.compiler.RpnCompiler;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
+import com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка и вычисление подготовленных выражений разными способами: обход дерева, {@link RpnCompiler}
+ * и {@link MethodHandleCompiler}. Деревья строятся без свертки констант, иначе выражения корпуса
+ * превращаются в одно число.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BackendBenchmark {
+    private static final double[] NO_SLOTS = new double[0];
+
+    @Param({"SHORT", "LONG", "NESTED", "FUNCTIONS"})
+    public String corpus;
+
+    private ExpressionNode[] trees;
+    private ExpressionNode[] programs;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        var functionManager = ExpressionCorpus.functionManager();
+        var expressions = ExpressionCorpus.expressions(corpus);
+        trees = new ExpressionNode[expressions.length];
+        programs = new ExpressionNode[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            var tokens = new ExpressionTokenizer(functionManager).parseExpression(expressions[i]);
+            trees[i] = new SyntaxTreeBuilder(functionManager).buildTree(new TokenBuffer(tokens));
+            programs[i] = new RpnCompiler().compile(trees[i]);
+        }
+    }
+
+    private int nextIndex() {
+        var current = index;
+        index = (index + 1) % trees.length;
+        return current;
+    }
+
+    @Benchmark
+    public double evaluateTree() {
+        return trees[nextIndex()].evaluate(NO_SLOTS);
+    }
+
+    @Benchmark
+    public double evaluateRpn() {
+        return programs[nextIndex()].evaluate(NO_SLOTS);
+    }
+
+    @Benchmark
+    public Object compileRpn() {
+        return new RpnCompiler().compile(trees[nextIndex()]);
+    }
+
+    @Benchmark
+    public Object compileMethodHandle() {
+        return new MethodHandleCompiler().compile(trees[nextIndex()]);
+    }
+}
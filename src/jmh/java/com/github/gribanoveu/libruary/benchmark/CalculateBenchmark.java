@@ -0,0 +1,69 @@
+package com.github.gribanoveu.libruary.benchmark;
+
+import com.github.gribanoveu.libruary.calculator.ArithmeticCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полное вычисление строки через {@link ArithmeticCalculator#calculate(String)}:
+ * в одном потоке и во всех доступных потоках с общим калькулятором.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CalculateBenchmark {
+    @Param({"SHORT", "LONG", "NESTED", "FUNCTIONS"})
+    public String corpus;
+
+    private ArithmeticCalculator calculator;
+    private String[] expressions;
+
+    @Setup
+    public void setUp() {
+        calculator = ExpressionCorpus.calculator();
+        expressions = ExpressionCorpus.expressions(corpus);
+    }
+
+    /**
+     * Позиция в наборе выражений, своя у каждого потока.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        int next(int length) {
+            var current = index;
+            index = (index + 1) % length;
+            return current;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public double calculateSingleThread(Cursor cursor) {
+        return calculator.calculate(expressions[cursor.next(expressions.length)]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public double calculateMultiThread(Cursor cursor) {
+        return calculator.calculate(expressions[cursor.next(expressions.length)]);
+    }
+}
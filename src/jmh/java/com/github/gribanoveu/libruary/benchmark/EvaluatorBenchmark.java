@@ -0,0 +1,80 @@
+package com.github.gribanoveu.libruary.benchmark;
+
+import com.github.gribanoveu.libruary.entity.Token;
+import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
+import com.github.gribanoveu.libruary.parser.PackedTokenizer;
+import com.github.gribanoveu.libruary.parser.StackEvaluator;
+import com.github.gribanoveu.libruary.parser.SyntaxEvaluator;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+import com.github.gribanoveu.libruary.util.TokenStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вычисление уже разобранных токенов: рекурсивный {@link SyntaxEvaluator} в сравнении
+ * с {@link StackEvaluator} с явными стеками.
+ * Токенизация выполняется в {@link #setUp()} и в замер не входит.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EvaluatorBenchmark {
+    @Param({"SHORT", "LONG", "NESTED", "FUNCTIONS"})
+    public String corpus;
+
+    private FunctionManager functionManager;
+    private List<Token>[] tokens;
+    private TokenStream[] streams;
+    private StackEvaluator stackEvaluator;
+    private int index;
+
+    @Setup
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() {
+        functionManager = ExpressionCorpus.functionManager();
+        stackEvaluator = new StackEvaluator();
+        var expressions = ExpressionCorpus.expressions(corpus);
+        tokens = new List[expressions.length];
+        streams = new TokenStream[expressions.length];
+        var packedTokenizer = new PackedTokenizer(functionManager);
+        for (int i = 0; i < expressions.length; i++) {
+            tokens[i] = new ExpressionTokenizer(functionManager).parseExpression(expressions[i]);
+            streams[i] = new TokenStream();
+            packedTokenizer.tokenize(expressions[i], streams[i]);
+        }
+    }
+
+    private int nextIndex() {
+        var current = index;
+        index = (index + 1) % tokens.length;
+        return current;
+    }
+
+    @Benchmark
+    public double calculateExpression() {
+        return new SyntaxEvaluator(functionManager).calculateExpression(new TokenBuffer(tokens[nextIndex()]));
+    }
+
+    @Benchmark
+    public double calculateStack() {
+        return stackEvaluator.calculateExpression(streams[nextIndex()]);
+    }
+}
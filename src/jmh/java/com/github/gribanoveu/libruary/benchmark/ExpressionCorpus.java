@@ -0,0 +1,111 @@
+package com.github.gribanoveu.libruary.benchmark;
+
+import com.github.gribanoveu.libruary.calculator.ArithmeticCalculator;
+import com.github.gribanoveu.libruary.calculator.ArithmeticCalculatorBuilder;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import com.github.gribanoveu.libruary.function.MinimalValueFunction;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+
+import java.util.Random;
+
+/**
+ * Набор выражений для бенчмарков.
+ * Выражения генерируются детерминированно, поэтому результаты разных запусков можно сравнивать.
+ * <ul>
+ *     <li>SHORT - два-три числа и оператора: 12 + 7 * 3</li>
+ *     <li>LONG - цепочка из 50 операций без скобок</li>
+ *     <li>NESTED - 20 уровней вложенных скобок</li>
+ *     <li>FUNCTIONS - вложенные вызовы min, max и pow</li>
+ * </ul>
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class ExpressionCorpus {
+    /**
+     * Количество выражений каждого вида: больше, чем помещается в предсказатель ветвлений,
+     * но все выражения остаются в кэше процессора.
+     */
+    public static final int SIZE = 256;
+
+    private static final char[] OPERATORS = {'+', '-', '*', '/'};
+
+    private ExpressionCorpus() {
+    }
+
+    /**
+     * @return менеджер функций, которые используются в выражениях
+     */
+    public static FunctionManager functionManager() {
+        var functionManager = new FunctionManager();
+        functionManager.registerFunction("min", new MinimalValueFunction());
+        functionManager.registerFunction("max", new MaximalValueFunction());
+        functionManager.registerFunction("pow", (Function2) Math::pow);
+        return functionManager;
+    }
+
+    /**
+     * @return калькулятор с функциями, которые используются в выражениях
+     */
+    public static ArithmeticCalculator calculator() {
+        return new ArithmeticCalculatorBuilder()
+                .registerFunction("min", new MinimalValueFunction())
+                .registerFunction("max", new MaximalValueFunction())
+                .registerFunction("pow", (Function2) Math::pow)
+                .build();
+    }
+
+    /**
+     * Получить выражения заданного вида.
+     * @param kind SHORT, LONG, NESTED или FUNCTIONS
+     * @return массив из {@link #SIZE} выражений
+     */
+    public static String[] expressions(String kind) {
+        var random = new Random(42);
+        var expressions = new String[SIZE];
+        for (int index = 0; index < SIZE; index++) {
+            expressions[index] = switch (kind) {
+                case "SHORT" -> chain(random, 2 + random.nextInt(2));
+                case "LONG" -> chain(random, 50);
+                case "NESTED" -> nested(random, 20);
+                case "FUNCTIONS" -> functions(random, 4);
+                default -> throw new IllegalArgumentException("Unknown corpus: " + kind);
+            };
+        }
+        return expressions;
+    }
+
+    private static String chain(Random random, int length) {
+        var builder = new StringBuilder().append(number(random));
+        for (int index = 1; index < length; index++) {
+            builder.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ').append(number(random));
+        }
+        return builder.toString();
+    }
+
+    private static String nested(Random random, int depth) {
+        var expression = number(random);
+        for (int level = 0; level < depth; level++) {
+            expression = "(" + expression + " " + OPERATORS[random.nextInt(OPERATORS.length)] + " " + number(random) + ")";
+            if (random.nextBoolean()) {
+                expression = "-" + expression;
+            }
+        }
+        return expression;
+    }
+
+    private static String functions(Random random, int depth) {
+        if (depth == 0) {
+            return number(random);
+        }
+        return switch (random.nextInt(3)) {
+            case 0 -> "min(" + functions(random, depth - 1) + ", " + number(random) + ", " + functions(random, depth - 1) + ")";
+            case 1 -> "max(" + functions(random, depth - 1) + ", " + number(random) + ") * 2";
+            default -> "pow(" + functions(random, depth - 1) + ", 2) / 1000";
+        };
+    }
+
+    private static String number(Random random) {
+        return Integer.toString(1 + random.nextInt(999));
+    }
+}
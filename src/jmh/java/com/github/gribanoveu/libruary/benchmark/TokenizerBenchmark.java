@@ -0,0 +1,68 @@
+package com.github.gribanoveu.libruary.benchmark;
+
+import com.github.gribanoveu.libruary.entity.Token;
+import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
+import com.github.gribanoveu.libruary.parser.PackedTokenizer;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор выражения на токены: {@link ExpressionTokenizer} в сравнении с {@link PackedTokenizer}.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+    @Param({"SHORT", "LONG", "NESTED", "FUNCTIONS"})
+    public String corpus;
+
+    private FunctionManager functionManager;
+    private PackedTokenizer packedTokenizer;
+    private TokenStream stream;
+    private String[] expressions;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        functionManager = ExpressionCorpus.functionManager();
+        packedTokenizer = new PackedTokenizer(functionManager);
+        stream = new TokenStream();
+        expressions = ExpressionCorpus.expressions(corpus);
+    }
+
+    private String nextExpression() {
+        var expression = expressions[index];
+        index = (index + 1) % expressions.length;
+        return expression;
+    }
+
+    @Benchmark
+    public List<Token> parseExpression() {
+        return new ExpressionTokenizer(functionManager).parseExpression(nextExpression());
+    }
+
+    @Benchmark
+    public int packedTokenize() {
+        packedTokenizer.tokenize(nextExpression(), stream);
+        return stream.size();
+    }
+}
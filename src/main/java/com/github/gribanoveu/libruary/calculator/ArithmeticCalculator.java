@@ -1,31 +1,537 @@
 package com.github.gribanoveu.libruary.calculator;
 
+import com.github.gribanoveu.libruary.compiler.BytecodeCompiler;
+import com.github.gribanoveu.libruary.compiler.EvaluationBackend;
+import com.github.gribanoveu.libruary.compiler.MethodHandleCompiler;
+import com.github.gribanoveu.libruary.compiler.RpnCompiler;
+import com.github.gribanoveu.libruary.entity.CalculationLimits;
+import com.github.gribanoveu.libruary.entity.CalculationResult;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import com.github.gribanoveu.libruary.entity.MemoizationPolicy;
+import com.github.gribanoveu.libruary.entity.Token;
+import com.github.gribanoveu.libruary.entity.TokenType;
+import com.github.gribanoveu.libruary.exception.FunctionException;
+import com.github.gribanoveu.libruary.exception.InvalidTokenException;
+import com.github.gribanoveu.libruary.exception.LimitExceededException;
+import com.github.gribanoveu.libruary.exception.VariableException;
+import com.github.gribanoveu.libruary.expression.CompiledExpression;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.expression.PreparedExpression;
+import com.github.gribanoveu.libruary.expression.PreparedGroup;
+import com.github.gribanoveu.libruary.expression.SharedNode;
+import com.github.gribanoveu.libruary.function.CalculateFunction;
+import com.github.gribanoveu.libruary.optimizer.CommonSubexpressionEliminator;
+import com.github.gribanoveu.libruary.optimizer.ConstantFolder;
 import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
-import com.github.gribanoveu.libruary.parser.SyntaxEvaluator;
+import com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder;
+import com.github.gribanoveu.libruary.util.CacheStats;
+import com.github.gribanoveu.libruary.util.ExpressionCache;
+import com.github.gribanoveu.libruary.util.FunctionCache;
 import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.NestingDepth;
 import com.github.gribanoveu.libruary.util.TokenBuffer;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Арифметический калькулятор.
  * @author Evgeny Gribanov
- * @version 17.04.2024
+ * @version 17.10.2026
  */
 public class ArithmeticCalculator implements Calculator {
+    private static final double[] NO_SLOTS = new double[0];
+
     private final FunctionManager functionManager;
+    private final ExpressionCache expressionCache;
+    private final EvaluationBackend backend;
+    private final ForkJoinPool pool;
+    private final CalculatorListener listener;
+    private final CalculationLimits limits;
+    private final Executor asyncExecutor; // null - общий исполнитель AsyncExecutors
+    private final ThreadLocal<BulkWorker> workers;
 
     public ArithmeticCalculator(FunctionManager functionManager) {
+        this(functionManager, null, EvaluationBackend.TREE, ForkJoinPool.commonPool(), null, CalculationLimits.NONE, null);
+    }
+
+    /**
+     * Функции оборачиваются здесь же, если их вызовы нужно измерять для получателя событий
+     * или проверять срок вычисления; иначе менеджер используется как есть.
+     * @param functionManager функции калькулятора
+     * @param listener получатель событий или null
+     * @param limits ограничения ресурсов на одно выражение
+     * @param asyncExecutor исполнитель асинхронных функций или null для исполнителя по умолчанию
+     */
+    ArithmeticCalculator(FunctionManager functionManager, ExpressionCache expressionCache, EvaluationBackend backend,
+                         ForkJoinPool pool, CalculatorListener listener, CalculationLimits limits,
+                         Executor asyncExecutor) {
+        this.expressionCache = expressionCache;
+        this.backend = backend;
+        this.pool = pool;
+        this.listener = listener;
+        this.limits = limits;
+        this.asyncExecutor = asyncExecutor;
+        if (listener != null) {
+            functionManager = InterceptedFunctions.wrapAll(functionManager,
+                    new InterceptedFunctions.ListenerInterceptor(listener));
+        }
+        if (limits.hasTimeout()) { // проверка срока снаружи, чтобы не входить в медленную функцию после срока
+            functionManager = InterceptedFunctions.wrapAll(functionManager, CalculationDeadline.INTERCEPTOR);
+        }
         this.functionManager = functionManager;
+        var functions = functionManager;
+        this.workers = ThreadLocal.withInitial(() -> new BulkWorker(functions, limits, listener));
     }
 
     /**
      * Вычисляет арифметическое выражение только с операторами + - * / ().
      * Дополнительные функции должны быть зарегистрированы перед использованием с помощью билдера.
+     * Функции находятся при разборе и вызываются по ссылке; буферы разбора свои у каждого потока
+     * и переиспользуются между вызовами.
+     * С кэшем выражение, дерево которого выше {@link SyntaxTreeBuilder#MAX_TREE_HEIGHT}, вычисляется без подготовки,
+     * поэтому результат не зависит от того, включен ли кэш.
      * @param expression строка с выражением
      * @return результат вычислений
      */
     @Override
     public double calculate(String expression) {
-        var tokens = new ExpressionTokenizer(functionManager).parseExpression(expression);
-        return new SyntaxEvaluator(functionManager).calculateExpression(new TokenBuffer(tokens));
+        if (expressionCache != null) { // повторяющиеся строки не разбираются заново
+            PreparedExpression prepared;
+            try {
+                prepared = prepare(expression, true);
+            } catch (LimitExceededException e) {
+                if (e.getErrorCode() != ErrorCode.TREE_HEIGHT_LIMIT) {
+                    throw e;
+                }
+                // дерево выше SyntaxTreeBuilder.MAX_TREE_HEIGHT: вычисляем без дерева, как без кэша
+                return workers.get().calculate(expression);
+            }
+            if (limits.hasTimeout()) {
+                var deadline = CalculationDeadline.current();
+                if (deadline.start(limits.timeoutNanos())) {
+                    try {
+                        return evaluate(prepared, expression);
+                    } finally {
+                        deadline.finish();
+                    }
+                }
+            }
+            return evaluate(prepared, expression);
+        }
+        return workers.get().calculate(expression);
+    }
+
+    private double evaluate(PreparedExpression prepared, String expression) {
+        if (listener != null) {
+            return evaluateListened(prepared, expression);
+        }
+        return prepared.evaluate();
+    }
+
+    /**
+     * Вычисляет выражение без исключений: ошибки разбора записываются в результат кодом и позицией,
+     * а {@link #calculate(String)} лишь превращает такой результат в исключение.
+     * Исключение создается только, если его выбросила пользовательская функция.
+     * Выражение всегда разбирается заново, без кэша: непроверенные строки не должны вытеснять из кэша рабочие формулы.
+     * @param expression строка с выражением
+     * @param result результат, в который записывается значение или ошибка
+     * @return true, если выражение вычислено
+     */
+    @Override
+    public boolean tryCalculate(String expression, CalculationResult result) {
+        return workers.get().tryCalculate(expression, result);
+    }
+
+    /**
+     * Вычисляет выражение асинхронно.
+     * Независимые вызовы {@link com.github.gribanoveu.libruary.function.AsyncCalculateFunction}, например
+     * в {@code max(rate(1), rate(2), rate(3))}, выполняются одновременно в исполнителе из билдера,
+     * по умолчанию - в виртуальных потоках, если они доступны. Операторы и обычные функции применяются,
+     * когда готовы их аргументы, поэтому вызывающий поток не ждет ни одной функции.
+     * Выражение без асинхронных функций вычисляется сразу, в вызывающем потоке.
+     * Выражение подготавливается как в {@link #prepare(String)}, с кэшем, если он включен.
+     * Ограничение времени из билдера здесь не проверяется, для этого есть {@link CompletableFuture#orTimeout}.
+     * @param expression строка с выражением
+     * @return будущий результат, ошибка разбора или вычисления возвращается в нем, а не выбрасывается
+     */
+    @Override
+    public CompletableFuture<Double> calculateAsync(String expression) {
+        PreparedExpression prepared;
+        try {
+            prepared = prepare(expression);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (prepared instanceof CompiledExpression compiled && !compiled.getVariables().isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new VariableException("Variable is not bound: " + compiled.getVariables().get(0)));
+        }
+        var executor = asyncExecutor != null ? asyncExecutor : AsyncExecutors.getDefault();
+        return prepared.evaluateAsync(NO_SLOTS, executor);
+    }
+
+    /**
+     * Разбирает выражение один раз и возвращает его скомпилированное представление.
+     * Полученное выражение неизменяемо, потокобезопасно и вычисляется без повторного разбора строки,
+     * поэтому его стоит использовать, если одна и та же формула считается много раз.
+     * В отличие от {@link #calculate(String)} выражение может содержать переменные: price * qty - discount.
+     * Высота дерева выражения ограничена {@link SyntaxTreeBuilder#MAX_TREE_HEIGHT}: скобки, цепочки унарных минусов
+     * и длинные цепочки операторов ее не увеличивают, а выше ограничения дерево бывает только у выражения
+     * с тысячей вложенных вызовов или скобок с операторами внутри.
+     * @param expression строка с выражением
+     * @return подготовленное выражение
+     */
+    @Override
+    public PreparedExpression prepare(String expression) {
+        return prepare(expression, false);
+    }
+
+    /**
+     * @param fallback true, если при {@link ErrorCode#TREE_HEIGHT_LIMIT} выражение будет вычислено без подготовки,
+     *                 тогда эта ошибка не сообщается получателю событий
+     */
+    private PreparedExpression prepare(String expression, boolean fallback) {
+        if (expressionCache != null) {
+            var prepared = lookup(expression, fallback);
+            if (isCurrent(prepared)) {
+                return prepared;
+            }
+            // выражение подготовлено до замены функции, но попало в кэш уже после очистки
+            expressionCache.remove(expression);
+            return lookup(expression, fallback);
+        }
+        return compile(expression, fallback);
+    }
+
+    private PreparedExpression lookup(String expression, boolean fallback) {
+        if (listener == null) {
+            return expressionCache.get(expression, key -> compile(key, fallback));
+        }
+        var missed = new boolean[1];
+        try {
+            return expressionCache.get(expression, key -> {
+                missed[0] = true;
+                return compile(key, fallback);
+            });
+        } finally { // выражение с ошибкой тоже промах: оно разбиралось и в кэш не попало
+            listener.onCacheLookup(expression, !missed[0]);
+        }
+    }
+
+    private double evaluateListened(PreparedExpression prepared, String expression) {
+        var start = System.nanoTime();
+        double value;
+        try {
+            value = prepared.evaluate();
+        } catch (RuntimeException e) {
+            listener.onEvaluate(expression, -1, -1, System.nanoTime() - start, evaluateError(e));
+            throw e;
+        }
+        listener.onEvaluate(expression, -1, -1, System.nanoTime() - start, ErrorCode.NONE);
+        return value;
+    }
+
+    /**
+     * Зарегистрировать или заменить функцию во время работы калькулятора.
+     * Замена атомарна и не останавливает вычисления в других потоках: уже начатые вычисления
+     * и ранее подготовленные выражения используют прежнюю версию функции, новые - новую.
+     * Подготовленные выражения, которые вызывают эту функцию, удаляются из кэша.
+     * @param name имя функции
+     * @param function реализация функции
+     */
+    public void registerFunction(String name, CalculateFunction function) {
+        replaceFunction(name, function, false, null);
+    }
+
+    /**
+     * Зарегистрировать или заменить чистую функцию во время работы калькулятора,
+     * см. {@link ArithmeticCalculatorBuilder#registerPureFunction(String, CalculateFunction)}.
+     * @param name имя функции
+     * @param function реализация функции
+     */
+    public void registerPureFunction(String name, CalculateFunction function) {
+        replaceFunction(name, function, true, null);
+    }
+
+    /**
+     * Зарегистрировать или заменить чистую функцию с кэшем результатов во время работы калькулятора,
+     * см. {@link ArithmeticCalculatorBuilder#registerPureFunction(String, CalculateFunction, MemoizationPolicy)}.
+     * Новая версия функции получает пустой кэш.
+     * @param name имя функции
+     * @param function реализация функции
+     * @param policy размер кэша и время жизни результатов
+     */
+    public void registerPureFunction(String name, CalculateFunction function, MemoizationPolicy policy) {
+        var cache = new FunctionCache(policy);
+        replaceFunction(name, cache.memoize(function), true, cache);
+    }
+
+    private void replaceFunction(String name, CalculateFunction function, boolean pure, FunctionCache cache) {
+        if (listener != null) {
+            function = InterceptedFunctions.wrap(name, function, new InterceptedFunctions.ListenerInterceptor(listener));
+        }
+        if (limits.hasTimeout()) {
+            function = InterceptedFunctions.wrap(name, function, CalculationDeadline.INTERCEPTOR);
+        }
+        functionManager.registerFunction(name, function, pure, cache);
+        if (expressionCache != null) {
+            expressionCache.removeIf(prepared -> prepared instanceof CompiledExpression compiled
+                    && compiled.getFunctions().contains(name));
+        }
+    }
+
+    /**
+     * Проверить, что выражение из кэша связано с текущими версиями всех вызываемых функций.
+     * Пока функции не заменялись, снимок тот же и проверка стоит одного сравнения ссылок.
+     */
+    private boolean isCurrent(PreparedExpression prepared) {
+        var current = functionManager.getRegistry();
+        if (!(prepared instanceof CompiledExpression compiled) || compiled.getRegistry() == current) {
+            return true;
+        }
+        for (var name : compiled.getFunctions()) {
+            if (compiled.getRegistry().find(name) != current.find(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Вычислить список независимых выражений параллельно в пуле, заданном в билдере
+     * (по умолчанию {@link ForkJoinPool#commonPool()}).
+     * Каждый поток пула переиспользует свои буферы токенизатора и стек анализатора,
+     * а зарегистрированные функции только читаются, поэтому потоки не блокируют друг друга.
+     * @param expressions выражения
+     * @return результаты в порядке входных выражений
+     */
+    @Override
+    public BulkResult calculateAll(List<String> expressions) {
+        var list = expressions instanceof RandomAccess ? expressions : new ArrayList<>(expressions);
+        var result = new BulkResult(list.size());
+        var threshold = BulkTasks.threshold(list.size(), pool.getParallelism());
+        pool.invoke(new BulkTasks.RangeTask(list, this::calculate, result, 0, list.size(), threshold));
+        return result;
+    }
+
+    /**
+     * Вычислить выражения из источника параллельно в пуле, заданном в билдере.
+     * Источник делится через {@link Spliterator#trySplit()}, получатель вызывается из потоков пула
+     * в произвольном порядке.
+     * @param expressions источник выражений, например {@code lines.spliterator()}
+     * @param consumer потокобезопасный получатель результатов
+     */
+    @Override
+    public void calculateAll(Spliterator<String> expressions, CalculationConsumer consumer) {
+        var threshold = BulkTasks.threshold(expressions.estimateSize(), pool.getParallelism());
+        pool.invoke(new BulkTasks.SpliteratorTask(expressions, this::calculate, consumer, threshold));
+    }
+
+    /**
+     * Вычислить файл с выражениями, записанными по одному на строку, и записать результаты в канал
+     * в том же порядке. Файл отображается в память окнами, строки разбираются прямо из байтов
+     * и вычисляются в пуле, заданном в билдере; расход памяти не зависит от размера файла.
+     * Для строки с ошибкой выводится {@code ERROR <сообщение>}.
+     * @param input файл с выражениями в кодировке ASCII
+     * @param output канал для результатов
+     * @return количество вычисленных строк
+     */
+    public long calculateLines(Path input, WritableByteChannel output) throws IOException {
+        try (var channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            return new LinePipeline(pool, workers, output).run(channel);
+        }
+    }
+
+    /**
+     * Вычислить выражения из канала, например стандартного ввода, по одному на строку.
+     * Канал читается большими блоками, остальное как в {@link #calculateLines(Path, WritableByteChannel)}.
+     * @param input канал с выражениями в кодировке ASCII, не закрывается
+     * @param output канал для результатов
+     * @return количество вычисленных строк
+     */
+    public long calculateLines(ReadableByteChannel input, WritableByteChannel output) throws IOException {
+        return new LinePipeline(pool, workers, output).run(input);
+    }
+
+    /**
+     * Получить счетчики кэша подготовленных выражений.
+     * @return снимок счетчиков или {@link CacheStats#EMPTY}, если кэш не включен в билдере
+     */
+    public CacheStats getCacheStats() {
+        return expressionCache != null ? expressionCache.getStats() : CacheStats.EMPTY;
+    }
+
+    /**
+     * Получить счетчики кэша результатов функции.
+     * @param name имя функции
+     * @return счетчики или {@link CacheStats#EMPTY}, если функция зарегистрирована без кэша
+     * @throws FunctionException если функция не зарегистрирована
+     */
+    public CacheStats getFunctionCacheStats(String name) {
+        var cache = functionManager.getFunction(name).getCache();
+        return cache != null ? cache.getStats() : CacheStats.EMPTY;
+    }
+
+    private PreparedExpression compile(String expression, boolean fallback) {
+        var start = listener != null ? System.nanoTime() : 0L;
+        var functions = functionManager.copy(); // выражение целиком связывается с одним снимком функций
+        List<Token> tokens;
+        int depth;
+        try {
+            if (expression.length() > limits.maxLength()) { // до разбора: длинную строку не копируем и не разбираем
+                throw new LimitExceededException(ErrorCode.LENGTH_LIMIT, limits.maxLength());
+            }
+            tokens = new ExpressionTokenizer(functions).parseExpression(expression);
+            depth = NestingDepth.of(tokens);
+            checkLimits(tokens, depth); // до построения дерева, чтобы не строить его для отклоненного выражения
+        } catch (RuntimeException e) {
+            onCompileError(expression, 0, start, tokenizeError(e));
+            throw e;
+        }
+        var treeBuilder = new SyntaxTreeBuilder(functions);
+        ExpressionNode tree;
+        try {
+            tree = treeBuilder.buildTree(new TokenBuffer(tokens));
+        } catch (RuntimeException e) {
+            var errorCode = treeError(e);
+            if (!fallback || errorCode != ErrorCode.TREE_HEIGHT_LIMIT) { // иначе выражение вычислят без подготовки
+                onCompileError(expression, tokens.size() - 1, start, errorCode);
+            }
+            throw e;
+        }
+        ExpressionNode root;
+        ExpressionNode evaluator;
+        try { // свертка вызывает чистые функции с постоянными аргументами
+            root = new ConstantFolder().fold(tree);
+            var shared = new CommonSubexpressionEliminator().eliminate(root, treeBuilder.getVariables().size());
+            evaluator = shared.temporaries().isEmpty()
+                    ? compileNode(root)
+                    : new SharedNode(compileNodes(shared.temporaries()), treeBuilder.getVariables().size(),
+                            compileNode(shared.roots().get(0)));
+        } catch (RuntimeException e) {
+            onCompileError(expression, tokens.size() - 1, start, evaluateError(e));
+            throw e;
+        }
+        if (listener != null) {
+            listener.onCompile(expression, tokens.size() - 1, depth, System.nanoTime() - start);
+        }
+        return new CompiledExpression(expression, root, evaluator, treeBuilder.getVariables(),
+                treeBuilder.getFunctions(), functions.getRegistry());
+    }
+
+    /**
+     * Сообщить об ошибке подготовки так же, как о ней сообщает вычисление без подготовки:
+     * через {@link CalculatorListener#onTokenize}, поэтому счетчики не зависят от того, включен ли кэш.
+     */
+    private void onCompileError(String expression, int tokenCount, long start, ErrorCode errorCode) {
+        if (listener != null) {
+            listener.onTokenize(expression, tokenCount, 0, System.nanoTime() - start, errorCode);
+        }
+    }
+
+    /**
+     * Код ошибки разбора, как его записывает {@link com.github.gribanoveu.libruary.parser.PackedTokenizer}:
+     * токенизатор подготовки выбрасывает исключение только для неизвестного символа или функции.
+     */
+    private static ErrorCode tokenizeError(RuntimeException e) {
+        if (e instanceof LimitExceededException limitExceeded) {
+            return limitExceeded.getErrorCode();
+        }
+        return e instanceof FunctionException ? ErrorCode.UNKNOWN_FUNCTION : ErrorCode.UNEXPECTED_CHARACTER;
+    }
+
+    /**
+     * Код ошибки построения дерева: функции уже найдены при разборе, поэтому
+     * {@link FunctionException} здесь означает неверное количество аргументов.
+     */
+    private static ErrorCode treeError(RuntimeException e) {
+        if (e instanceof LimitExceededException limitExceeded) {
+            return limitExceeded.getErrorCode();
+        }
+        if (e instanceof InvalidTokenException) {
+            return ErrorCode.UNEXPECTED_TOKEN;
+        }
+        return e instanceof FunctionException ? ErrorCode.ARGUMENT_COUNT : ErrorCode.EXCEPTION;
+    }
+
+    /**
+     * Код ошибки вычисления, как его записывает {@link CalculationResult#setException(RuntimeException)}.
+     */
+    private static ErrorCode evaluateError(RuntimeException e) {
+        return e instanceof LimitExceededException limitExceeded ? limitExceeded.getErrorCode() : ErrorCode.EXCEPTION;
+    }
+
+    /**
+     * Подготовить группу формул, которые вычисляются с одними значениями переменных, например все колонки
+     * отчета по одной строке данных. Подвыражения, общие для нескольких формул, вычисляются один раз
+     * на всю группу, см. {@link PreparedGroup}. Кэш выражений для группы не используется.
+     * @param expressions формулы группы
+     * @return подготовленная группа
+     */
+    public PreparedGroup prepareGroup(List<String> expressions) {
+        var functions = functionManager.copy();
+        var treeBuilder = new SyntaxTreeBuilder(functions); // один построитель: общие слоты переменных
+        var folder = new ConstantFolder();
+        var roots = new ArrayList<ExpressionNode>(expressions.size());
+        for (var expression : expressions) {
+            if (expression.length() > limits.maxLength()) {
+                throw new LimitExceededException(ErrorCode.LENGTH_LIMIT, limits.maxLength());
+            }
+            var tokens = new ExpressionTokenizer(functions).parseExpression(expression);
+            checkLimits(tokens, NestingDepth.of(tokens));
+            roots.add(folder.fold(treeBuilder.buildTree(new TokenBuffer(tokens))));
+        }
+        var variables = treeBuilder.getVariables();
+        var shared = new CommonSubexpressionEliminator().eliminate(roots, variables.size());
+        return new PreparedGroup(expressions, variables, compileNodes(shared.temporaries()),
+                compileNodes(shared.roots()));
+    }
+
+    private ExpressionNode compileNode(ExpressionNode root) {
+        return switch (backend) {
+            case TREE -> root;
+            case RPN -> new RpnCompiler().compile(root);
+            case METHOD_HANDLE -> new MethodHandleCompiler().compile(root);
+            case BYTECODE -> new BytecodeCompiler().compile(root);
+        };
+    }
+
+    private List<ExpressionNode> compileNodes(List<ExpressionNode> roots) {
+        var compiled = new ArrayList<ExpressionNode>(roots.size());
+        for (var root : roots) {
+            compiled.add(compileNode(root));
+        }
+        return compiled;
+    }
+
+    /**
+     * Проверить ограничения, которые {@link com.github.gribanoveu.libruary.parser.PackedTokenizer}
+     * проверяет при разборе, для токенов подготавливаемого выражения.
+     */
+    private void checkLimits(List<Token> tokens, int depth) {
+        if (tokens.size() - 1 > limits.maxTokens()) {
+            throw new LimitExceededException(ErrorCode.TOKEN_LIMIT, limits.maxTokens());
+        }
+        if (depth > limits.maxDepth()) {
+            throw new LimitExceededException(ErrorCode.DEPTH_LIMIT, limits.maxDepth());
+        }
+        if (limits.maxFunctionCalls() < tokens.size()) {
+            var functionCalls = tokens.stream().filter(token -> token.type() == TokenType.FUNCTION).count();
+            if (functionCalls > limits.maxFunctionCalls()) {
+                throw new LimitExceededException(ErrorCode.FUNCTION_CALL_LIMIT, limits.maxFunctionCalls());
+            }
+        }
     }
 }
@@ -1,15 +1,31 @@
 package com.github.gribanoveu.libruary.calculator;
 
+import com.github.gribanoveu.libruary.compiler.EvaluationBackend;
+import com.github.gribanoveu.libruary.entity.CalculationLimits;
+import com.github.gribanoveu.libruary.entity.MemoizationPolicy;
 import com.github.gribanoveu.libruary.function.CalculateFunction;
+import com.github.gribanoveu.libruary.util.ExpressionCache;
 import com.github.gribanoveu.libruary.util.FunctionManager;
 
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Инициализация калькулятора с помощью билдера с регистрацией функций.
  * @author Evgeny Gribanov
- * @version 28.05.2024
+ * @version 17.10.2026
  */
 public class ArithmeticCalculatorBuilder {
     private final FunctionManager functionManager;
+    private int cacheMaxEntries;
+    private long cacheMaxWeight;
+    private EvaluationBackend backend = EvaluationBackend.TREE;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private CalculatorListener listener;
+    private CalculationLimits limits = CalculationLimits.NONE;
+    private Executor asyncExecutor;
 
     public ArithmeticCalculatorBuilder() {
         this.functionManager = new FunctionManager();
@@ -35,9 +51,173 @@ public class ArithmeticCalculatorBuilder {
     }
 
     /**
-     * Вызывает дальнейшие функции калькулятора с уже пред-настроенными функциями
+     * Зарегистрировать чистую функцию - результат которой зависит только от аргументов, например max или pow.
+     * Вызовы такой функции с константными аргументами вычисляются один раз при подготовке выражения:
+     * в {@code max(3, 5) * x} останется только {@code 5 * x}.
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder registerPureFunction(String name, CalculateFunction function) {
+        functionManager.registerFunction(name, function, true);
+        return this;
+    }
+
+    /**
+     * Зарегистрировать чистую функцию и сохранять ее результаты: повторный вызов с теми же аргументами
+     * не вызывает функцию, например дорогой {@code npv} или поиск в справочнике, которые вычисляются
+     * с одними и теми же аргументами в миллионах выражений.
+     * Кэш общий для всех калькуляторов, созданных этим билдером, счетчики доступны через
+     * {@link ArithmeticCalculator#getFunctionCacheStats(String)}.
+     * @param policy размер кэша и время жизни результатов
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder registerPureFunction(String name, CalculateFunction function,
+                                                            MemoizationPolicy policy) {
+        functionManager.registerFunction(name, function, policy);
+        return this;
+    }
+
+    /**
+     * Включить кэш подготовленных выражений.
+     * Повторное вычисление уже встречавшейся строки стоит одного поиска в кэше и обхода готового дерева.
+     * Ключом кэша служит выражение без пробельных символов.
+     * @param maxEntries максимальное количество выражений в кэше
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder expressionCache(int maxEntries) {
+        return expressionCache(maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * Включить кэш подготовленных выражений с ограничением по суммарной длине выражений.
+     * @param maxEntries максимальное количество выражений в кэше
+     * @param maxWeight максимальная суммарная длина выражений в кэше, в символах
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder expressionCache(int maxEntries, long maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.cacheMaxEntries = maxEntries;
+        this.cacheMaxWeight = maxWeight;
+        return this;
+    }
+
+    /**
+     * Выбрать способ вычисления подготовленных выражений.
+     * По умолчанию используется {@link EvaluationBackend#TREE}.
+     * @param backend способ вычисления
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder backend(EvaluationBackend backend) {
+        this.backend = backend;
+        return this;
+    }
+
+    /**
+     * Задать пул потоков для массового вычисления выражений методами {@code calculateAll}.
+     * По умолчанию используется {@link ForkJoinPool#commonPool()}.
+     * @param pool пул потоков
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder forkJoinPool(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+        return this;
+    }
+
+    /**
+     * Задать исполнитель для {@link com.github.gribanoveu.libruary.function.AsyncCalculateFunction}
+     * при вычислении через {@link ArithmeticCalculator#calculateAsync(String)}.
+     * По умолчанию используются виртуальные потоки, если они доступны (Java 21+),
+     * иначе общий расширяемый пул потоков-демонов.
+     * @param executor исполнитель
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder asyncExecutor(Executor executor) {
+        this.asyncExecutor = Objects.requireNonNull(executor, "executor");
+        return this;
+    }
+
+    /**
+     * Задать получателя событий для метрик и трассировки: время разбора, вычисления и подготовки,
+     * длина и вложенность выражений, обращения к кэшу, вызовы функций.
+     * Без получателя калькулятор ничего не измеряет.
+     * Пример получателя - {@link com.github.gribanoveu.libruary.metrics.CalculatorMetrics}.
+     * @param listener получатель событий
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder listener(CalculatorListener listener) {
+        this.listener = Objects.requireNonNull(listener, "listener");
+        return this;
+    }
+
+    /**
+     * Ограничить длину выражения. Более длинное выражение не разбирается,
+     * {@code calculate} выбрасывает {@link com.github.gribanoveu.libruary.exception.LimitExceededException}.
+     * @param maxLength наибольшая длина в символах, включая пробелы
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder maxExpressionLength(int maxLength) {
+        this.limits = limits.withMaxLength(maxLength);
+        return this;
+    }
+
+    /**
+     * Ограничить количество токенов выражения: чисел, имен, операторов, скобок и запятых.
+     * @param maxTokens наибольшее количество токенов
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder maxTokens(int maxTokens) {
+        this.limits = limits.withMaxTokens(maxTokens);
+        return this;
+    }
+
+    /**
+     * Ограничить вложенность скобок и вызовов функций: в {@code min(1, (2))} вложенность 2.
+     * Цепочка унарных минусов добавляет к глубине скобок свою длину: в {@code (- - 1)} вложенность 3.
+     * @param maxDepth наибольшая вложенность
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder maxDepth(int maxDepth) {
+        this.limits = limits.withMaxDepth(maxDepth);
+        return this;
+    }
+
+    /**
+     * Ограничить количество вызовов функций в одном выражении.
+     * @param maxFunctionCalls наибольшее количество вызовов
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder maxFunctionCalls(int maxFunctionCalls) {
+        this.limits = limits.withMaxFunctionCalls(maxFunctionCalls);
+        return this;
+    }
+
+    /**
+     * Ограничить время вычисления одного выражения методами {@code calculate}, {@code tryCalculate},
+     * {@code calculateAll} и {@code calculateLines}. Срок проверяется до и после каждого вызова функции,
+     * там же проверяется прерывание потока, поэтому вычисление можно отменить через {@link Thread#interrupt()}.
+     * Функция, которая уже выполняется, не прерывается принудительно.
+     * Подготовленные выражения, вычисляемые напрямую через {@code prepare(...).evaluate()}, срок не проверяют.
+     * @param timeout время на одно выражение
+     * @return билдер для дальнейшей настройки
+     */
+    public ArithmeticCalculatorBuilder timeout(Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        this.limits = limits.withTimeoutNanos(timeout.toNanos());
+        return this;
+    }
+
+    /**
+     * Вызывает дальнейшие функции калькулятора с уже пред-настроенными функциями.
+     * Калькулятор получает собственную копию функций: регистрация в билдере после build()
+     * не влияет на уже созданные калькуляторы. Заменять функции работающего калькулятора следует
+     * через {@link ArithmeticCalculator#registerFunction(String, CalculateFunction)}.
      */
     public ArithmeticCalculator build() {
-        return new ArithmeticCalculator(functionManager);
+        var expressionCache = cacheMaxEntries > 0 ? new ExpressionCache(cacheMaxEntries, cacheMaxWeight) : null;
+        return new ArithmeticCalculator(functionManager.copy(), expressionCache, backend, pool, listener, limits,
+                asyncExecutor);
     }
 }
@@ -0,0 +1,46 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Исполнитель по умолчанию для асинхронных функций.
+ * <p>
+ * Асинхронные функции обычно блокируются на вводе-выводе, поэтому лучше всего им подходят виртуальные потоки:
+ * на Java 21 и новее используется {@code Executors.newVirtualThreadPerTaskExecutor()}. Библиотека собирается
+ * для Java 17, поэтому метод ищется через отражение. Если виртуальных потоков нет, используется
+ * расширяемый пул потоков-демонов: блокирующим задачам нужен поток на каждый одновременный вызов,
+ * а не пул размером с количество ядер.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class AsyncExecutors {
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * Общий исполнитель, создается при первом обращении.
+     */
+    static Executor getDefault() {
+        return Holder.EXECUTOR;
+    }
+
+    private static final class Holder {
+        static final Executor EXECUTOR = create();
+    }
+
+    private static Executor create() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) { // Java 17-20: метода нет или виртуальные потоки в preview
+            var counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                var thread = new Thread(task, "calculator-async-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
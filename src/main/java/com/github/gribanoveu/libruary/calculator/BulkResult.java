@@ -0,0 +1,78 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Результат массового вычисления выражений.
+ * Значения хранятся в примитивном массиве в порядке входных выражений,
+ * ошибки хранятся отдельно, так как обычно их немного.
+ * Ошибка одного выражения не прерывает вычисление остальных.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class BulkResult {
+    private final double[] values;
+    private final Map<Integer, RuntimeException> errors = new ConcurrentHashMap<>();
+
+    BulkResult(int size) {
+        this.values = new double[size];
+    }
+
+    void setValue(int index, double value) {
+        values[index] = value;
+    }
+
+    void setError(int index, RuntimeException error) {
+        values[index] = Double.NaN;
+        errors.put(index, error);
+    }
+
+    /**
+     * @return количество выражений
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Получить результат выражения.
+     * @param index номер выражения во входном списке
+     * @return результат вычисления или NaN, если при вычислении возникла ошибка
+     */
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * @param index номер выражения во входном списке
+     * @return true, если выражение вычислено без ошибки
+     */
+    public boolean isSuccess(int index) {
+        return !errors.containsKey(index);
+    }
+
+    /**
+     * Получить ошибку вычисления выражения, обычно это наследник {@link ArithmeticException}.
+     * @param index номер выражения во входном списке
+     * @return исключение или null, если выражение вычислено без ошибки
+     */
+    public RuntimeException getError(int index) {
+        return errors.get(index);
+    }
+
+    /**
+     * @return количество выражений, при вычислении которых возникла ошибка
+     */
+    public int getErrorCount() {
+        return errors.size();
+    }
+
+    /**
+     * @return копия массива результатов, для выражений с ошибкой NaN
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(values, values.length);
+    }
+}
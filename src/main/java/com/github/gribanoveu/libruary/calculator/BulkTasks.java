@@ -0,0 +1,116 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Задачи ForkJoin для массового вычисления выражений.
+ * Работа делится пополам, пока часть больше порога, затем часть вычисляется последовательно в одном потоке.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class BulkTasks {
+    /**
+     * Минимальный размер части: меньшие части не окупают создание задачи.
+     */
+    static final int MIN_CHUNK = 256;
+
+    /**
+     * Сколько частей приходится на один поток пула, чтобы потоки могли забирать работу друг у друга.
+     */
+    private static final int CHUNKS_PER_THREAD = 16;
+
+    private BulkTasks() {
+    }
+
+    static long threshold(long size, int parallelism) {
+        if (size == Long.MAX_VALUE) { // размер неизвестен
+            return MIN_CHUNK;
+        }
+        return Math.max(MIN_CHUNK, size / ((long) parallelism * CHUNKS_PER_THREAD));
+    }
+
+    /**
+     * Вычисление диапазона списка с произвольным доступом, результаты пишутся по индексам.
+     */
+    static final class RangeTask extends RecursiveAction {
+        private final List<String> expressions;
+        private final ToDoubleFunction<String> calculator;
+        private final BulkResult result;
+        private final int start;
+        private final int end;
+        private final long threshold;
+
+        RangeTask(List<String> expressions, ToDoubleFunction<String> calculator, BulkResult result,
+                  int start, int end, long threshold) {
+            this.expressions = expressions;
+            this.calculator = calculator;
+            this.result = result;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > threshold) {
+                var middle = (start + end) >>> 1;
+                invokeAll(new RangeTask(expressions, calculator, result, start, middle, threshold),
+                        new RangeTask(expressions, calculator, result, middle, end, threshold));
+                return;
+            }
+            for (int index = start; index < end; index++) {
+                try {
+                    result.setValue(index, calculator.applyAsDouble(expressions.get(index)));
+                } catch (RuntimeException e) {
+                    result.setError(index, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Вычисление выражений из {@link Spliterator}, результаты передаются получателю.
+     */
+    static final class SpliteratorTask extends RecursiveAction {
+        private final Spliterator<String> expressions;
+        private final ToDoubleFunction<String> calculator;
+        private final CalculationConsumer consumer;
+        private final long threshold;
+
+        SpliteratorTask(Spliterator<String> expressions, ToDoubleFunction<String> calculator,
+                        CalculationConsumer consumer, long threshold) {
+            this.expressions = expressions;
+            this.calculator = calculator;
+            this.consumer = consumer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<String> prefix;
+            if (expressions.estimateSize() > threshold && (prefix = expressions.trySplit()) != null) {
+                invokeAll(new SpliteratorTask(prefix, calculator, consumer, threshold),
+                        new SpliteratorTask(expressions, calculator, consumer, threshold));
+                return;
+            }
+            expressions.forEachRemaining(expression -> calculate(calculator, consumer, expression));
+        }
+    }
+
+    /**
+     * Вычислить одно выражение и передать результат или ошибку получателю.
+     */
+    static void calculate(ToDoubleFunction<String> calculator, CalculationConsumer consumer, String expression) {
+        double value;
+        try {
+            value = calculator.applyAsDouble(expression);
+        } catch (RuntimeException e) {
+            consumer.accept(expression, Double.NaN, e);
+            return;
+        }
+        consumer.accept(expression, value, null);
+    }
+}
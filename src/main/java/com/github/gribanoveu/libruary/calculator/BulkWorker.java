@@ -0,0 +1,96 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import com.github.gribanoveu.libruary.entity.CalculationLimits;
+import com.github.gribanoveu.libruary.entity.CalculationResult;
+import com.github.gribanoveu.libruary.parser.PackedTokenizer;
+import com.github.gribanoveu.libruary.parser.StackEvaluator;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenStream;
+
+/**
+ * Рабочее состояние одного потока для массового вычисления:
+ * буферы токенизатора и стек анализатора переиспользуются для всех выражений этого потока.
+ * Если задан {@link CalculatorListener}, этапы разбора и вычисления измеряются отдельным методом,
+ * а без него обычный путь стоит одной проверки на null. Так же при ограничении времени
+ * на время вычисления задается срок {@link CalculationDeadline}.
+ * <p>
+ * Буферы не реентерабельны: если пользовательская функция вычисляет выражение тем же калькулятором
+ * в том же потоке, вложенное вычисление выполняет новый рабочий объект, а буферы внешнего не трогаются.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class BulkWorker {
+    private final PackedTokenizer tokenizer;
+    private final TokenStream stream = new TokenStream();
+    private final StackEvaluator evaluator = new StackEvaluator();
+    private final CalculationResult result = new CalculationResult();
+    private final CalculatorListener listener;
+    private final CalculationDeadline deadline; // срок текущего потока или null без ограничения времени
+    private final long timeoutNanos;
+    private final FunctionManager functionManager;
+    private final CalculationLimits limits;
+    private boolean busy;
+
+    BulkWorker(FunctionManager functionManager, CalculationLimits limits, CalculatorListener listener) {
+        this.functionManager = functionManager;
+        this.limits = limits;
+        this.tokenizer = new PackedTokenizer(functionManager, limits);
+        this.listener = listener;
+        this.deadline = limits.hasTimeout() ? CalculationDeadline.current() : null;
+        this.timeoutNanos = limits.timeoutNanos();
+    }
+
+    double calculate(CharSequence expression) {
+        if (!tryCalculate(expression, result)) {
+            throw result.toException();
+        }
+        return result.getValue();
+    }
+
+    boolean tryCalculate(CharSequence expression, CalculationResult result) {
+        if (busy) { // функция вычисляет другое выражение в том же потоке: буферы уже заняты
+            return new BulkWorker(functionManager, limits, listener).tryCalculate(expression, result);
+        }
+        busy = true;
+        try {
+            return tryCalculateWithDeadline(expression, result);
+        } finally {
+            busy = false;
+        }
+    }
+
+    private boolean tryCalculateWithDeadline(CharSequence expression, CalculationResult result) {
+        if (deadline != null && deadline.start(timeoutNanos)) {
+            try {
+                return tryCalculateWithinDeadline(expression, result);
+            } finally {
+                deadline.finish();
+            }
+        }
+        return tryCalculateWithinDeadline(expression, result);
+    }
+
+    private boolean tryCalculateWithinDeadline(CharSequence expression, CalculationResult result) {
+        if (listener != null) {
+            return tryCalculateListened(expression, result);
+        }
+        return tokenizer.tryTokenize(expression, stream, result) && evaluator.tryCalculateExpression(stream, result);
+    }
+
+    private boolean tryCalculateListened(CharSequence expression, CalculationResult result) {
+        var start = System.nanoTime();
+        var tokenized = tokenizer.tryTokenize(expression, stream, result);
+        var tokenizeNanos = System.nanoTime() - start;
+        if (!tokenized) {
+            listener.onTokenize(expression, stream.size(), 0, tokenizeNanos, result.getErrorCode());
+            return false;
+        }
+        var tokenCount = stream.size() - 1;
+        var depth = stream.getDepth();
+        listener.onTokenize(expression, tokenCount, depth, tokenizeNanos, result.getErrorCode());
+        start = System.nanoTime();
+        var calculated = evaluator.tryCalculateExpression(stream, result);
+        listener.onEvaluate(expression, tokenCount, depth, System.nanoTime() - start, result.getErrorCode());
+        return calculated;
+    }
+}
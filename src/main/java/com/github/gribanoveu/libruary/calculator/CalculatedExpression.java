@@ -0,0 +1,48 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import com.github.gribanoveu.libruary.exception.VariableException;
+import com.github.gribanoveu.libruary.expression.PreparedExpression;
+
+import java.util.List;
+
+/**
+ * Выражение без переменных, которое при каждом вычислении передается в {@link Calculator#calculate(String)}.
+ * Возвращается реализацией {@link Calculator#prepare(String)} по умолчанию для калькуляторов,
+ * которые не умеют разбирать выражение заранее.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class CalculatedExpression implements PreparedExpression {
+    private final Calculator calculator;
+    private final String expression;
+
+    CalculatedExpression(Calculator calculator, String expression) {
+        this.calculator = calculator;
+        this.expression = expression;
+    }
+
+    @Override
+    public double evaluate() {
+        return calculator.calculate(expression);
+    }
+
+    @Override
+    public double evaluate(double[] slots) {
+        return evaluate();
+    }
+
+    @Override
+    public int slotOf(String name) {
+        throw new VariableException("Variable not found: " + name);
+    }
+
+    @Override
+    public List<String> getVariables() {
+        return List.of();
+    }
+
+    @Override
+    public String getExpression() {
+        return expression;
+    }
+}
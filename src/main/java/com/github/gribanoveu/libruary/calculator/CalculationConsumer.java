@@ -0,0 +1,19 @@
+package com.github.gribanoveu.libruary.calculator;
+
+/**
+ * Получатель результатов массового вычисления выражений.
+ * При параллельном вычислении вызывается одновременно из нескольких потоков и в произвольном порядке,
+ * поэтому реализация должна быть потокобезопасной.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@FunctionalInterface
+public interface CalculationConsumer {
+    /**
+     * Принять результат вычисления одного выражения.
+     * @param expression выражение
+     * @param value результат вычисления или NaN, если возникла ошибка
+     * @param error исключение или null, если выражение вычислено без ошибки
+     */
+    void accept(String expression, double value, RuntimeException error);
+}
@@ -0,0 +1,88 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import com.github.gribanoveu.libruary.exception.LimitExceededException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Срок вычисления текущего выражения в потоке.
+ * <p>
+ * Калькулятор с ограничением времени задает срок перед вычислением выражения, а обертки функций
+ * ({@link InterceptedFunctions}) проверяют его до и после каждого вызова и выбрасывают
+ * {@link LimitExceededException}. Там же проверяется прерывание потока, поэтому вычисление можно отменить
+ * через {@link Thread#interrupt()}, например {@code future.cancel(true)}. Флаг прерывания не сбрасывается.
+ * Если функция сама вычисляет выражение тем же калькулятором, действует срок внешнего выражения.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class CalculationDeadline {
+    private static final ThreadLocal<CalculationDeadline> CURRENT = ThreadLocal.withInitial(CalculationDeadline::new);
+
+    private boolean active;
+    private long deadline;
+    private long timeoutNanos;
+
+    /**
+     * Проверяет срок при каждом вызове функции.
+     */
+    static final InterceptedFunctions.FunctionInterceptor INTERCEPTOR = new InterceptedFunctions.FunctionInterceptor() {
+        @Override
+        public long beforeCall(String name) {
+            current().check();
+            return 0;
+        }
+
+        @Override
+        public void afterCall(String name, int calls, long state) {
+            current().check();
+        }
+    };
+
+    private CalculationDeadline() {
+    }
+
+    /**
+     * @return срок вычисления в текущем потоке
+     */
+    static CalculationDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Начать отсчет времени выражения.
+     * @return true, если срок задан этим вызовом и его нужно снять через {@link #finish()},
+     * false, если уже действует срок внешнего выражения
+     */
+    boolean start(long timeoutNanos) {
+        if (active) {
+            return false;
+        }
+        this.active = true;
+        this.timeoutNanos = timeoutNanos;
+        this.deadline = System.nanoTime() + timeoutNanos;
+        return true;
+    }
+
+    void finish() {
+        active = false;
+    }
+
+    /**
+     * Проверить прерывание потока и срок, если срок задан.
+     * Вне вычисления калькулятором, например при вызове функции из подготовленного выражения,
+     * ничего не проверяется: прерывание потока не относится к калькулятору.
+     * @throws LimitExceededException с кодом {@link ErrorCode#CANCELLED} или {@link ErrorCode#TIMEOUT}
+     */
+    void check() {
+        if (!active) {
+            return;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new LimitExceededException(ErrorCode.CANCELLED, 0);
+        }
+        if (System.nanoTime() - deadline > 0) {
+            throw new LimitExceededException(ErrorCode.TIMEOUT, TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+        }
+    }
+}
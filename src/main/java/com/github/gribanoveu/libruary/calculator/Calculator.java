@@ -1,11 +1,118 @@
 package com.github.gribanoveu.libruary.calculator;
 
+import com.github.gribanoveu.libruary.entity.CalculationResult;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import com.github.gribanoveu.libruary.expression.PreparedExpression;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Интерфейс для калькулятора.
  * Реализует возможно высчитать выражение из строки и добавить свою функцию для расчета.
  * @author Evgeny Gribanov
- * @version 18.04.2024
+ * @version 17.10.2026
  */
 public interface Calculator {
     double calculate(String expression);
+
+    /**
+     * Подготовить выражение к многократному вычислению.
+     * Реализация по умолчанию ничего не разбирает заранее: выражение без переменных
+     * при каждом вычислении передается в {@link #calculate(String)}.
+     * @param expression строка с выражением
+     * @return подготовленное выражение
+     */
+    default PreparedExpression prepare(String expression) {
+        return new CalculatedExpression(this, expression);
+    }
+
+    /**
+     * Вычислить выражение без исключений: ошибка возвращается кодом и позицией в результате.
+     * Результат переиспользуется между вызовами, поэтому проверка большого количества строк,
+     * в том числе ошибочных, не выделяет память.
+     * Реализация по умолчанию перехватывает исключения {@link #calculate(String)} с кодом {@link ErrorCode#EXCEPTION}.
+     * @param expression строка с выражением
+     * @param result результат, в который записывается значение или ошибка
+     * @return true, если выражение вычислено
+     */
+    default boolean tryCalculate(String expression, CalculationResult result) {
+        result.reset(expression);
+        try {
+            result.setValue(calculate(expression));
+            return true;
+        } catch (RuntimeException e) {
+            result.setException(e);
+            return false;
+        }
+    }
+
+    /**
+     * Вычислить выражение без исключений, см. {@link #tryCalculate(String, CalculationResult)}.
+     * @param expression строка с выражением
+     * @return новый результат со значением или ошибкой
+     */
+    default CalculationResult tryCalculate(String expression) {
+        var result = new CalculationResult();
+        tryCalculate(expression, result);
+        return result;
+    }
+
+    /**
+     * Вычислить выражение асинхронно: независимые вызовы
+     * {@link com.github.gribanoveu.libruary.function.AsyncCalculateFunction} выполняются одновременно.
+     * Реализация по умолчанию вычисляет выражение синхронно и возвращает готовый результат.
+     * @param expression строка с выражением
+     * @return будущий результат, ошибка разбора или вычисления возвращается в нем, а не выбрасывается
+     */
+    default CompletableFuture<Double> calculateAsync(String expression) {
+        try {
+            return CompletableFuture.completedFuture(calculate(expression));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Вычислить подготовленное выражение для множества строк данных по колонкам.
+     * @param expression подготовленное выражение
+     * @param inputColumns значения переменных по колонкам: inputColumns[слот переменной][номер строки]
+     * @param out массив результатов, количество строк равно его длине
+     */
+    default void evaluateBatch(PreparedExpression expression, double[][] inputColumns, double[] out) {
+        expression.evaluateBatch(inputColumns, out);
+    }
+
+    /**
+     * Вычислить список независимых выражений.
+     * Ошибка в одном выражении сохраняется в результате и не прерывает вычисление остальных.
+     * Реализация по умолчанию вычисляет выражения последовательно.
+     * @param expressions выражения
+     * @return результаты в порядке входных выражений
+     */
+    default BulkResult calculateAll(List<String> expressions) {
+        var result = new BulkResult(expressions.size());
+        var index = 0;
+        for (var expression : expressions) {
+            try {
+                result.setValue(index, calculate(expression));
+            } catch (RuntimeException e) {
+                result.setError(index, e);
+            }
+            index++;
+        }
+        return result;
+    }
+
+    /**
+     * Вычислить выражения из источника произвольного размера и передать результаты получателю.
+     * Ошибка в одном выражении передается получателю и не прерывает вычисление остальных.
+     * Реализация по умолчанию вычисляет выражения последовательно.
+     * @param expressions источник выражений, например {@code lines.spliterator()}
+     * @param consumer получатель результатов
+     */
+    default void calculateAll(Spliterator<String> expressions, CalculationConsumer consumer) {
+        expressions.forEachRemaining(expression -> BulkTasks.calculate(this::calculate, consumer, expression));
+    }
 }
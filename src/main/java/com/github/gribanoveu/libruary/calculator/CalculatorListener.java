@@ -0,0 +1,73 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+
+/**
+ * Получатель событий калькулятора для метрик и трассировки.
+ * Регистрируется в билдере: {@link ArithmeticCalculatorBuilder#listener(CalculatorListener)}.
+ * <p>
+ * Калькулятор без получателя не измеряет время и не вызывает никаких методов: на каждом этапе
+ * стоит только проверка поля на null. Все методы вызываются в потоке вычисления, поэтому реализация
+ * должна быть потокобезопасной и быстрой. Времена передаются в наносекундах по {@link System#nanoTime()}.
+ * Выражение передается только на время вызова: при построчном вычислении файла это переиспользуемое
+ * окно в буфере, поэтому сохранять его нельзя, а при необходимости следует скопировать {@code toString()}.
+ * Готовая реализация с гистограммами - {@link com.github.gribanoveu.libruary.metrics.CalculatorMetrics}.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public interface CalculatorListener {
+
+    /**
+     * Выражение разобрано на токены при вычислении без подготовки или не удалось подготовить выражение:
+     * ошибка подготовки сообщается здесь с тем же кодом, что и ошибка разбора без подготовки.
+     * @param expression выражение
+     * @param tokenCount количество токенов без завершающего EOF, при ошибке - количество прочитанных до нее
+     * @param depth наибольшая вложенность скобок и вызовов функций, при ошибке - 0
+     * @param nanos время разбора
+     * @param errorCode {@link ErrorCode#NONE} или ошибка разбора
+     */
+    default void onTokenize(CharSequence expression, int tokenCount, int depth, long nanos, ErrorCode errorCode) {
+    }
+
+    /**
+     * Выражение вычислено: разобранный поток токенов при вычислении без подготовки
+     * или подготовленное выражение при вычислении через кэш.
+     * @param expression выражение
+     * @param tokenCount количество токенов или -1, если выражение взято подготовленным из кэша
+     * @param depth наибольшая вложенность или -1, если выражение взято подготовленным из кэша
+     * @param nanos время вычисления без разбора
+     * @param errorCode {@link ErrorCode#NONE} или ошибка вычисления
+     */
+    default void onEvaluate(CharSequence expression, int tokenCount, int depth, long nanos, ErrorCode errorCode) {
+    }
+
+    /**
+     * Выражение подготовлено: разобрано, свернуто и скомпилировано выбранным способом вычисления.
+     * @param expression выражение
+     * @param tokenCount количество токенов без завершающего EOF
+     * @param depth наибольшая вложенность скобок и вызовов функций
+     * @param nanos время подготовки
+     */
+    default void onCompile(CharSequence expression, int tokenCount, int depth, long nanos) {
+    }
+
+    /**
+     * Подготовленное выражение найдено в кэше или подготовлено заново.
+     * Вызывается только, если кэш включен в билдере.
+     * @param expression выражение
+     * @param hit true, если выражение найдено в кэше
+     */
+    default void onCacheLookup(CharSequence expression, boolean hit) {
+    }
+
+    /**
+     * Вызвана пользовательская функция.
+     * При пакетном вычислении функция с {@link com.github.gribanoveu.libruary.function.BatchFunction}
+     * обрабатывает блок строк за один вызов, тогда {@code calls} равно количеству строк в блоке.
+     * @param name имя функции
+     * @param calls количество вычисленных значений функции
+     * @param nanos общее время вызова
+     */
+    default void onFunctionCall(String name, int calls, long nanos) {
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import com.github.gribanoveu.libruary.function.AsyncCalculateFunction;
+import com.github.gribanoveu.libruary.function.BatchFunction;
+import com.github.gribanoveu.libruary.function.CalculateFunction;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.function.VarargFunction;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Обертки пользовательских функций, которые вызывают {@link FunctionInterceptor} до и после каждого вызова:
+ * так измеряется время функций для {@link CalculatorListener} и проверяется срок вычисления.
+ * <p>
+ * Функции оборачиваются один раз при регистрации и только, если это нужно, поэтому ни один
+ * способ вычисления не проверяет наличие получателя или срока при вызове функции. Обертка реализует тот же
+ * интерфейс, что и функция ({@link Function1}, {@link Function2}, {@link Function3}, {@link VarargFunction}
+ * или только {@link CalculateFunction}), и {@link BatchFunction}, если его реализует функция,
+ * поэтому способ вызова и пакетное вычисление остаются прежними.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class InterceptedFunctions {
+
+    private InterceptedFunctions() {
+    }
+
+    /**
+     * Действие до и после вызова функции.
+     */
+    interface FunctionInterceptor {
+        /**
+         * @return значение, которое передается в {@link #afterCall(String, int, long)}, например время начала
+         */
+        long beforeCall(String name);
+
+        /**
+         * @param calls количество вычисленных значений, больше 1 при пакетном вычислении
+         * @param state значение из {@link #beforeCall(String)}
+         */
+        void afterCall(String name, int calls, long state);
+    }
+
+    /**
+     * Сообщает время вызова получателю событий.
+     */
+    record ListenerInterceptor(CalculatorListener listener) implements FunctionInterceptor {
+        @Override
+        public long beforeCall(String name) {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void afterCall(String name, int calls, long state) {
+            listener.onFunctionCall(name, calls, System.nanoTime() - state);
+        }
+    }
+
+    /**
+     * Создать копию менеджера, в которой все функции обернуты.
+     * @param functionManager исходные функции
+     * @param interceptor действие до и после вызова
+     * @return новый менеджер с обернутыми функциями, прежними признаками чистоты и кэшами результатов
+     */
+    static FunctionManager wrapAll(FunctionManager functionManager, FunctionInterceptor interceptor) {
+        var registry = functionManager.getRegistry();
+        var wrapped = new FunctionManager();
+        for (var name : registry.getNames()) {
+            var function = registry.find(name);
+            wrapped.registerFunction(name, wrap(name, function.getFunction(), interceptor), function.isPure(),
+                    function.getCache());
+        }
+        return wrapped;
+    }
+
+    /**
+     * Обернуть функцию в обертку того же вида.
+     * Порядок проверок совпадает с выбором способа вызова в
+     * {@link com.github.gribanoveu.libruary.util.RegisteredFunction}.
+     * Асинхронная функция остается асинхронной, вызов заканчивается с завершением ее результата.
+     */
+    static CalculateFunction wrap(String name, CalculateFunction function, FunctionInterceptor interceptor) {
+        if (function instanceof AsyncCalculateFunction f) {
+            return new InterceptedAsync(name, f, interceptor);
+        }
+        var batch = function instanceof BatchFunction;
+        if (function instanceof Function1 f) {
+            return batch ? new BatchIntercepted1(name, f, interceptor) : new Intercepted1(name, f, interceptor);
+        } else if (function instanceof Function2 f) {
+            return batch ? new BatchIntercepted2(name, f, interceptor) : new Intercepted2(name, f, interceptor);
+        } else if (function instanceof Function3 f) {
+            return batch ? new BatchIntercepted3(name, f, interceptor) : new Intercepted3(name, f, interceptor);
+        } else if (function instanceof VarargFunction f) {
+            return batch
+                    ? new BatchInterceptedVararg(name, f, interceptor)
+                    : new InterceptedVararg(name, f, interceptor);
+        }
+        return batch
+                ? new BatchInterceptedList(name, function, interceptor)
+                : new InterceptedList(name, function, interceptor);
+    }
+
+    private abstract static class Intercepted {
+        final String name;
+        final FunctionInterceptor interceptor;
+
+        Intercepted(String name, FunctionInterceptor interceptor) {
+            this.name = name;
+            this.interceptor = interceptor;
+        }
+
+        void applyBatch(BatchFunction function, double[][] args, int length, double[] result) {
+            var state = interceptor.beforeCall(name);
+            function.applyBatch(args, length, result);
+            interceptor.afterCall(name, length, state);
+        }
+    }
+
+    private static class Intercepted1 extends Intercepted implements Function1 {
+        final Function1 function;
+
+        Intercepted1(String name, Function1 function, FunctionInterceptor interceptor) {
+            super(name, interceptor);
+            this.function = function;
+        }
+
+        @Override
+        public double apply(double argument) {
+            var state = interceptor.beforeCall(name);
+            var value = function.apply(argument);
+            interceptor.afterCall(name, 1, state);
+            return value;
+        }
+    }
+
+    private static class Intercepted2 extends Intercepted implements Function2 {
+        final Function2 function;
+
+        Intercepted2(String name, Function2 function, FunctionInterceptor interceptor) {
+            super(name, interceptor);
+            this.function = function;
+        }
+
+        @Override
+        public double apply(double first, double second) {
+            var state = interceptor.beforeCall(name);
+            var value = function.apply(first, second);
+            interceptor.afterCall(name, 1, state);
+            return value;
+        }
+    }
+
+    private static class Intercepted3 extends Intercepted implements Function3 {
+        final Function3 function;
+
+        Intercepted3(String name, Function3 function, FunctionInterceptor interceptor) {
+            super(name, interceptor);
+            this.function = function;
+        }
+
+        @Override
+        public double apply(double first, double second, double third) {
+            var state = interceptor.beforeCall(name);
+            var value = function.apply(first, second, third);
+            interceptor.afterCall(name, 1, state);
+            return value;
+        }
+    }
+
+    private static class InterceptedVararg extends Intercepted implements VarargFunction {
+        final VarargFunction function;
+
+        InterceptedVararg(String name, VarargFunction function, FunctionInterceptor interceptor) {
+            super(name, interceptor);
+            this.function = function;
+        }
+
+        @Override
+        public double apply(double[] args, int length) {
+            var state = interceptor.beforeCall(name);
+            var value = function.apply(args, length);
+            interceptor.afterCall(name, 1, state);
+            return value;
+        }
+    }
+
+    private static class InterceptedList extends Intercepted implements CalculateFunction {
+        final CalculateFunction function;
+
+        InterceptedList(String name, CalculateFunction function, FunctionInterceptor interceptor) {
+            super(name, interceptor);
+            this.function = function;
+        }
+
+        @Override
+        public double apply(List<Double> args) {
+            var state = interceptor.beforeCall(name);
+            var value = function.apply(args);
+            interceptor.afterCall(name, 1, state);
+            return value;
+        }
+    }
+
+    private static final class InterceptedAsync extends Intercepted implements AsyncCalculateFunction {
+        final AsyncCalculateFunction function;
+
+        InterceptedAsync(String name, AsyncCalculateFunction function, FunctionInterceptor interceptor) {
+            super(name, interceptor);
+            this.function = function;
+        }
+
+        @Override
+        public CompletableFuture<Double> applyAsync(double[] args, Executor executor) {
+            var state = interceptor.beforeCall(name);
+            return function.applyAsync(args, executor)
+                    .whenComplete((value, error) -> interceptor.afterCall(name, 1, state));
+        }
+    }
+
+    // варианты для функций с пакетным вычислением
+
+    private static final class BatchIntercepted1 extends Intercepted1 implements BatchFunction {
+        BatchIntercepted1(String name, Function1 function, FunctionInterceptor interceptor) {
+            super(name, function, interceptor);
+        }
+
+        @Override
+        public void applyBatch(double[][] args, int length, double[] result) {
+            applyBatch((BatchFunction) function, args, length, result);
+        }
+    }
+
+    private static final class BatchIntercepted2 extends Intercepted2 implements BatchFunction {
+        BatchIntercepted2(String name, Function2 function, FunctionInterceptor interceptor) {
+            super(name, function, interceptor);
+        }
+
+        @Override
+        public void applyBatch(double[][] args, int length, double[] result) {
+            applyBatch((BatchFunction) function, args, length, result);
+        }
+    }
+
+    private static final class BatchIntercepted3 extends Intercepted3 implements BatchFunction {
+        BatchIntercepted3(String name, Function3 function, FunctionInterceptor interceptor) {
+            super(name, function, interceptor);
+        }
+
+        @Override
+        public void applyBatch(double[][] args, int length, double[] result) {
+            applyBatch((BatchFunction) function, args, length, result);
+        }
+    }
+
+    private static final class BatchInterceptedVararg extends InterceptedVararg implements BatchFunction {
+        BatchInterceptedVararg(String name, VarargFunction function, FunctionInterceptor interceptor) {
+            super(name, function, interceptor);
+        }
+
+        @Override
+        public void applyBatch(double[][] args, int length, double[] result) {
+            applyBatch((BatchFunction) function, args, length, result);
+        }
+    }
+
+    private static final class BatchInterceptedList extends InterceptedList implements BatchFunction {
+        BatchInterceptedList(String name, CalculateFunction function, FunctionInterceptor interceptor) {
+            super(name, function, interceptor);
+        }
+
+        @Override
+        public void applyBatch(double[][] args, int length, double[] result) {
+            applyBatch((BatchFunction) function, args, length, result);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import com.github.gribanoveu.libruary.entity.CalculationResult;
+import com.github.gribanoveu.libruary.util.ByteCharSequence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Потоковое вычисление выражений, записанных по одному на строку.
+ * <p>
+ * Вход читается большими блоками (файл отображается в память окнами по {@link #MAP_WINDOW} байт,
+ * канал читается в буферы по {@link #BATCH_SIZE} байт) и делится на пакеты целых строк.
+ * Пакеты вычисляются в пуле потоков, выражения разбираются прямо из байтов через {@link ByteCharSequence}.
+ * Результаты пишутся в выходной канал в порядке строк входа. Одновременно в работе не больше
+ * двух пакетов на поток пула, а буферы пакетов переиспользуются, поэтому расход памяти не зависит
+ * от размера входа.
+ * <p>
+ * Для каждой строки выводится результат или {@code ERROR <сообщение>}, если при вычислении возникла ошибка.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class LinePipeline {
+    /**
+     * Примерный размер пакета строк, отдаваемого одному потоку.
+     */
+    static final int BATCH_SIZE = 256 * 1024;
+
+    /**
+     * Размер окна отображения файла в память.
+     */
+    static final int MAP_WINDOW = 64 * 1024 * 1024;
+
+    private static final byte NEW_LINE = '\n';
+    private static final byte[] ERROR_PREFIX = "ERROR ".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<BulkWorker> workers;
+    private final WritableByteChannel output;
+    private final int maxInFlight;
+    private final ArrayDeque<Batch> inFlight = new ArrayDeque<>();
+    private final ArrayDeque<Batch> free = new ArrayDeque<>();
+    private long lineCount;
+
+    LinePipeline(ForkJoinPool pool, ThreadLocal<BulkWorker> workers, WritableByteChannel output) {
+        this.pool = pool;
+        this.workers = workers;
+        this.output = output;
+        this.maxInFlight = pool.getParallelism() * 2;
+    }
+
+    /**
+     * Вычислить строки файла, отображая его в память окнами.
+     * @return количество строк
+     */
+    long run(FileChannel input) throws IOException {
+        var size = input.size();
+        var position = 0L;
+        while (position < size) {
+            var length = (int) Math.min(MAP_WINDOW, size - position);
+            var mapped = input.map(FileChannel.MapMode.READ_ONLY, position, length);
+            var end = position + length == size ? length : lastNewLine(mapped, 0, length) + 1;
+            if (end == 0) {
+                throw new IOException("Line is longer than %s bytes at offset %s".formatted(MAP_WINDOW, position));
+            }
+            for (int start = 0; start < end; ) { // окно делится на пакеты по границам строк
+                var batchEnd = start + BATCH_SIZE >= end ? end : lastNewLine(mapped, start, start + BATCH_SIZE) + 1;
+                if (batchEnd <= start) { // строка длиннее пакета уходит в пакет целиком
+                    batchEnd = nextNewLine(mapped, start + BATCH_SIZE, end) + 1;
+                }
+                submit(acquire().wrap(mapped, start, batchEnd));
+                start = batchEnd;
+            }
+            position += end;
+        }
+        return finish();
+    }
+
+    /**
+     * Вычислить строки из канала, читая его в переиспользуемые буферы пакетов.
+     * @return количество строк
+     */
+    long run(ReadableByteChannel input) throws IOException {
+        var batch = acquire().own(0);
+        var eof = false;
+        while (!eof) {
+            var buffer = batch.input;
+            if (!buffer.hasRemaining()) { // строка не помещается в буфер
+                buffer = batch.grow();
+            }
+            eof = input.read(buffer) < 0;
+            var filled = buffer.position();
+            var end = eof ? filled : lastNewLine(buffer, 0, filled) + 1;
+            if (end == 0) {
+                continue;
+            }
+            var next = acquire().own(filled - end); // остаток неполной строки переносится в следующий пакет
+            next.input.put(0, buffer, end, filled - end).position(filled - end);
+            submit(batch.wrap(buffer, 0, end));
+            batch = next;
+        }
+        release(batch);
+        return finish();
+    }
+
+    private void submit(Batch batch) throws IOException {
+        if (inFlight.size() == maxInFlight) {
+            write(inFlight.poll());
+        }
+        batch.task = pool.submit(batch::evaluate);
+        inFlight.add(batch);
+    }
+
+    private long finish() throws IOException {
+        while (!inFlight.isEmpty()) {
+            write(inFlight.poll());
+        }
+        return lineCount;
+    }
+
+    private void write(Batch batch) throws IOException {
+        batch.task.join();
+        var buffer = ByteBuffer.wrap(batch.output, 0, batch.outputLength);
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        lineCount += batch.lines;
+        release(batch);
+    }
+
+    private Batch acquire() {
+        var batch = free.poll();
+        return batch != null ? batch : new Batch();
+    }
+
+    private void release(Batch batch) {
+        batch.task = null;
+        if (batch.input != null && !batch.owned) {
+            batch.input = null; // не удерживать отображенное окно файла
+        }
+        free.add(batch);
+    }
+
+    private static int lastNewLine(ByteBuffer buffer, int start, int end) {
+        for (int index = end - 1; index >= start; index--) {
+            if (buffer.get(index) == NEW_LINE) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static int nextNewLine(ByteBuffer buffer, int start, int end) {
+        for (int index = start; index < end; index++) {
+            if (buffer.get(index) == NEW_LINE) {
+                return index;
+            }
+        }
+        return end - 1;
+    }
+
+    /**
+     * Пакет строк: фрагмент входа и накопленный вывод.
+     */
+    private final class Batch {
+        private ByteBuffer input;
+        private boolean owned; // буфер принадлежит пакету и переиспользуется, а не является окном файла
+        private int start;
+        private int end;
+        private byte[] output = new byte[1024];
+        private int outputLength;
+        private int lines;
+        private ForkJoinTask<?> task;
+
+        Batch own(int minCapacity) {
+            if (!owned || input.capacity() < minCapacity) {
+                input = ByteBuffer.allocate(Math.max(BATCH_SIZE, minCapacity * 2));
+                owned = true;
+            }
+            input.clear();
+            return this;
+        }
+
+        ByteBuffer grow() {
+            input = ByteBuffer.allocate(input.capacity() * 2).put(input.flip());
+            return input;
+        }
+
+        Batch wrap(ByteBuffer buffer, int start, int end) {
+            this.input = buffer;
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        void evaluate() {
+            var worker = workers.get();
+            var line = new ByteCharSequence();
+            var result = new CalculationResult();
+            outputLength = 0;
+            lines = 0;
+            for (int lineStart = start; lineStart < end; ) {
+                var lineEnd = lineStart;
+                while (lineEnd < end && input.get(lineEnd) != NEW_LINE) {
+                    lineEnd++;
+                }
+                if (worker.tryCalculate(line.wrap(input, lineStart, lineEnd), result)) {
+                    writeAscii(Double.toString(result.getValue()));
+                } else { // ошибочные строки не создают исключений, кроме исключений самих функций
+                    writeBytes(ERROR_PREFIX);
+                    writeAscii(String.valueOf(result.getMessage()).replace('\n', ' '));
+                }
+                writeByte(NEW_LINE);
+                lines++;
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        private void writeAscii(String text) {
+            ensureCapacity(text.length());
+            for (int index = 0; index < text.length(); index++) {
+                var character = text.charAt(index);
+                output[outputLength++] = (byte) (character < 0x80 ? character : '?');
+            }
+        }
+
+        private void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, output, outputLength, bytes.length);
+            outputLength += bytes.length;
+        }
+
+        private void writeByte(byte value) {
+            ensureCapacity(1);
+            output[outputLength++] = value;
+        }
+
+        private void ensureCapacity(int length) {
+            if (outputLength + length > output.length) {
+                output = Arrays.copyOf(output, Math.max(output.length * 2, outputLength + length));
+            }
+        }
+    }
+}
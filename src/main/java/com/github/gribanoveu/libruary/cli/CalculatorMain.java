@@ -0,0 +1,55 @@
+package com.github.gribanoveu.libruary.cli;
+
+import com.github.gribanoveu.libruary.calculator.ArithmeticCalculatorBuilder;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import com.github.gribanoveu.libruary.function.MinimalValueFunction;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Точка входа для вычисления выражений из файла или стандартного ввода.
+ * <pre>
+ * java -jar string-calculator.jar [входной файл | -] [выходной файл]
+ * </pre>
+ * Каждая строка входа - отдельное выражение, для каждой строки выводится результат в том же порядке.
+ * Без аргументов читает стандартный ввод и пишет в стандартный вывод. Доступны функции max и min.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class CalculatorMain {
+    private CalculatorMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 2) {
+            System.err.println("Usage: java -jar string-calculator.jar [input | -] [output]");
+            System.exit(2);
+        }
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("max", new MaximalValueFunction())
+                .registerFunction("min", new MinimalValueFunction())
+                .build();
+        try (var output = openOutput(args.length > 1 ? args[1] : null)) {
+            if (args.length == 0 || "-".equals(args[0])) {
+                calculator.calculateLines(Channels.newChannel(System.in), output);
+            } else {
+                calculator.calculateLines(Path.of(args[0]), output);
+            }
+        }
+    }
+
+    private static WritableByteChannel openOutput(String path) throws IOException {
+        if (path == null) {
+            return new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+        return FileChannel.open(Path.of(path),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
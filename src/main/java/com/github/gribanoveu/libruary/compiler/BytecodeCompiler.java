@@ -0,0 +1,241 @@
+package com.github.gribanoveu.libruary.compiler;
+
+
+import com.github.gribanoveu.libruary.compiler.ClassFileWriter.CodeWriter;
+import com.github.gribanoveu.libruary.expression.BinaryNode;
+import com.github.gribanoveu.libruary.expression.ChainNode;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.expression.FunctionNode;
+import com.github.gribanoveu.libruary.expression.NegationNode;
+import com.github.gribanoveu.libruary.expression.NumberNode;
+import com.github.gribanoveu.libruary.expression.Operator;
+import com.github.gribanoveu.libruary.expression.VariableNode;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.util.RegisteredFunction;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.gribanoveu.libruary.compiler.ClassFileWriter.CodeWriter.*;
+
+/**
+ * Компилятор синтаксического дерева в байт-код.
+ * <p>
+ * Для выражения генерируется скрытый класс ({@link MethodHandles.Lookup#defineHiddenClass}), реализующий
+ * {@link ExpressionNode}: все арифметические операции идут подряд над double без виртуальных вызовов,
+ * а функции вызываются напрямую через {@code invokeinterface} по final полям, которые JIT считает константами.
+ * Так JIT может встроить всю формулу целиком.
+ * <p>
+ * Класс определяется без опции STRONG, поэтому выгружается вместе с последней ссылкой на выражение,
+ * например, после вытеснения из кэша.
+ * Функции связываются при компиляции: замена функции после компиляции не видна уже созданному классу.
+ * <p>
+ * Если метод получается больше, чем JIT готов компилировать, или в дереве есть неизвестные узлы,
+ * возвращается исходное дерево.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class BytecodeCompiler {
+    /**
+     * Предел размера метода, после которого HotSpot не компилирует его JIT (HugeMethodLimit).
+     */
+    private static final int MAX_CODE_SIZE = 8000;
+    private static final int MAX_CONSTANTS = 0xffff;
+
+    private static final String CLASS_NAME = "com/github/gribanoveu/libruary/compiler/GeneratedExpression";
+    private static final String NODE = "com/github/gribanoveu/libruary/expression/ExpressionNode";
+    private static final String FUNCTION_1 = "com/github/gribanoveu/libruary/function/Function1";
+    private static final String FUNCTION_2 = "com/github/gribanoveu/libruary/function/Function2";
+    private static final String FUNCTION_3 = "com/github/gribanoveu/libruary/function/Function3";
+    private static final String REGISTERED_FUNCTION = "com/github/gribanoveu/libruary/util/RegisteredFunction";
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, Object[].class);
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    /**
+     * Скомпилировать дерево в скрытый класс.
+     * @param root корень дерева
+     * @return сгенерированный узел, вычисляющий все дерево, или сам root, если компиляция невозможна
+     */
+    public ExpressionNode compile(ExpressionNode root) {
+        var generation = new Generation();
+        if (!generation.emitEvaluate(root)) {
+            return root;
+        }
+        try {
+            var hiddenClass = lookup.defineHiddenClass(generation.toByteArray(), true).lookupClass();
+            var constructor = lookup.findConstructor(hiddenClass, CONSTRUCTOR_TYPE);
+            return (ExpressionNode) constructor.invoke(generation.getFunctionValues());
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to compile expression to bytecode", e);
+        }
+    }
+
+    /**
+     * Состояние генерации одного класса.
+     */
+    private static final class Generation {
+        private final ClassFileWriter classFile = new ClassFileWriter(CLASS_NAME, "java/lang/Object", NODE);
+        private final CodeWriter code = new CodeWriter();
+        private final Map<Object, Integer> functionFields = new IdentityHashMap<>();
+        private final List<Object> functionValues = new ArrayList<>();
+        private final List<String> functionDescriptors = new ArrayList<>();
+
+        boolean emitEvaluate(ExpressionNode root) {
+            if (!emit(root)) {
+                return false;
+            }
+            code.op(DRETURN, -2);
+            if (code.size() > MAX_CODE_SIZE || classFile.getConstantCount() > MAX_CONSTANTS - 64) {
+                return false;
+            }
+            classFile.addMethod(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL, "evaluate", "([D)D", code, 2);
+            emitConstructor();
+            return true;
+        }
+
+        private boolean emit(ExpressionNode node) {
+            if (code.size() > MAX_CODE_SIZE) { // дальше генерировать бессмысленно
+                return false;
+            }
+            if (node instanceof NumberNode number) {
+                emitNumber(number.value());
+                return true;
+            }
+            if (node instanceof VariableNode variable) {
+                code.op(ALOAD_1, 1).pushInt(classFile, variable.slot()).op(DALOAD, 0);
+                return true;
+            }
+            if (node instanceof NegationNode negation) {
+                if (!emit(negation.operand())) {
+                    return false;
+                }
+                code.op(DNEG, 0);
+                return true;
+            }
+            if (node instanceof BinaryNode binary) {
+                if (!emit(binary.left()) || !emit(binary.right())) {
+                    return false;
+                }
+                code.op(opcode(binary.operator()), -2);
+                return true;
+            }
+            if (node instanceof ChainNode chain) { // цепочка идет подряд, на стеке не больше двух операндов
+                var operands = chain.operands();
+                if (!emit(operands.get(0))) {
+                    return false;
+                }
+                for (int i = 1; i < operands.size(); i++) {
+                    if (!emit(operands.get(i))) {
+                        return false;
+                    }
+                    code.op(opcode(chain.operators().get(i - 1)), -2);
+                }
+                return true;
+            }
+            if (node instanceof FunctionNode function) {
+                return emitFunction(function.function(), function.arguments());
+            }
+            return false;
+        }
+
+        private static int opcode(Operator operator) {
+            return switch (operator) {
+                case PLUS -> DADD;
+                case MINUS -> DSUB;
+                case MULTIPLICATION -> DMUL;
+                case DIVISION -> DDIV;
+            };
+        }
+
+        private void emitNumber(double value) {
+            var bits = Double.doubleToRawLongBits(value);
+            if (bits == 0L) {
+                code.op(DCONST_0, 2);
+            } else if (bits == Double.doubleToRawLongBits(1.0)) {
+                code.op(DCONST_1, 2);
+            } else {
+                code.op2(LDC2_W, classFile.doubleConstant(value), 2);
+            }
+        }
+
+        private boolean emitFunction(RegisteredFunction function, List<ExpressionNode> arguments) {
+            var arity = function.getArity();
+            if (arity == arguments.size()) { // прямой вызов интерфейса без массива аргументов
+                var owner = switch (function.getKind()) {
+                    case FUNCTION_1 -> FUNCTION_1;
+                    case FUNCTION_2 -> FUNCTION_2;
+                    default -> FUNCTION_3;
+                };
+                var descriptor = "(" + "D".repeat(arity) + ")D";
+                loadField(function.getFunction(), "L" + owner + ";");
+                for (var argument : arguments) {
+                    if (!emit(argument)) {
+                        return false;
+                    }
+                }
+                code.invokeInterface(classFile.interfaceMethodConstant(owner, "apply", descriptor),
+                        arity * 2, -(1 + arity * 2) + 2);
+                return true;
+            }
+            // функции с переменным числом аргументов, количество для остальных проверено в FunctionNode
+            loadField(function, "L" + REGISTERED_FUNCTION + ";");
+            code.pushInt(classFile, arguments.size()).op1(NEWARRAY, T_DOUBLE, 0);
+            for (int i = 0; i < arguments.size(); i++) {
+                code.op(DUP, 1).pushInt(classFile, i);
+                if (!emit(arguments.get(i))) {
+                    return false;
+                }
+                code.op(DASTORE, -4);
+            }
+            code.pushInt(classFile, arguments.size());
+            code.op2(INVOKEVIRTUAL, classFile.methodConstant(REGISTERED_FUNCTION, "invoke", "([DI)D"), -3 + 2);
+            return true;
+        }
+
+        private void loadField(Object value, String descriptor) {
+            var index = functionFields.get(value);
+            if (index == null) {
+                index = functionValues.size();
+                functionFields.put(value, index);
+                functionValues.add(value);
+                functionDescriptors.add(descriptor);
+            }
+            code.op(ALOAD_0, 1).op2(GETFIELD, classFile.fieldConstant(CLASS_NAME, "f" + index, descriptor), 0);
+        }
+
+        /**
+         * Конструктор сохраняет функции в final поля: {@code this.f0 = (Function2) functions[0]; ...}
+         */
+        private void emitConstructor() {
+            var constructor = new CodeWriter();
+            constructor.op(ALOAD_0, 1)
+                    .op2(INVOKESPECIAL, classFile.methodConstant("java/lang/Object", "<init>", "()V"), -1);
+            for (int i = 0; i < functionValues.size(); i++) {
+                var descriptor = functionDescriptors.get(i);
+                var type = descriptor.substring(1, descriptor.length() - 1);
+                classFile.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "f" + i, descriptor);
+                constructor.op(ALOAD_0, 1).op(ALOAD_1, 1).pushInt(classFile, i).op(AALOAD, -1)
+                        .op2(CHECKCAST, classFile.classConstant(type), 0)
+                        .op2(PUTFIELD, classFile.fieldConstant(CLASS_NAME, "f" + i, descriptor), -2);
+            }
+            constructor.op(RETURN, 0);
+            classFile.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "([Ljava/lang/Object;)V", constructor, 2);
+        }
+
+        byte[] toByteArray() {
+            return classFile.toByteArray();
+        }
+
+        Object[] getFunctionValues() {
+            return functionValues.toArray();
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.github.gribanoveu.libruary.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Минимальный генератор class-файла для {@link BytecodeCompiler} и {@link MethodHandleCompiler}.
+ * Поддерживает только то, что нужно скомпилированному выражению: final и static final поля, методы без ветвлений
+ * и без обработчиков исключений, поэтому таблица StackMapTable не требуется.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class ClassFileWriter {
+    private static final int CLASS_FILE_VERSION = 61; // Java 17
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+    private final Map<String, Integer> constants = new HashMap<>();
+    private int constantCount = 1;
+
+    private final int thisClass;
+    private final int superClass;
+    private final List<Integer> interfaces = new ArrayList<>();
+    private final ByteArrayOutputStream members = new ByteArrayOutputStream();
+    private int fieldCount;
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private int methodCount;
+    private final int codeAttribute;
+
+    ClassFileWriter(String className, String superName, String... interfaceNames) {
+        thisClass = classConstant(className);
+        superClass = classConstant(superName);
+        for (var interfaceName : interfaceNames) {
+            interfaces.add(classConstant(interfaceName));
+        }
+        codeAttribute = utf8("Code");
+    }
+
+    int utf8(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        }, 1);
+    }
+
+    int classConstant(String internalName) {
+        var name = utf8(internalName);
+        return constant("C" + internalName, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(name);
+        }, 1);
+    }
+
+    int stringConstant(String value) {
+        var text = utf8(value);
+        return constant("S" + value, out -> {
+            out.writeByte(CONSTANT_STRING);
+            out.writeShort(text);
+        }, 1);
+    }
+
+    int integerConstant(int value) {
+        return constant("I" + value, out -> {
+            out.writeByte(CONSTANT_INTEGER);
+            out.writeInt(value);
+        }, 1);
+    }
+
+    int doubleConstant(double value) {
+        var bits = Double.doubleToRawLongBits(value);
+        return constant("D" + bits, out -> {
+            out.writeByte(CONSTANT_DOUBLE);
+            out.writeLong(bits);
+        }, 2); // double занимает две ячейки пула констант
+    }
+
+    int fieldConstant(String owner, String name, String descriptor) {
+        return memberConstant(CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    int methodConstant(String owner, String name, String descriptor) {
+        return memberConstant(CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    int interfaceMethodConstant(String owner, String name, String descriptor) {
+        return memberConstant(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor);
+    }
+
+    private int memberConstant(int tag, String owner, String name, String descriptor) {
+        var ownerIndex = classConstant(owner);
+        var nameIndex = utf8(name);
+        var descriptorIndex = utf8(descriptor);
+        var nameAndType = constant("N" + name + ':' + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        }, 1);
+        return constant("M" + tag + owner + '.' + name + ':' + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        }, 1);
+    }
+
+    private int constant(String key, ConstantWriter writer, int size) {
+        var index = constants.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            writer.write(constantPool);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        index = constantCount;
+        constantCount += size;
+        constants.put(key, index);
+        return index;
+    }
+
+    int getConstantCount() {
+        return constantCount;
+    }
+
+    void addField(int access, String name, String descriptor) {
+        var out = new DataOutputStream(members);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(0); // атрибутов нет
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+    }
+
+    void addMethod(int access, String name, String descriptor, CodeWriter code, int maxLocals) {
+        var out = new DataOutputStream(methods);
+        var bytes = code.toByteArray();
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1); // один атрибут Code
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + bytes.length);
+            out.writeShort(code.getMaxStack());
+            out.writeShort(maxLocals);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeShort(0); // обработчиков исключений нет
+            out.writeShort(0); // атрибутов нет
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+    }
+
+    byte[] toByteArray() {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_VERSION);
+            out.writeShort(constantCount);
+            constantPoolBytes.writeTo(out);
+            out.writeShort(ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.size());
+            for (var interfaceIndex : interfaces) {
+                out.writeShort(interfaceIndex);
+            }
+            out.writeShort(fieldCount);
+            members.writeTo(out);
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            out.writeShort(0); // атрибутов класса нет
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface ConstantWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Байт-код одного метода с подсчетом глубины стека операндов.
+     */
+    static final class CodeWriter {
+        static final int ACONST_NULL = 0x01;
+        static final int ICONST_0 = 0x03;
+        static final int DCONST_0 = 0x0e;
+        static final int DCONST_1 = 0x0f;
+        static final int BIPUSH = 0x10;
+        static final int SIPUSH = 0x11;
+        static final int LDC_W = 0x13;
+        static final int LDC2_W = 0x14;
+        static final int ALOAD_0 = 0x2a;
+        static final int ALOAD_1 = 0x2b;
+        static final int DALOAD = 0x31;
+        static final int AALOAD = 0x32;
+        static final int DASTORE = 0x52;
+        static final int DUP = 0x59;
+        static final int DADD = 0x63;
+        static final int DSUB = 0x67;
+        static final int DMUL = 0x6b;
+        static final int DDIV = 0x6f;
+        static final int DNEG = 0x77;
+        static final int DRETURN = 0xaf;
+        static final int RETURN = 0xb1;
+        static final int GETSTATIC = 0xb2;
+        static final int PUTSTATIC = 0xb3;
+        static final int GETFIELD = 0xb4;
+        static final int PUTFIELD = 0xb5;
+        static final int INVOKEVIRTUAL = 0xb6;
+        static final int INVOKESPECIAL = 0xb7;
+        static final int INVOKESTATIC = 0xb8;
+        static final int INVOKEINTERFACE = 0xb9;
+        static final int NEWARRAY = 0xbc;
+        static final int CHECKCAST = 0xc0;
+
+        static final int T_DOUBLE = 7;
+
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private int stack;
+        private int maxStack;
+
+        /**
+         * Записать инструкцию.
+         * @param opcode код инструкции
+         * @param stackChange изменение глубины стека в ячейках, double занимает две
+         */
+        CodeWriter op(int opcode, int stackChange) {
+            code.write(opcode);
+            return adjust(stackChange);
+        }
+
+        CodeWriter op1(int opcode, int operand, int stackChange) {
+            code.write(opcode);
+            code.write(operand);
+            return adjust(stackChange);
+        }
+
+        CodeWriter op2(int opcode, int operand, int stackChange) {
+            code.write(opcode);
+            code.write(operand >>> 8);
+            code.write(operand);
+            return adjust(stackChange);
+        }
+
+        CodeWriter invokeInterface(int methodIndex, int argumentSlots, int stackChange) {
+            op2(INVOKEINTERFACE, methodIndex, stackChange);
+            code.write(argumentSlots + 1);
+            code.write(0);
+            return this;
+        }
+
+        /**
+         * Положить на стек целое число самой короткой инструкцией.
+         */
+        CodeWriter pushInt(ClassFileWriter classFile, int value) {
+            if (value >= -1 && value <= 5) {
+                return op(ICONST_0 + value, 1);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                return op1(BIPUSH, value & 0xff, 1);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                return op2(SIPUSH, value & 0xffff, 1);
+            }
+            return op2(LDC_W, classFile.integerConstant(value), 1);
+        }
+
+        private CodeWriter adjust(int stackChange) {
+            stack += stackChange;
+            maxStack = Math.max(maxStack, stack);
+            return this;
+        }
+
+        int size() {
+            return code.size();
+        }
+
+        int getMaxStack() {
+            return maxStack;
+        }
+
+        byte[] toByteArray() {
+            return code.toByteArray();
+        }
+    }
+}
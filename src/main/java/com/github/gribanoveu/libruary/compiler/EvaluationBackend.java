@@ -0,0 +1,32 @@
+package com.github.gribanoveu.libruary.compiler;
+
+/**
+ * Способ вычисления подготовленных выражений.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public enum EvaluationBackend {
+    /**
+     * Обход синтаксического дерева. Подготовка самая дешевая, подходит для большинства выражений.
+     */
+    TREE,
+    /**
+     * Обратная польская запись: массив команд с пулом констант, см. {@link RpnCompiler}.
+     * Подготовка почти так же дешева, как дерево, а вычисление идет одним циклом по плотному массиву.
+     * Подходит для большого количества разовых формул, для которых генерация класса не окупится.
+     */
+    RPN,
+    /**
+     * Сборка выражения из комбинаторов {@link java.lang.invoke.MethodHandles}, см. {@link MethodHandleCompiler}.
+     * Подготовка дешевле генерации класса: для выражения определяется только класс из готового шаблона.
+     * Собранный обработчик лежит в его static final поле, поэтому JIT встраивает его как константу
+     * и вычисление быстрее обхода дерева.
+     * Подходит для формул, которые вычисляются сотни раз.
+     */
+    METHOD_HANDLE,
+    /**
+     * Генерация скрытого класса с байт-кодом выражения, см. {@link BytecodeCompiler}.
+     * Подготовка дорогая, зато JIT компилирует формулу целиком. Подходит для самых нагруженных формул.
+     */
+    BYTECODE
+}
@@ -0,0 +1,261 @@
+package com.github.gribanoveu.libruary.compiler;
+
+
+import com.github.gribanoveu.libruary.compiler.ClassFileWriter.CodeWriter;
+import com.github.gribanoveu.libruary.expression.BinaryNode;
+import com.github.gribanoveu.libruary.expression.ChainNode;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.expression.FunctionNode;
+import com.github.gribanoveu.libruary.expression.NegationNode;
+import com.github.gribanoveu.libruary.expression.NumberNode;
+import com.github.gribanoveu.libruary.expression.Operator;
+import com.github.gribanoveu.libruary.expression.VariableNode;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.util.RegisteredFunction;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+import static com.github.gribanoveu.libruary.compiler.ClassFileWriter.CodeWriter.*;
+
+/**
+ * Компилятор синтаксического дерева в один {@link MethodHandle}.
+ * <p>
+ * Промежуточный вариант между обходом дерева и генерацией класса ({@link BytecodeCompiler}):
+ * выражение собирается из комбинаторов {@link MethodHandles#filterArguments} и {@link MethodHandles#permuteArguments}
+ * над операциями с double и функциями {@code FunctionManager}, без генерации и загрузки классов.
+ * Собирается намного быстрее класса, а после прогрева вычисляется без обхода узлов дерева.
+ * <p>
+ * JIT встраивает цепочку комбинаторов, только если сам обработчик для него константа. Поэтому собранный
+ * обработчик передается как class data в скрытый класс из одного и того же шаблона ({@link #TEMPLATE}),
+ * где хранится в static final поле и вызывается через {@code invokeExact}. Шаблон генерируется один раз,
+ * а каждое выражение только определяет по нему класс без опции STRONG, который выгружается вместе с выражением.
+ * <p>
+ * Функции связываются при компиляции. Для очень больших деревьев возвращается исходное дерево,
+ * так как длинные цепочки комбинаторов дороги в построении.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class MethodHandleCompiler {
+    private static final int MAX_NODES = 2000;
+
+    private static final String CLASS_NAME = "com/github/gribanoveu/libruary/compiler/HandleExpression";
+    private static final String METHOD_HANDLE = "java/lang/invoke/MethodHandle";
+    private static final String METHOD_HANDLES = "java/lang/invoke/MethodHandles";
+    /**
+     * Class-файл узла: {@code static final MethodHandle HANDLE = classData(...);
+     * double evaluate(double[] slots) { return (double) HANDLE.invokeExact(slots); }}
+     */
+    private static final byte[] TEMPLATE = template();
+
+    /**
+     * Тип каждого промежуточного обработчика: значения переменных на входе, результат подвыражения на выходе.
+     */
+    private static final MethodType EXPRESSION_TYPE = MethodType.methodType(double.class, double[].class);
+
+    private static final MethodHandle ADD;
+    private static final MethodHandle SUBTRACT;
+    private static final MethodHandle MULTIPLY;
+    private static final MethodHandle DIVIDE;
+    private static final MethodHandle NEGATE;
+    private static final MethodHandle SLOT_GETTER = MethodHandles.arrayElementGetter(double[].class);
+    private static final MethodHandle FUNCTION_1;
+    private static final MethodHandle FUNCTION_2;
+    private static final MethodHandle FUNCTION_3;
+    private static final MethodHandle INVOKE;
+    private static final MethodHandle CHAIN;
+
+    static {
+        var lookup = MethodHandles.lookup();
+        var binary = MethodType.methodType(double.class, double.class, double.class);
+        try {
+            ADD = lookup.findStatic(MethodHandleCompiler.class, "add", binary);
+            SUBTRACT = lookup.findStatic(MethodHandleCompiler.class, "subtract", binary);
+            MULTIPLY = lookup.findStatic(MethodHandleCompiler.class, "multiply", binary);
+            DIVIDE = lookup.findStatic(MethodHandleCompiler.class, "divide", binary);
+            NEGATE = lookup.findStatic(MethodHandleCompiler.class, "negate",
+                    MethodType.methodType(double.class, double.class));
+            FUNCTION_1 = lookup.findVirtual(Function1.class, "apply",
+                    MethodType.methodType(double.class, double.class));
+            FUNCTION_2 = lookup.findVirtual(Function2.class, "apply", binary);
+            FUNCTION_3 = lookup.findVirtual(Function3.class, "apply",
+                    MethodType.methodType(double.class, double.class, double.class, double.class));
+            INVOKE = lookup.findVirtual(RegisteredFunction.class, "invoke",
+                    MethodType.methodType(double.class, double[].class, int.class));
+            CHAIN = lookup.findStatic(MethodHandleCompiler.class, "chain",
+                    MethodType.methodType(double.class, MethodHandle[].class, Operator[].class, double[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    /**
+     * Скомпилировать дерево в обработчик.
+     * @param root корень дерева
+     * @return узел, вычисляющий все дерево одним обработчиком, или сам root, если дерево слишком большое
+     */
+    public ExpressionNode compile(ExpressionNode root) {
+        var counter = new int[1];
+        var handle = build(root, counter);
+        if (handle == null) {
+            return root;
+        }
+        try {
+            var hiddenClass = lookup.defineHiddenClassWithClassData(TEMPLATE, handle, true).lookupClass();
+            return (ExpressionNode) lookup.findConstructor(hiddenClass, MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to bind expression handle", e);
+        }
+    }
+
+    private static byte[] template() {
+        var classFile = new ClassFileWriter(CLASS_NAME, "java/lang/Object",
+                "com/github/gribanoveu/libruary/expression/ExpressionNode");
+        var handleField = classFile.fieldConstant(CLASS_NAME, "HANDLE", "L" + METHOD_HANDLE + ";");
+        classFile.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_STATIC | ClassFileWriter.ACC_FINAL,
+                "HANDLE", "L" + METHOD_HANDLE + ";");
+
+        var initializer = new CodeWriter()
+                .op2(INVOKESTATIC, classFile.methodConstant(METHOD_HANDLES, "lookup",
+                        "()Ljava/lang/invoke/MethodHandles$Lookup;"), 1)
+                .op2(LDC_W, classFile.stringConstant("_"), 1)
+                .op2(LDC_W, classFile.classConstant(METHOD_HANDLE), 1)
+                .op2(INVOKESTATIC, classFile.methodConstant(METHOD_HANDLES, "classData",
+                        "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;"), -2)
+                .op2(CHECKCAST, classFile.classConstant(METHOD_HANDLE), 0)
+                .op2(PUTSTATIC, handleField, -1)
+                .op(RETURN, 0);
+        classFile.addMethod(ClassFileWriter.ACC_STATIC, "<clinit>", "()V", initializer, 0);
+
+        var constructor = new CodeWriter()
+                .op(ALOAD_0, 1)
+                .op2(INVOKESPECIAL, classFile.methodConstant("java/lang/Object", "<init>", "()V"), -1)
+                .op(RETURN, 0);
+        classFile.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", constructor, 1);
+
+        var evaluate = new CodeWriter()
+                .op2(GETSTATIC, handleField, 1)
+                .op(ALOAD_1, 1)
+                .op2(INVOKEVIRTUAL, classFile.methodConstant(METHOD_HANDLE, "invokeExact", "([D)D"), -2 + 2)
+                .op(DRETURN, -2);
+        classFile.addMethod(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL, "evaluate", "([D)D", evaluate, 2);
+        return classFile.toByteArray();
+    }
+
+    private MethodHandle build(ExpressionNode node, int[] counter) {
+        if (++counter[0] > MAX_NODES) {
+            return null;
+        }
+        if (node instanceof NumberNode number) {
+            return MethodHandles.dropArguments(MethodHandles.constant(double.class, number.value()), 0, double[].class);
+        }
+        if (node instanceof VariableNode variable) {
+            return MethodHandles.insertArguments(SLOT_GETTER, 1, variable.slot());
+        }
+        if (node instanceof NegationNode negation) {
+            var operand = build(negation.operand(), counter);
+            return operand == null ? null : MethodHandles.filterReturnValue(operand, NEGATE);
+        }
+        if (node instanceof BinaryNode binary) {
+            var operation = switch (binary.operator()) {
+                case PLUS -> ADD;
+                case MINUS -> SUBTRACT;
+                case MULTIPLICATION -> MULTIPLY;
+                case DIVISION -> DIVIDE;
+            };
+            return combine(operation, List.of(binary.left(), binary.right()), counter);
+        }
+        if (node instanceof ChainNode chain) {
+            return buildChain(chain, counter);
+        }
+        if (node instanceof FunctionNode function) {
+            return buildFunction(function.function(), function.arguments(), counter);
+        }
+        return null;
+    }
+
+    /**
+     * Длинная цепочка не вкладывается в комбинаторы: их глубина равнялась бы длине цепочки.
+     * Операнды собираются в обработчики по отдельности, а применяются циклом в {@link #chain}.
+     */
+    private MethodHandle buildChain(ChainNode chain, int[] counter) {
+        var operands = new MethodHandle[chain.operands().size()];
+        for (int i = 0; i < operands.length; i++) {
+            operands[i] = build(chain.operands().get(i), counter);
+            if (operands[i] == null) {
+                return null;
+            }
+        }
+        return MethodHandles.insertArguments(CHAIN, 0, operands, chain.operators().toArray(Operator[]::new));
+    }
+
+    private MethodHandle buildFunction(RegisteredFunction function, List<ExpressionNode> arguments, int[] counter) {
+        var count = arguments.size();
+        if (function.getArity() == count) { // прямой вызов интерфейса без массива аргументов
+            var target = switch (function.getKind()) {
+                case FUNCTION_1 -> FUNCTION_1;
+                case FUNCTION_2 -> FUNCTION_2;
+                default -> FUNCTION_3;
+            };
+            return combine(target.bindTo(function.getFunction()), arguments, counter);
+        }
+        // (double...)double: аргументы собираются в новый массив при каждом вызове
+        var invoke = MethodHandles.insertArguments(INVOKE.bindTo(function), 1, count)
+                .asCollector(double[].class, count);
+        if (count == 0) {
+            return MethodHandles.dropArguments(invoke, 0, double[].class);
+        }
+        return combine(invoke, arguments, counter);
+    }
+
+    /**
+     * Подставить в аргументы операции обработчики подвыражений и свести все входы к одному массиву слотов:
+     * (double, double)double -> (double[], double[])double -> (double[])double.
+     */
+    private MethodHandle combine(MethodHandle operation, List<ExpressionNode> arguments, int[] counter) {
+        var filters = new MethodHandle[arguments.size()];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = build(arguments.get(i), counter);
+            if (filters[i] == null) {
+                return null;
+            }
+        }
+        var filtered = MethodHandles.filterArguments(operation, 0, filters);
+        return MethodHandles.permuteArguments(filtered, EXPRESSION_TYPE, new int[filters.length]);
+    }
+
+    private static double add(double left, double right) {
+        return left + right;
+    }
+
+    private static double subtract(double left, double right) {
+        return left - right;
+    }
+
+    private static double multiply(double left, double right) {
+        return left * right;
+    }
+
+    private static double divide(double left, double right) {
+        return left / right;
+    }
+
+    private static double negate(double value) {
+        return -value;
+    }
+
+    private static double chain(MethodHandle[] operands, Operator[] operators, double[] slots) throws Throwable {
+        var value = (double) operands[0].invokeExact(slots);
+        for (int i = 1; i < operands.length; i++) {
+            value = operators[i - 1].apply(value, (double) operands[i].invokeExact(slots));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.gribanoveu.libruary.compiler;
+
+
+import com.github.gribanoveu.libruary.expression.BinaryNode;
+import com.github.gribanoveu.libruary.expression.ChainNode;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.expression.FunctionNode;
+import com.github.gribanoveu.libruary.expression.NegationNode;
+import com.github.gribanoveu.libruary.expression.NumberNode;
+import com.github.gribanoveu.libruary.expression.Operator;
+import com.github.gribanoveu.libruary.expression.VariableNode;
+import com.github.gribanoveu.libruary.util.RegisteredFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Компилятор синтаксического дерева в {@link RpnProgram}.
+ * <p>
+ * Переносимая форма между обходом дерева и генерацией класса: дерево обходится один раз в обратном порядке
+ * и записывается в массив команд, без классов и комбинаторов {@link java.lang.invoke.MethodHandle}.
+ * Сборка дешевле всех остальных компиляторов, а плотный массив команд вычисляется быстрее обхода
+ * разбросанных по памяти узлов, поэтому подходит для миллионов разовых формул, для которых
+ * генерация класса не окупится.
+ * <p>
+ * Одинаковые константы и функции записываются в пул один раз.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class RpnCompiler {
+    /**
+     * Операнд команды занимает 24 бита.
+     */
+    private static final int MAX_OPERAND = (1 << (32 - RpnProgram.OPERAND_SHIFT)) - 1;
+
+    private int[] code;
+    private int length;
+    private double[] constants;
+    private int constantCount;
+    private HashMap<Long, Integer> constantIndexes; // по битам значения, чтобы различать 0.0 и -0.0
+    private List<RegisteredFunction> functions;
+    private IdentityHashMap<RegisteredFunction, Integer> functionIndexes;
+    private int depth;
+    private int maxStack;
+    private int maxArguments;
+
+    /**
+     * Скомпилировать дерево в программу.
+     * @param root корень дерева
+     * @return программа, вычисляющая дерево
+     */
+    public RpnProgram compile(ExpressionNode root) {
+        code = new int[16];
+        length = 0;
+        constants = new double[8];
+        constantCount = 0;
+        constantIndexes = new HashMap<>();
+        functions = new ArrayList<>();
+        functionIndexes = new IdentityHashMap<>();
+        depth = 0;
+        maxStack = 1;
+        maxArguments = 0;
+        emitNode(root);
+        return new RpnProgram(Arrays.copyOf(code, length), Arrays.copyOf(constants, constantCount),
+                functions.toArray(new RegisteredFunction[0]), maxStack, maxArguments);
+    }
+
+    private void emitNode(ExpressionNode node) {
+        if (node instanceof NumberNode number) {
+            emit(RpnProgram.CONSTANT, constant(number.value()), 1);
+        } else if (node instanceof VariableNode variable) {
+            emit(RpnProgram.LOAD, checkOperand(variable.slot()), 1);
+        } else if (node instanceof NegationNode negation) {
+            emitNode(negation.operand());
+            emit(RpnProgram.NEGATE, 0, 0);
+        } else if (node instanceof BinaryNode binary) {
+            emitNode(binary.left());
+            emitOperation(binary.operator(), binary.right());
+        } else if (node instanceof ChainNode chain) { // цепочка идет подряд, на стеке не больше двух операндов
+            var operands = chain.operands();
+            emitNode(operands.get(0));
+            for (int i = 1; i < operands.size(); i++) {
+                emitOperation(chain.operators().get(i - 1), operands.get(i));
+            }
+        } else if (node instanceof FunctionNode function) {
+            emitFunction(function);
+        } else { // узлы других компиляторов в дерево не попадают
+            throw new IllegalArgumentException("Unsupported node: " + node.getClass().getName());
+        }
+    }
+
+    /**
+     * Записать правый операнд и операцию над значением на вершине стека.
+     */
+    private void emitOperation(Operator operator, ExpressionNode right) {
+        if (right instanceof NumberNode number) { // константа справа сливается с операцией
+            var opcode = switch (operator) {
+                case PLUS -> RpnProgram.ADD_CONSTANT;
+                case MINUS -> RpnProgram.SUBTRACT_CONSTANT;
+                case MULTIPLICATION -> RpnProgram.MULTIPLY_CONSTANT;
+                case DIVISION -> RpnProgram.DIVIDE_CONSTANT;
+            };
+            emit(opcode, constant(number.value()), 0);
+            return;
+        }
+        emitNode(right);
+        var opcode = switch (operator) {
+            case PLUS -> RpnProgram.ADD;
+            case MINUS -> RpnProgram.SUBTRACT;
+            case MULTIPLICATION -> RpnProgram.MULTIPLY;
+            case DIVISION -> RpnProgram.DIVIDE;
+        };
+        emit(opcode, 0, -1);
+    }
+
+    private void emitFunction(FunctionNode node) {
+        var arguments = node.arguments();
+        for (var argument : arguments) {
+            emitNode(argument);
+        }
+        var function = node.function();
+        var index = functionIndexes.computeIfAbsent(function, key -> {
+            functions.add(key);
+            return functions.size() - 1;
+        });
+        var count = arguments.size();
+        if (function.getArity() == count) { // прямой вызов интерфейса без массива аргументов
+            var opcode = switch (function.getKind()) {
+                case FUNCTION_1 -> RpnProgram.CALL_1;
+                case FUNCTION_2 -> RpnProgram.CALL_2;
+                default -> RpnProgram.CALL_3;
+            };
+            emit(opcode, checkOperand(index), 1 - count);
+            return;
+        }
+        emit(RpnProgram.CALL_N, checkOperand(index), 1 - count);
+        append(count);
+        maxArguments = Math.max(maxArguments, count);
+    }
+
+    /**
+     * Записать команду и учесть, как она меняет глубину стека.
+     */
+    private void emit(int opcode, int operand, int stackChange) {
+        append(opcode | operand << RpnProgram.OPERAND_SHIFT);
+        depth += stackChange;
+        maxStack = Math.max(maxStack, depth);
+    }
+
+    private void append(int value) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, length * 2);
+        }
+        code[length++] = value;
+    }
+
+    private int constant(double value) {
+        var index = constantIndexes.get(Double.doubleToRawLongBits(value));
+        if (index != null) {
+            return index;
+        }
+        if (constantCount == constants.length) {
+            constants = Arrays.copyOf(constants, constantCount * 2);
+        }
+        constants[constantCount] = value;
+        constantIndexes.put(Double.doubleToRawLongBits(value), constantCount);
+        return checkOperand(constantCount++);
+    }
+
+    private static int checkOperand(int operand) {
+        if (operand > MAX_OPERAND) {
+            throw new IllegalArgumentException("Expression is too large: operand " + operand);
+        }
+        return operand;
+    }
+}
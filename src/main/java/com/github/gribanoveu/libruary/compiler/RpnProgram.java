@@ -0,0 +1,154 @@
+package com.github.gribanoveu.libruary.compiler;
+
+
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.util.RegisteredFunction;
+
+/**
+ * Выражение в обратной польской записи: поток команд {@code int[]}, пул констант {@code double[]}
+ * и таблица функций. Собирается {@link RpnCompiler}.
+ * <p>
+ * Каждая команда - одно число: код операции в младших 8 битах и операнд (номер константы, слота
+ * или функции) в старших. Интерпретатор - один цикл со {@code switch} по коду над стеком значений
+ * {@code double[]}. Стек и буфер аргументов функций свои у каждого потока и переиспользуются,
+ * поэтому вычисление не выделяет память.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class RpnProgram implements ExpressionNode {
+    static final int CONSTANT = 0;
+    static final int LOAD = 1;
+    static final int ADD = 2;
+    static final int SUBTRACT = 3;
+    static final int MULTIPLY = 4;
+    static final int DIVIDE = 5;
+    static final int NEGATE = 6;
+    // операция с константой справа: x * 1.2 - одна команда вместо двух
+    static final int ADD_CONSTANT = 7;
+    static final int SUBTRACT_CONSTANT = 8;
+    static final int MULTIPLY_CONSTANT = 9;
+    static final int DIVIDE_CONSTANT = 10;
+    static final int CALL_1 = 11;
+    static final int CALL_2 = 12;
+    static final int CALL_3 = 13;
+    static final int CALL_N = 14; // следующая команда - количество аргументов
+    static final int OPERAND_SHIFT = 8;
+    static final int OPCODE_MASK = 0xFF;
+
+    private static final ThreadLocal<Frame> FRAMES = ThreadLocal.withInitial(Frame::new);
+
+    private final int[] code;
+    private final double[] constants;
+    private final RegisteredFunction[] functions;
+    private final int maxStack;
+    private final int maxArguments;
+
+    RpnProgram(int[] code, double[] constants, RegisteredFunction[] functions, int maxStack, int maxArguments) {
+        this.code = code;
+        this.constants = constants;
+        this.functions = functions;
+        this.maxStack = maxStack;
+        this.maxArguments = maxArguments;
+    }
+
+    @Override
+    public double evaluate(double[] slots) {
+        var frame = FRAMES.get();
+        if (frame.busy) { // функция вычисляет другое выражение в том же потоке: стек потока уже занят
+            return run(slots, new double[maxStack], new double[maxArguments]);
+        }
+        frame.busy = true;
+        try {
+            return run(slots, frame.stack(maxStack), frame.arguments(maxArguments));
+        } finally {
+            frame.busy = false;
+        }
+    }
+
+    private double run(double[] slots, double[] stack, double[] arguments) {
+        var code = this.code;
+        var constants = this.constants;
+        int top = -1;
+        for (int pc = 0; pc < code.length; pc++) {
+            var instruction = code[pc];
+            var operand = instruction >>> OPERAND_SHIFT;
+            switch (instruction & OPCODE_MASK) {
+                case CONSTANT -> stack[++top] = constants[operand];
+                case LOAD -> stack[++top] = slots[operand];
+                case ADD -> {
+                    top--;
+                    stack[top] = stack[top] + stack[top + 1];
+                }
+                case SUBTRACT -> {
+                    top--;
+                    stack[top] = stack[top] - stack[top + 1];
+                }
+                case MULTIPLY -> {
+                    top--;
+                    stack[top] = stack[top] * stack[top + 1];
+                }
+                case DIVIDE -> {
+                    top--;
+                    stack[top] = stack[top] / stack[top + 1];
+                }
+                case NEGATE -> stack[top] = -stack[top];
+                case ADD_CONSTANT -> stack[top] = stack[top] + constants[operand];
+                case SUBTRACT_CONSTANT -> stack[top] = stack[top] - constants[operand];
+                case MULTIPLY_CONSTANT -> stack[top] = stack[top] * constants[operand];
+                case DIVIDE_CONSTANT -> stack[top] = stack[top] / constants[operand];
+                case CALL_1 -> stack[top] = ((Function1) functions[operand].getFunction()).apply(stack[top]);
+                case CALL_2 -> {
+                    top--;
+                    stack[top] = ((Function2) functions[operand].getFunction()).apply(stack[top], stack[top + 1]);
+                }
+                case CALL_3 -> {
+                    top -= 2;
+                    stack[top] = ((Function3) functions[operand].getFunction())
+                            .apply(stack[top], stack[top + 1], stack[top + 2]);
+                }
+                case CALL_N -> {
+                    var count = code[++pc];
+                    top -= count - 1; // при count == 0 результат кладется поверх стека
+                    System.arraycopy(stack, top, arguments, 0, count);
+                    stack[top] = functions[operand].invoke(arguments, count);
+                }
+                default -> throw new IllegalStateException("Unknown opcode: " + (instruction & OPCODE_MASK));
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Количество команд программы, включая операнды CALL_N.
+     */
+    public int getCodeLength() {
+        return code.length;
+    }
+
+    /**
+     * Стек значений и буфер аргументов одного потока, растут до самой большой программы.
+     */
+    private static final class Frame {
+        private double[] stack = new double[16];
+        private double[] arguments = new double[8];
+        private boolean busy;
+
+        double[] stack(int size) {
+            if (stack.length < size) {
+                stack = new double[Math.max(size, stack.length * 2)];
+            }
+            return stack;
+        }
+
+        double[] arguments(int size) {
+            if (arguments.length < size) {
+                arguments = new double[Math.max(size, arguments.length * 2)];
+            }
+            return arguments;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.gribanoveu.libruary.entity;
+
+/**
+ * Ограничения ресурсов на одно выражение, задаются в билдере калькулятора.
+ * <p>
+ * Длина, количество токенов, вложенность и количество вызовов функций проверяются при разборе,
+ * за тот же проход и до вычисления, поэтому ошибочное выражение не начинает вычисляться.
+ * В грамматике нет циклов, поэтому количество вызовов функций при вычислении равно количеству
+ * имен функций в выражении и известно уже после разбора.
+ * Время проверяется перед каждым вызовом пользовательской функции и после него: без функций выражение
+ * ограниченной длины вычисляется за микросекунды, а медленными бывают только функции.
+ * @param maxLength наибольшая длина выражения в символах
+ * @param maxTokens наибольшее количество токенов
+ * @param maxDepth наибольшая вложенность скобок и вызовов функций, с учетом цепочек унарных минусов
+ * @param maxFunctionCalls наибольшее количество вызовов функций
+ * @param timeoutNanos время на вычисление одного выражения в наносекундах, 0 - без ограничения
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public record CalculationLimits(int maxLength, int maxTokens, int maxDepth, int maxFunctionCalls, long timeoutNanos) {
+    /**
+     * Без ограничений.
+     */
+    public static final CalculationLimits NONE =
+            new CalculationLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+
+    public CalculationLimits {
+        if (maxLength < 0 || maxTokens < 0 || maxDepth < 0 || maxFunctionCalls < 0 || timeoutNanos < 0) {
+            throw new IllegalArgumentException("Limits must not be negative");
+        }
+    }
+
+    public CalculationLimits withMaxLength(int maxLength) {
+        return new CalculationLimits(maxLength, maxTokens, maxDepth, maxFunctionCalls, timeoutNanos);
+    }
+
+    public CalculationLimits withMaxTokens(int maxTokens) {
+        return new CalculationLimits(maxLength, maxTokens, maxDepth, maxFunctionCalls, timeoutNanos);
+    }
+
+    public CalculationLimits withMaxDepth(int maxDepth) {
+        return new CalculationLimits(maxLength, maxTokens, maxDepth, maxFunctionCalls, timeoutNanos);
+    }
+
+    public CalculationLimits withMaxFunctionCalls(int maxFunctionCalls) {
+        return new CalculationLimits(maxLength, maxTokens, maxDepth, maxFunctionCalls, timeoutNanos);
+    }
+
+    public CalculationLimits withTimeoutNanos(long timeoutNanos) {
+        return new CalculationLimits(maxLength, maxTokens, maxDepth, maxFunctionCalls, timeoutNanos);
+    }
+
+    /**
+     * Задано ли ограничение времени.
+     */
+    public boolean hasTimeout() {
+        return timeoutNanos > 0;
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.gribanoveu.libruary.entity;
+
+import com.github.gribanoveu.libruary.exception.FunctionException;
+import com.github.gribanoveu.libruary.exception.InvalidTokenException;
+import com.github.gribanoveu.libruary.exception.LimitExceededException;
+import com.github.gribanoveu.libruary.exception.VariableException;
+import com.github.gribanoveu.libruary.util.Characters;
+
+/**
+ * Результат вычисления выражения без исключений: значение или код ошибки с ее позицией.
+ * <p>
+ * Объект изменяемый и рассчитан на переиспользование: один объект передается во все вызовы
+ * {@code tryCalculate} потока, поэтому проверка большого количества строк не выделяет память,
+ * в том числе для ошибочных строк. Исключение создается только по запросу {@link #toException()}.
+ * Не потокобезопасен.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class CalculationResult {
+    private CharSequence expression;
+    private double value;
+    private ErrorCode errorCode = ErrorCode.NONE;
+    private int tokenPosition;
+    private int start;
+    private int end;
+    private String functionName;
+    private int expectedArguments;
+    private int actualArguments;
+    private long limit;
+    private RuntimeException cause;
+
+    /**
+     * Очистить результат перед вычислением нового выражения.
+     * @param expression вычисляемое выражение
+     */
+    public void reset(CharSequence expression) {
+        this.expression = expression;
+        this.value = Double.NaN;
+        this.errorCode = ErrorCode.NONE;
+        this.tokenPosition = -1;
+        this.start = -1;
+        this.end = -1;
+        this.functionName = null;
+        this.cause = null;
+    }
+
+    /**
+     * Записать значение выражения.
+     */
+    public void setValue(double value) {
+        this.value = value;
+        this.errorCode = ErrorCode.NONE;
+    }
+
+    /**
+     * Записать ошибку.
+     * @param errorCode код ошибки
+     * @param tokenPosition позиция токена, как в сообщении {@link InvalidTokenException}
+     * @param start позиция первого символа ошибочного фрагмента в выражении
+     * @param end позиция после последнего символа ошибочного фрагмента
+     */
+    public void setError(ErrorCode errorCode, int tokenPosition, int start, int end) {
+        this.value = Double.NaN;
+        this.errorCode = errorCode;
+        this.tokenPosition = tokenPosition;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Записать ошибку {@link ErrorCode#ARGUMENT_COUNT}.
+     * @param functionName имя функции
+     * @param expected ожидаемое количество аргументов
+     * @param actual переданное количество аргументов
+     */
+    public void setArgumentCountError(int tokenPosition, int start, int end,
+                                      String functionName, int expected, int actual) {
+        setError(ErrorCode.ARGUMENT_COUNT, tokenPosition, start, end);
+        this.functionName = functionName;
+        this.expectedArguments = expected;
+        this.actualArguments = actual;
+    }
+
+    /**
+     * Записать нарушение ограничения ресурсов.
+     * @param errorCode нарушенное ограничение, {@link ErrorCode#isLimit()}
+     * @param limit значение ограничения, как в {@link LimitExceededException}
+     */
+    public void setLimitError(ErrorCode errorCode, int tokenPosition, int start, int end, long limit) {
+        setError(errorCode, tokenPosition, start, end);
+        this.limit = limit;
+    }
+
+    /**
+     * Записать исключение, возникшее при вычислении, код {@link ErrorCode#EXCEPTION}.
+     * Для {@link LimitExceededException} записывается код нарушенного ограничения.
+     */
+    public void setException(RuntimeException cause) {
+        if (cause instanceof LimitExceededException limitExceeded) {
+            setLimitError(limitExceeded.getErrorCode(), -1, -1, -1, limitExceeded.getLimit());
+        } else {
+            setError(ErrorCode.EXCEPTION, -1, -1, -1);
+        }
+        this.cause = cause;
+    }
+
+    public boolean isSuccess() {
+        return errorCode == ErrorCode.NONE;
+    }
+
+    /**
+     * @return значение выражения или NaN, если вычисление завершилось ошибкой
+     */
+    public double getValue() {
+        return value;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return позиция ошибочного токена, как в сообщении {@link InvalidTokenException}, или -1
+     */
+    public int getTokenPosition() {
+        return tokenPosition;
+    }
+
+    /**
+     * @return позиция первого символа ошибочного фрагмента в выражении или -1
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return позиция после последнего символа ошибочного фрагмента или -1
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * @return исключение для {@link ErrorCode#EXCEPTION} и ограничений, нарушенных при вычислении, иначе null
+     */
+    public RuntimeException getCause() {
+        return cause;
+    }
+
+    /**
+     * Сообщение об ошибке, такое же, как у исключения из {@link #toException()}, но без создания исключения.
+     * Текст берется из выражения, поэтому метод нужно вызвать до изменения выражения.
+     * @return сообщение или null, если ошибки нет
+     */
+    public String getMessage() {
+        return switch (errorCode) {
+            case NONE -> null;
+            case UNEXPECTED_CHARACTER -> "Unexpected character: " + expression.charAt(start);
+            case UNEXPECTED_TOKEN -> "Unexpected token at position: " + tokenPosition;
+            case UNKNOWN_FUNCTION -> "Function not found: " + fragment();
+            case UNBOUND_VARIABLE -> "Variable is not bound: " + fragment();
+            case ARGUMENT_COUNT -> "Function %s expects %s arguments, got %s"
+                    .formatted(functionName, expectedArguments, actualArguments);
+            case EXCEPTION -> cause.getMessage();
+            case LENGTH_LIMIT, TOKEN_LIMIT, DEPTH_LIMIT, TREE_HEIGHT_LIMIT, FUNCTION_CALL_LIMIT, TIMEOUT, CANCELLED ->
+                    LimitExceededException.message(errorCode, limit);
+        };
+    }
+
+    /**
+     * Создать исключение, которое для этой ошибки выбрасывает обычный {@code calculate}.
+     * Текст берется из выражения, поэтому метод нужно вызвать до изменения выражения.
+     * @return исключение, соответствующее коду ошибки
+     */
+    public RuntimeException toException() {
+        return switch (errorCode) {
+            case NONE -> throw new IllegalStateException("Calculation succeeded");
+            case UNEXPECTED_CHARACTER -> new ArithmeticException(getMessage());
+            case UNEXPECTED_TOKEN -> new InvalidTokenException(tokenPosition);
+            case UNKNOWN_FUNCTION, ARGUMENT_COUNT -> new FunctionException(getMessage());
+            case UNBOUND_VARIABLE -> new VariableException(getMessage());
+            case EXCEPTION -> cause;
+            case LENGTH_LIMIT, TOKEN_LIMIT, DEPTH_LIMIT, TREE_HEIGHT_LIMIT, FUNCTION_CALL_LIMIT, TIMEOUT, CANCELLED ->
+                    cause != null ? cause : new LimitExceededException(errorCode, limit);
+        };
+    }
+
+    /**
+     * Текст ошибочного фрагмента без пробелов.
+     */
+    private String fragment() {
+        var builder = new StringBuilder(end - start);
+        for (int index = start; index < end; index++) {
+            var character = expression.charAt(index);
+            if (!Characters.isWhitespace(character)) {
+                builder.append(character);
+            }
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? Double.toString(value) : errorCode + " at " + start;
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.gribanoveu.libruary.entity;
+
+/**
+ * Коды ошибок разбора и вычисления выражения для API без исключений.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public enum ErrorCode {
+    /**
+     * Ошибки нет, выражение вычислено.
+     */
+    NONE,
+    /**
+     * Символ, с которого не начинается ни один токен.
+     */
+    UNEXPECTED_CHARACTER,
+    /**
+     * Токен не на своем месте: незакрытая скобка, лишний оператор, пустые аргументы функции.
+     */
+    UNEXPECTED_TOKEN,
+    /**
+     * Вызов незарегистрированной функции.
+     */
+    UNKNOWN_FUNCTION,
+    /**
+     * Переменная в выражении, которое вычисляется без подготовки.
+     */
+    UNBOUND_VARIABLE,
+    /**
+     * Функция вызвана с неверным количеством аргументов.
+     */
+    ARGUMENT_COUNT,
+    /**
+     * Исключение при вычислении, например из пользовательской функции.
+     */
+    EXCEPTION,
+    /**
+     * Выражение длиннее ограничения {@link CalculationLimits#maxLength()}.
+     */
+    LENGTH_LIMIT,
+    /**
+     * Токенов больше ограничения {@link CalculationLimits#maxTokens()}.
+     */
+    TOKEN_LIMIT,
+    /**
+     * Вложенность скобок и вызовов функций глубже ограничения {@link CalculationLimits#maxDepth()}.
+     */
+    DEPTH_LIMIT,
+    /**
+     * Дерево подготовленного выражения выше {@link com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder#MAX_TREE_HEIGHT}.
+     */
+    TREE_HEIGHT_LIMIT,
+    /**
+     * Вызовов функций больше ограничения {@link CalculationLimits#maxFunctionCalls()}.
+     */
+    FUNCTION_CALL_LIMIT,
+    /**
+     * Вычисление не закончилось за время {@link CalculationLimits#timeoutNanos()}.
+     */
+    TIMEOUT,
+    /**
+     * Поток вычисления прерван через {@link Thread#interrupt()}.
+     */
+    CANCELLED;
+
+    /**
+     * Ошибка нарушения ограничения, для нее {@code calculate} выбрасывает
+     * {@link com.github.gribanoveu.libruary.exception.LimitExceededException}.
+     */
+    public boolean isLimit() {
+        return ordinal() >= LENGTH_LIMIT.ordinal();
+    }
+}
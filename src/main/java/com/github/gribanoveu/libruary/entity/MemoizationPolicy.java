@@ -0,0 +1,48 @@
+package com.github.gribanoveu.libruary.entity;
+
+import java.time.Duration;
+
+/**
+ * Настройка кэша результатов чистой функции, задается при регистрации функции:
+ * <pre>
+ * .registerPureFunction("npv", npv, MemoizationPolicy.maxEntries(10_000).withTtl(Duration.ofMinutes(5)))
+ * </pre>
+ * @param maxEntries наибольшее количество сохраненных результатов
+ * @param ttlNanos время жизни результата в наносекундах, 0 - без ограничения
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public record MemoizationPolicy(int maxEntries, long ttlNanos) {
+
+    public MemoizationPolicy {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        if (ttlNanos < 0) {
+            throw new IllegalArgumentException("Time to live must not be negative");
+        }
+    }
+
+    /**
+     * Кэш без ограничения времени жизни.
+     * @param maxEntries наибольшее количество сохраненных результатов
+     */
+    public static MemoizationPolicy maxEntries(int maxEntries) {
+        return new MemoizationPolicy(maxEntries, 0);
+    }
+
+    /**
+     * @param ttl время, после которого результат вычисляется заново, например для справочника,
+     *            который меняется раз в сутки
+     */
+    public MemoizationPolicy withTtl(Duration ttl) {
+        return new MemoizationPolicy(maxEntries, ttl.toNanos());
+    }
+
+    /**
+     * Задано ли время жизни результатов.
+     */
+    public boolean hasTtl() {
+        return ttlNanos > 0;
+    }
+}
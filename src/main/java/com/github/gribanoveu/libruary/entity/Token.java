@@ -2,7 +2,26 @@ package com.github.gribanoveu.libruary.entity;
 
 /**
  * Представление отдельного токена.
+ * Для чисел значение разбирается один раз при разборе выражения и хранится в {@code number},
+ * для остальных токенов {@code number} равно 0.
  * @author Evgeny Gribanov
- * @version 17.04.2024
+ * @version 17.10.2026
  */
-public record Token(TokenType type, String value) { }
+public record Token(TokenType type, String value, double number) {
+
+    /**
+     * Создать токен по тексту, значение числа разбирается из текста.
+     * Если текст не является числом, значение равно NaN: ошибку выдаст анализатор по позиции токена.
+     */
+    public Token(TokenType type, String value) {
+        this(type, value, type == TokenType.NUMBER ? parseNumber(value) : 0.0);
+    }
+
+    private static double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
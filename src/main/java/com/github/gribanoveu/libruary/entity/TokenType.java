@@ -3,11 +3,22 @@ package com.github.gribanoveu.libruary.entity;
 /**
  * Типы токенов.
  * @author Evgeny Gribanov
- * @version 17.04.2024
+ * @version 17.10.2026
  */
 public enum TokenType {
     LEFT_BRACKET, RIGHT_BRACKET,
     OP_PLUS, OP_MINUS, OP_MULTIPLICATION, OP_DIVISION,
-    NUMBER, FUNCTION, COMMA,
-    EOF
+    NUMBER, FUNCTION, VARIABLE, COMMA,
+    EOF;
+
+    /**
+     * Ожидается ли после токена операнд: минус после такого токена или в начале выражения - унарный.
+     * @return true для открывающей скобки, запятой и операторов
+     */
+    public boolean expectsOperand() {
+        return switch (this) {
+            case LEFT_BRACKET, COMMA, OP_PLUS, OP_MINUS, OP_MULTIPLICATION, OP_DIVISION -> true;
+            default -> false;
+        };
+    }
 }
@@ -0,0 +1,12 @@
+package com.github.gribanoveu.libruary.exception;
+
+/**
+ * Ошибка циклической ссылки между формулами: ячейка прямо или через другие ячейки ссылается сама на себя.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class CyclicReferenceException extends ArithmeticException {
+    public CyclicReferenceException(String message) {
+        super(message);
+    }
+}
@@ -6,10 +6,14 @@ import com.github.gribanoveu.libruary.util.TokenBuffer;
 /**
  * Ошибка при разборе токенов.
  * @author Evgeny Gribanov
- * @version 16.04.2024
+ * @version 17.10.2026
  */
 public class InvalidTokenException extends ArithmeticException {
     public InvalidTokenException(TokenBuffer buffer) {
-        super("Unexpected token at position: %s".formatted(buffer.getTokenPosition()));
+        this(buffer.getTokenPosition());
+    }
+
+    public InvalidTokenException(int tokenPosition) {
+        super("Unexpected token at position: %s".formatted(tokenPosition));
     }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.github.gribanoveu.libruary.exception;
+
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+
+/**
+ * Выражение нарушило ограничение ресурсов калькулятора: длину, количество токенов, вложенность,
+ * высоту дерева, количество вызовов функций или время вычисления, либо вычисление прервано.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class LimitExceededException extends ArithmeticException {
+    private final ErrorCode errorCode;
+    private final long limit;
+
+    /**
+     * @param errorCode нарушенное ограничение, {@link ErrorCode#isLimit()}
+     * @param limit значение ограничения, для {@link ErrorCode#TIMEOUT} - в миллисекундах
+     */
+    public LimitExceededException(ErrorCode errorCode, long limit) {
+        super(message(errorCode, limit));
+        this.errorCode = errorCode;
+        this.limit = limit;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Сообщение об ошибке без создания исключения.
+     */
+    public static String message(ErrorCode errorCode, long limit) {
+        return switch (errorCode) {
+            case LENGTH_LIMIT -> "Expression is longer than %s characters".formatted(limit);
+            case TOKEN_LIMIT -> "Expression has more than %s tokens".formatted(limit);
+            case DEPTH_LIMIT -> "Expression is nested deeper than %s levels".formatted(limit);
+            case TREE_HEIGHT_LIMIT -> "Expression tree is taller than %s levels".formatted(limit);
+            case FUNCTION_CALL_LIMIT -> "Expression calls functions more than %s times".formatted(limit);
+            case TIMEOUT -> "Calculation exceeded timeout of %s ms".formatted(limit);
+            case CANCELLED -> "Calculation cancelled";
+            default -> throw new IllegalArgumentException("Not a limit: " + errorCode);
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.gribanoveu.libruary.exception;
+
+/**
+ * Ошибка при обращении к переменной выражения.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class VariableException extends ArithmeticException {
+    public VariableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.gribanoveu.libruary.expression;
+
+
+import com.github.gribanoveu.libruary.function.AsyncCalculateFunction;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Асинхронное вычисление синтаксического дерева с вызовами {@link AsyncCalculateFunction}.
+ * <p>
+ * Каждый узел, в поддереве которого есть асинхронные вызовы, становится {@link CompletableFuture}:
+ * асинхронная функция запускается,
+ * как только готовы ее аргументы, поэтому независимые вызовы выполняются одновременно,
+ * а операторы и обычные функции применяются в продолжениях, в том потоке, который завершил
+ * последний аргумент. Поток вызывающего не ждет ни одного вызова.
+ * Поддеревья без асинхронных функций вычисляются сразу обычным образом, без CompletableFuture.
+ * <p>
+ * Порядок операций и результат совпадают с {@link ExpressionNode#evaluate(double[])}.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class AsyncEvaluator {
+    private final Executor executor;
+
+    /**
+     * @param executor исполнитель, который получают асинхронные функции
+     */
+    public AsyncEvaluator(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Вычислить дерево.
+     * Ошибка вычисления, в том числе синхронной части, возвращается в результате, а не выбрасывается.
+     * @param root корень дерева
+     * @param slots значения переменных, массив не должен меняться до завершения вычисления
+     * @return будущий результат выражения
+     */
+    public CompletableFuture<Double> evaluate(ExpressionNode root, double[] slots) {
+        try {
+            var result = evaluateNode(root, slots);
+            return result != null ? result : CompletableFuture.completedFuture(root.evaluate(slots));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Запустить асинхронные вызовы поддерева.
+     * Поддерево без асинхронных функций не вычисляется здесь: его вычисляет родитель обычным образом,
+     * поэтому каждый узел проверяется и вычисляется не больше одного раза.
+     * @return будущий результат или null, если в поддереве нет асинхронных функций
+     */
+    private CompletableFuture<Double> evaluateNode(ExpressionNode node, double[] slots) {
+        if (node instanceof BinaryNode binary) {
+            var left = evaluateNode(binary.left(), slots);
+            var right = evaluateNode(binary.right(), slots);
+            if (left == null && right == null) {
+                return null;
+            }
+            return orNow(left, binary.left(), slots).thenCombine(orNow(right, binary.right(), slots),
+                    binary.operator()::apply);
+        }
+        if (node instanceof ChainNode chain) {
+            return evaluateChain(chain, slots);
+        }
+        if (node instanceof NegationNode negation) {
+            var operand = evaluateNode(negation.operand(), slots);
+            return operand != null ? operand.thenApply(value -> -value) : null;
+        }
+        if (node instanceof FunctionNode function) {
+            return evaluateFunction(function, slots);
+        }
+        return null; // числа и переменные
+    }
+
+    private CompletableFuture<Double> evaluateChain(ChainNode chain, double[] slots) {
+        var operands = chain.operands();
+        var futures = new ArrayList<CompletableFuture<Double>>(operands.size());
+        var hasAsyncOperands = false;
+        for (var operand : operands) {
+            var future = evaluateNode(operand, slots);
+            hasAsyncOperands |= future != null;
+            futures.add(future);
+        }
+        if (!hasAsyncOperands) {
+            return null;
+        }
+        var result = orNow(futures.get(0), operands.get(0), slots);
+        for (int i = 1; i < operands.size(); i++) { // операторы применяются слева направо, как в evaluate
+            var operator = chain.operators().get(i - 1);
+            result = result.thenCombine(orNow(futures.get(i), operands.get(i), slots), operator::apply);
+        }
+        return result;
+    }
+
+    private CompletableFuture<Double> evaluateFunction(FunctionNode function, double[] slots) {
+        var arguments = function.arguments();
+        var futures = new CompletableFuture<?>[arguments.size()];
+        var registered = function.function();
+        var async = registered.getFunction() instanceof AsyncCalculateFunction asyncFunction ? asyncFunction : null;
+        var hasAsyncArguments = false;
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = evaluateNode(arguments.get(i), slots);
+            hasAsyncArguments |= futures[i] != null;
+        }
+        if (async == null && !hasAsyncArguments) {
+            return null;
+        }
+        for (int i = 0; i < futures.length; i++) {
+            if (futures[i] == null) {
+                futures[i] = CompletableFuture.completedFuture(arguments.get(i).evaluate(slots));
+            }
+        }
+        if (!hasAsyncArguments) { // аргументы уже вычислены, функцию можно запустить сразу
+            return async.applyAsync(values(futures), executor);
+        }
+        var ready = CompletableFuture.allOf(futures);
+        if (async != null) {
+            return ready.thenCompose(ignored -> async.applyAsync(values(futures), executor));
+        }
+        return ready.thenApply(ignored -> registered.invoke(values(futures), futures.length));
+    }
+
+    private static CompletableFuture<Double> orNow(CompletableFuture<Double> future, ExpressionNode node,
+                                                   double[] slots) {
+        return future != null ? future : CompletableFuture.completedFuture(node.evaluate(slots));
+    }
+
+    private static double[] values(CompletableFuture<?>[] futures) {
+        var values = new double[futures.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (Double) futures[i].join(); // уже завершены
+        }
+        return values;
+    }
+}
@@ -0,0 +1,215 @@
+package com.github.gribanoveu.libruary.expression;
+
+
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Пакетное вычисление синтаксического дерева по колонкам.
+ * <p>
+ * Строки обрабатываются блоками по {@link #BLOCK_SIZE}: дерево обходится один раз на блок,
+ * а каждый узел вычисляет значения для всего блока простым циклом по массиву,
+ * который JIT может векторизовать. Промежуточные блоки берутся из стека буферов и переиспользуются.
+ * <p>
+ * Функции, реализующие {@link com.github.gribanoveu.libruary.function.BatchFunction},
+ * получают блоки аргументов целиком, остальные вызываются для каждой строки блока.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class BatchEvaluator {
+    /**
+     * Количество строк в блоке: блок из 1024 double (8 КБ) вместе с аргументами помещается в L1/L2 кэш.
+     */
+    public static final int BLOCK_SIZE = 1024;
+
+    private final double[][] columns;
+    private final List<double[]> buffers = new ArrayList<>();
+    private int bufferTop;
+    private int start; // номер первой строки текущего блока
+
+    private BatchEvaluator(double[][] columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Вычислить дерево для всех строк.
+     * @param root корень дерева
+     * @param columns значения переменных по колонкам: columns[слот переменной][номер строки]
+     * @param out массив результатов, количество строк равно его длине
+     */
+    public static void evaluate(ExpressionNode root, double[][] columns, double[] out) {
+        new BatchEvaluator(columns).run(root, out);
+    }
+
+    private void run(ExpressionNode root, double[] out) {
+        var result = acquire();
+        for (start = 0; start < out.length; start += BLOCK_SIZE) {
+            var length = Math.min(BLOCK_SIZE, out.length - start);
+            evaluate(root, length, result);
+            System.arraycopy(result, 0, out, start, length);
+        }
+    }
+
+    private void evaluate(ExpressionNode node, int length, double[] target) {
+        if (node instanceof NumberNode number) {
+            Arrays.fill(target, 0, length, number.value());
+        } else if (node instanceof VariableNode variable) {
+            System.arraycopy(columns[variable.slot()], start, target, 0, length);
+        } else if (node instanceof NegationNode negation) {
+            evaluate(negation.operand(), length, target);
+            for (int i = 0; i < length; i++) {
+                target[i] = -target[i];
+            }
+        } else if (node instanceof BinaryNode binary) {
+            evaluate(binary.left(), length, target);
+            applyOperand(binary.operator(), binary.right(), length, target);
+        } else if (node instanceof ChainNode chain) {
+            var operands = chain.operands();
+            evaluate(operands.get(0), length, target);
+            for (int i = 1; i < operands.size(); i++) {
+                applyOperand(chain.operators().get(i - 1), operands.get(i), length, target);
+            }
+        } else if (node instanceof FunctionNode function) {
+            evaluateFunction(function, length, target);
+        } else { // неизвестный узел вычисляется построчно
+            var row = new double[columns.length];
+            for (int i = 0; i < length; i++) {
+                for (int slot = 0; slot < columns.length; slot++) {
+                    row[slot] = columns[slot][start + i];
+                }
+                target[i] = node.evaluate(row);
+            }
+        }
+    }
+
+    /**
+     * Применить оператор к блоку левых значений в target и правому операнду.
+     */
+    private void applyOperand(Operator operator, ExpressionNode right, int length, double[] target) {
+        if (right instanceof NumberNode number) { // константа не разворачивается в блок
+            applyScalar(operator, target, number.value(), length);
+        } else if (right instanceof VariableNode variable) { // колонка читается напрямую, без копирования
+            apply(operator, target, columns[variable.slot()], start, length);
+        } else {
+            var values = acquire();
+            evaluate(right, length, values);
+            apply(operator, target, values, 0, length);
+            release(1);
+        }
+    }
+
+    /**
+     * Отдельный цикл на каждый оператор, чтобы внутри цикла не было ветвлений.
+     */
+    private static void apply(Operator operator, double[] target, double[] values, int offset, int length) {
+        switch (operator) {
+            case PLUS -> {
+                for (int i = 0; i < length; i++) {
+                    target[i] += values[offset + i];
+                }
+            }
+            case MINUS -> {
+                for (int i = 0; i < length; i++) {
+                    target[i] -= values[offset + i];
+                }
+            }
+            case MULTIPLICATION -> {
+                for (int i = 0; i < length; i++) {
+                    target[i] *= values[offset + i];
+                }
+            }
+            case DIVISION -> {
+                for (int i = 0; i < length; i++) {
+                    target[i] /= values[offset + i];
+                }
+            }
+        }
+    }
+
+    private static void applyScalar(Operator operator, double[] target, double value, int length) {
+        switch (operator) {
+            case PLUS -> {
+                for (int i = 0; i < length; i++) {
+                    target[i] += value;
+                }
+            }
+            case MINUS -> {
+                for (int i = 0; i < length; i++) {
+                    target[i] -= value;
+                }
+            }
+            case MULTIPLICATION -> {
+                for (int i = 0; i < length; i++) {
+                    target[i] *= value;
+                }
+            }
+            case DIVISION -> {
+                for (int i = 0; i < length; i++) {
+                    target[i] /= value;
+                }
+            }
+        }
+    }
+
+    private void evaluateFunction(FunctionNode function, int length, double[] target) {
+        var registered = function.function();
+        var count = function.arguments().size();
+        var args = new double[count][];
+        for (int argument = 0; argument < count; argument++) {
+            args[argument] = acquire();
+            evaluate(function.arguments().get(argument), length, args[argument]);
+        }
+
+        var batchFunction = registered.getBatchFunction();
+        if (batchFunction != null) {
+            batchFunction.applyBatch(args, length, target);
+        } else if (registered.getArity() == count) {
+            switch (registered.getKind()) {
+                case FUNCTION_1 -> {
+                    var f = (Function1) registered.getFunction();
+                    for (int i = 0; i < length; i++) {
+                        target[i] = f.apply(args[0][i]);
+                    }
+                }
+                case FUNCTION_2 -> {
+                    var f = (Function2) registered.getFunction();
+                    for (int i = 0; i < length; i++) {
+                        target[i] = f.apply(args[0][i], args[1][i]);
+                    }
+                }
+                default -> {
+                    var f = (Function3) registered.getFunction();
+                    for (int i = 0; i < length; i++) {
+                        target[i] = f.apply(args[0][i], args[1][i], args[2][i]);
+                    }
+                }
+            }
+        } else { // функции с переменным числом аргументов вызываются построчно
+            var row = new double[count];
+            for (int i = 0; i < length; i++) {
+                for (int argument = 0; argument < count; argument++) {
+                    row[argument] = args[argument][i];
+                }
+                target[i] = registered.invoke(row, count);
+            }
+        }
+        release(count);
+    }
+
+    private double[] acquire() {
+        if (bufferTop == buffers.size()) {
+            buffers.add(new double[BLOCK_SIZE]);
+        }
+        return buffers.get(bufferTop++);
+    }
+
+    private void release(int count) {
+        bufferTop -= count;
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.gribanoveu.libruary.expression;
+
+/**
+ * Бинарная операция над двумя подвыражениями: 4 + 2, 2 * 2.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public record BinaryNode(Operator operator, ExpressionNode left, ExpressionNode right) implements ExpressionNode {
+    @Override
+    public double evaluate(double[] slots) {
+        return operator.apply(left.evaluate(slots), right.evaluate(slots));
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.gribanoveu.libruary.expression;
+
+import java.util.Arrays;
+
+/**
+ * Значения переменных для подготовленного выражения.
+ * Объект можно переиспользовать для каждой строки данных: достаточно перезаписать значения и вычислить выражение снова.
+ * Не потокобезопасен, для каждого потока следует создавать свой объект через {@link PreparedExpression#newBindings()}.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class Bindings {
+    private final PreparedExpression expression;
+    private final double[] slots;
+
+    Bindings(PreparedExpression expression) {
+        this.expression = expression;
+        this.slots = new double[expression.getVariables().size()];
+    }
+
+    /**
+     * Задать значение переменной по имени.
+     * @param name имя переменной
+     * @param value значение
+     * @return этот же объект для цепочки вызовов
+     */
+    public Bindings set(String name, double value) {
+        slots[expression.slotOf(name)] = value;
+        return this;
+    }
+
+    /**
+     * Задать значение переменной по номеру слота.
+     * Номер слота следует один раз получить через {@link PreparedExpression#slotOf(String)}.
+     * @param slot номер слота переменной
+     * @param value значение
+     * @return этот же объект для цепочки вызовов
+     */
+    public Bindings set(int slot, double value) {
+        slots[slot] = value;
+        return this;
+    }
+
+    /**
+     * Сбросить значения всех переменных в 0.0.
+     * @return этот же объект для цепочки вызовов
+     */
+    public Bindings clear() {
+        Arrays.fill(slots, 0.0);
+        return this;
+    }
+
+    /**
+     * Вычислить выражение с текущими значениями переменных.
+     * @return результат вычислений
+     */
+    public double evaluate() {
+        return expression.evaluate(slots);
+    }
+
+    double[] getSlots() {
+        return slots;
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.gribanoveu.libruary.expression;
+
+import java.util.List;
+
+/**
+ * Длинная цепочка операторов одного приоритета: x0 + x1 - x2 + ..., a * b / c * ...
+ * <p>
+ * Операторы применяются слева направо, как в цепочке {@link BinaryNode}, вложенных влево:
+ * ((x0 + x1) - x2) + ..., поэтому результат совпадает до бита. Но высота узла не зависит от длины цепочки,
+ * и рекурсивные обходы дерева не переполняют стек на выражениях из тысяч слагаемых.
+ * Строится {@link com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder} только для длинных цепочек,
+ * короткие остаются узлами {@link BinaryNode}.
+ * @param operands операнды цепочки, не меньше двух
+ * @param operators операторы, i-й стоит между операндами i и i + 1
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public record ChainNode(List<ExpressionNode> operands, List<Operator> operators) implements ExpressionNode {
+
+    public ChainNode {
+        operands = List.copyOf(operands);
+        operators = List.copyOf(operators);
+        if (operands.size() < 2 || operators.size() != operands.size() - 1) {
+            throw new IllegalArgumentException("Chain needs n operands and n - 1 operators");
+        }
+    }
+
+    @Override
+    public double evaluate(double[] slots) {
+        var value = operands.get(0).evaluate(slots);
+        for (int i = 1; i < operands.size(); i++) {
+            value = operators.get(i - 1).apply(value, operands.get(i).evaluate(slots));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.gribanoveu.libruary.expression;
+
+import com.github.gribanoveu.libruary.exception.VariableException;
+import com.github.gribanoveu.libruary.util.FunctionRegistry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Выражение, скомпилированное в синтаксическое дерево.
+ * Вычисление обходит готовое дерево и не работает со строками.
+ * Вместо обхода дерева выражение может вычисляться узлом, сгенерированным одним из компиляторов
+ * пакета {@code compiler}, или {@link SharedNode}, если в выражении есть общие подвыражения;
+ * само дерево при этом остается доступным для анализа.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class CompiledExpression implements PreparedExpression {
+    private static final double[] NO_SLOTS = new double[0];
+
+    private final String expression;
+    private final ExpressionNode root;
+    private final ExpressionNode evaluator;
+    private final List<String> variables;
+    private final Map<String, Integer> slots;
+    private final List<String> functions;
+    private final FunctionRegistry registry;
+
+    public CompiledExpression(String expression, ExpressionNode root, List<String> variables) {
+        this(expression, root, root, variables, List.of(), null);
+    }
+
+    /**
+     * @param expression исходное выражение
+     * @param root корень синтаксического дерева
+     * @param evaluator узел, которым вычисляется выражение: корень дерева или результат компиляции
+     * @param variables имена переменных в порядке слотов
+     * @param functions имена вызываемых функций
+     * @param registry снимок функций, с которым выражение было подготовлено
+     */
+    public CompiledExpression(String expression, ExpressionNode root, ExpressionNode evaluator, List<String> variables,
+                              List<String> functions, FunctionRegistry registry) {
+        this.expression = expression;
+        this.root = root;
+        this.evaluator = evaluator;
+        this.functions = List.copyOf(functions);
+        this.registry = registry;
+        this.variables = List.copyOf(variables);
+        this.slots = new HashMap<>();
+        for (int slot = 0; slot < this.variables.size(); slot++) {
+            slots.put(this.variables.get(slot), slot);
+        }
+    }
+
+    @Override
+    public double evaluate() {
+        if (!variables.isEmpty()) {
+            throw new VariableException("Variable is not bound: " + variables.get(0));
+        }
+        return evaluator.evaluate(NO_SLOTS);
+    }
+
+    @Override
+    public double evaluate(double[] values) {
+        if (values.length < variables.size()) {
+            throw new VariableException("Expected %s variable values, got %s".formatted(variables.size(), values.length));
+        }
+        return evaluator.evaluate(values);
+    }
+
+    /**
+     * Вычислить выражение асинхронно по дереву, см. {@link AsyncEvaluator}.
+     * Асинхронные вызовы видны только в дереве, поэтому выбранный способ вычисления здесь не используется.
+     */
+    @Override
+    public CompletableFuture<Double> evaluateAsync(double[] values, Executor executor) {
+        if (values.length < variables.size()) {
+            return CompletableFuture.failedFuture(new VariableException(
+                    "Expected %s variable values, got %s".formatted(variables.size(), values.length)));
+        }
+        return new AsyncEvaluator(executor).evaluate(root, values);
+    }
+
+    /**
+     * Вычислить выражение для множества строк данных по колонкам, см. {@link BatchEvaluator}.
+     * Дерево обходится один раз на блок строк, а не для каждой строки.
+     */
+    @Override
+    public void evaluateBatch(double[][] columns, double[] out) {
+        if (columns.length < variables.size()) {
+            throw new VariableException("Expected %s variable columns, got %s".formatted(variables.size(), columns.length));
+        }
+        for (int slot = 0; slot < variables.size(); slot++) {
+            if (columns[slot].length < out.length) {
+                throw new VariableException("Column of variable %s has %s rows, expected %s"
+                        .formatted(variables.get(slot), columns[slot].length, out.length));
+            }
+        }
+        BatchEvaluator.evaluate(root, columns, out);
+    }
+
+    @Override
+    public int slotOf(String name) {
+        var slot = slots.get(name);
+        if (slot == null) {
+            throw new VariableException("Variable not found: " + name);
+        }
+        return slot;
+    }
+
+    @Override
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    @Override
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Получить имена функций, от которых зависит выражение, включая вызовы, свернутые в константы.
+     * @return имена функций в порядке первого вызова
+     */
+    public List<String> getFunctions() {
+        return functions;
+    }
+
+    /**
+     * Получить снимок функций, с которым выражение было подготовлено.
+     * Замена функции после подготовки не влияет на уже подготовленное выражение.
+     * @return снимок функций или null, если выражение создано без него
+     */
+    public FunctionRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Получить корень синтаксического дерева.
+     * @return корневой узел
+     */
+    public ExpressionNode getRoot() {
+        return root;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.gribanoveu.libruary.expression;
+
+/**
+ * Узел синтаксического дерева выражения.
+ * Дерево строится один раз, а вычисляется сколько угодно раз.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public interface ExpressionNode {
+
+    /**
+     * Вычислить узел.
+     * @param slots значения переменных, индекс в массиве - номер слота переменной
+     * @return значение узла
+     */
+    double evaluate(double[] slots);
+}
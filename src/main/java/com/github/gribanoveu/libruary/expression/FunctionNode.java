@@ -0,0 +1,53 @@
+package com.github.gribanoveu.libruary.expression;
+
+import com.github.gribanoveu.libruary.exception.FunctionException;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.util.RegisteredFunction;
+
+import java.util.List;
+
+/**
+ * Вызов зарегистрированной функции: min(2, 4).
+ * Функция находится по имени один раз при построении дерева, узел хранит прямую ссылку на нее,
+ * поэтому вычисление не ищет функцию в таблице. Количество аргументов функций фиксированной арности
+ * проверяется при создании узла, а не при каждом вызове.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public record FunctionNode(RegisteredFunction function, List<ExpressionNode> arguments) implements ExpressionNode {
+
+    public FunctionNode {
+        arguments = List.copyOf(arguments);
+        if (function.getArity() >= 0 && function.getArity() != arguments.size()) {
+            throw new FunctionException("Function %s expects %s arguments, got %s"
+                    .formatted(function.getName(), function.getArity(), arguments.size()));
+        }
+    }
+
+    /**
+     * @return имя функции
+     */
+    public String name() {
+        return function.getName();
+    }
+
+    @Override
+    public double evaluate(double[] slots) {
+        return switch (function.getKind()) {
+            case FUNCTION_1 -> ((Function1) function.getFunction()).apply(arguments.get(0).evaluate(slots));
+            case FUNCTION_2 -> ((Function2) function.getFunction())
+                    .apply(arguments.get(0).evaluate(slots), arguments.get(1).evaluate(slots));
+            case FUNCTION_3 -> ((Function3) function.getFunction()).apply(arguments.get(0).evaluate(slots),
+                    arguments.get(1).evaluate(slots), arguments.get(2).evaluate(slots));
+            default -> {
+                var args = new double[arguments.size()];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = arguments.get(i).evaluate(slots);
+                }
+                yield function.invoke(args, args.length);
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.gribanoveu.libruary.expression;
+
+/**
+ * Унарный минус: - 2.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public record NegationNode(ExpressionNode operand) implements ExpressionNode {
+    @Override
+    public double evaluate(double[] slots) {
+        return -operand.evaluate(slots);
+    }
+}
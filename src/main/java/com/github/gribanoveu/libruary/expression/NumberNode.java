@@ -0,0 +1,13 @@
+package com.github.gribanoveu.libruary.expression;
+
+/**
+ * Число, разобранное на этапе построения дерева.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public record NumberNode(double value) implements ExpressionNode {
+    @Override
+    public double evaluate(double[] slots) {
+        return value;
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.gribanoveu.libruary.expression;
+
+/**
+ * Бинарные арифметические операторы.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public enum Operator {
+    PLUS, MINUS, MULTIPLICATION, DIVISION;
+
+    /**
+     * Применить оператор.
+     * @param left левый операнд
+     * @param right правый операнд
+     * @return результат операции
+     */
+    public double apply(double left, double right) {
+        return switch (this) {
+            case PLUS -> left + right;
+            case MINUS -> left - right;
+            case MULTIPLICATION -> left * right;
+            case DIVISION -> left / right;
+        };
+    }
+}
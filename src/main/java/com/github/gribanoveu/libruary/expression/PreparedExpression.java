@@ -0,0 +1,101 @@
+package com.github.gribanoveu.libruary.expression;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Заранее разобранное выражение.
+ * Строка разбирается один раз при вызове {@code Calculator.prepare(String)},
+ * после чего выражение можно вычислять многократно без токенизации и разбора чисел.
+ * Переменные выражения получают номера слотов в порядке первого появления в строке:
+ * для {@code price * qty - discount} слоты будут price = 0, qty = 1, discount = 2.
+ * Реализации неизменяемы и потокобезопасны.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public interface PreparedExpression {
+
+    /**
+     * Вычислить выражение без переменных.
+     * @return результат вычислений
+     * @throws com.github.gribanoveu.libruary.exception.VariableException если в выражении есть переменные
+     */
+    double evaluate();
+
+    /**
+     * Вычислить выражение со значениями переменных по слотам.
+     * @param slots значения переменных, индекс в массиве - номер слота переменной
+     * @return результат вычислений
+     * @throws com.github.gribanoveu.libruary.exception.VariableException если значений меньше, чем переменных
+     */
+    double evaluate(double[] slots);
+
+    /**
+     * Вычислить выражение с заданными значениями переменных.
+     * @param bindings значения переменных, созданные через {@link #newBindings()}
+     * @return результат вычислений
+     */
+    default double evaluate(Bindings bindings) {
+        return evaluate(bindings.getSlots());
+    }
+
+    /**
+     * Вычислить выражение с переменными по слотам асинхронно, см. {@link AsyncEvaluator}.
+     * Реализация по умолчанию вычисляет выражение синхронно и возвращает готовый результат.
+     * @param slots значения переменных, массив не должен меняться до завершения вычисления
+     * @param executor исполнитель для асинхронных функций
+     * @return будущий результат, ошибка вычисления возвращается в нем, а не выбрасывается
+     */
+    default CompletableFuture<Double> evaluateAsync(double[] slots, Executor executor) {
+        try {
+            return CompletableFuture.completedFuture(evaluate(slots));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Вычислить выражение для множества строк данных.
+     * Реализация по умолчанию вычисляет выражение для каждой строки отдельно.
+     * @param columns значения переменных по колонкам: columns[слот переменной][номер строки]
+     * @param out массив результатов, количество строк равно его длине
+     */
+    default void evaluateBatch(double[][] columns, double[] out) {
+        var slots = new double[columns.length];
+        for (int row = 0; row < out.length; row++) {
+            for (int slot = 0; slot < columns.length; slot++) {
+                slots[slot] = columns[slot][row];
+            }
+            out[row] = evaluate(slots);
+        }
+    }
+
+    /**
+     * Создать переиспользуемый объект для передачи значений переменных.
+     * @return значения переменных, по умолчанию 0.0
+     */
+    default Bindings newBindings() {
+        return new Bindings(this);
+    }
+
+    /**
+     * Получить номер слота переменной.
+     * @param name имя переменной
+     * @return номер слота
+     * @throws com.github.gribanoveu.libruary.exception.VariableException если такой переменной нет в выражении
+     */
+    int slotOf(String name);
+
+    /**
+     * Получить имена переменных в порядке слотов.
+     * @return неизменяемый список имен
+     */
+    List<String> getVariables();
+
+    /**
+     * Получить исходную строку, из которой было построено выражение.
+     * @return исходное выражение
+     */
+    String getExpression();
+}
@@ -0,0 +1,113 @@
+package com.github.gribanoveu.libruary.expression;
+
+import com.github.gribanoveu.libruary.exception.VariableException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Группа формул, подготовленных вместе и вычисляемых с одними значениями переменных.
+ * <p>
+ * Переменные общие для всех формул группы и получают слоты в порядке первого появления, начиная с первой формулы.
+ * Подвыражение, которое повторяется в одной или нескольких формулах, вычисляется один раз на все формулы:
+ * для {@code a * b + c} и {@code (a * b + c) / d} значение {@code a * b + c} вычисляется один раз.
+ * Создается через {@code ArithmeticCalculator.prepareGroup(List)}. Объект неизменяем и потокобезопасен.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class PreparedGroup {
+    private final List<String> expressions;
+    private final List<String> variables;
+    private final Map<String, Integer> slots;
+    private final ExpressionNode[] temporaries;
+    private final ExpressionNode[] results;
+
+    /**
+     * @param expressions исходные формулы
+     * @param variables имена переменных в порядке слотов
+     * @param temporaries выражения общих подвыражений, слоты которых идут после переменных
+     * @param results выражения результатов в порядке формул
+     */
+    public PreparedGroup(List<String> expressions, List<String> variables, List<ExpressionNode> temporaries,
+                         List<ExpressionNode> results) {
+        this.expressions = List.copyOf(expressions);
+        this.variables = List.copyOf(variables);
+        this.temporaries = temporaries.toArray(ExpressionNode[]::new);
+        this.results = results.toArray(ExpressionNode[]::new);
+        this.slots = new HashMap<>();
+        for (int slot = 0; slot < this.variables.size(); slot++) {
+            slots.put(this.variables.get(slot), slot);
+        }
+    }
+
+    /**
+     * Вычислить все формулы.
+     * @param values значения переменных по слотам
+     * @return результаты в порядке формул
+     */
+    public double[] evaluate(double[] values) {
+        var out = new double[results.length];
+        evaluate(values, out);
+        return out;
+    }
+
+    /**
+     * Вычислить все формулы без выделения памяти.
+     * @param values значения переменных по слотам
+     * @param out массив результатов в порядке формул
+     */
+    public void evaluate(double[] values, double[] out) {
+        if (values.length < variables.size()) {
+            throw new VariableException("Expected %s variable values, got %s".formatted(variables.size(), values.length));
+        }
+        if (out.length < results.length) {
+            throw new IllegalArgumentException("Expected %s results, got array of %s"
+                    .formatted(results.length, out.length));
+        }
+        var frame = TemporaryFrame.acquire();
+        try {
+            var slots = frame.fill(values, variables.size(), temporaries);
+            for (int i = 0; i < results.length; i++) {
+                out[i] = results[i].evaluate(slots);
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Получить номер слота переменной.
+     * @param name имя переменной
+     * @return номер слота
+     * @throws VariableException если такой переменной нет ни в одной формуле
+     */
+    public int slotOf(String name) {
+        var slot = slots.get(name);
+        if (slot == null) {
+            throw new VariableException("Variable not found: " + name);
+        }
+        return slot;
+    }
+
+    /**
+     * @return имена переменных всех формул в порядке слотов
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @return исходные формулы
+     */
+    public List<String> getExpressions() {
+        return expressions;
+    }
+
+    /**
+     * @return количество общих подвыражений, вычисляемых один раз на всю группу
+     */
+    public int getTemporaryCount() {
+        return temporaries.length;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.gribanoveu.libruary.expression;
+
+import java.util.List;
+
+/**
+ * Выражение с общими подвыражениями, которые вычисляются один раз.
+ * <p>
+ * Каждое повторяющееся подвыражение вычисляется заранее во временный слот после слотов переменных,
+ * а тело и следующие временные значения читают его как обычную переменную. Для
+ * {@code (a*b+c)/d + max((a*b+c), e)} временное значение {@code $0 = a*b+c}, тело - {@code $0/d + max($0, e)}.
+ * Временные значения и тело - обычные деревья, поэтому каждое из них может быть скомпилировано любым
+ * способом вычисления. Строится {@link com.github.gribanoveu.libruary.optimizer.CommonSubexpressionEliminator}.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class SharedNode implements ExpressionNode {
+    private final ExpressionNode[] temporaries;
+    private final int variableCount;
+    private final ExpressionNode body;
+
+    /**
+     * @param temporaries выражения временных значений в порядке слотов
+     * @param variableCount количество переменных, первый слот временных значений
+     * @param body выражение результата
+     */
+    public SharedNode(List<ExpressionNode> temporaries, int variableCount, ExpressionNode body) {
+        this.temporaries = temporaries.toArray(ExpressionNode[]::new);
+        this.variableCount = variableCount;
+        this.body = body;
+    }
+
+    @Override
+    public double evaluate(double[] slots) {
+        var frame = TemporaryFrame.acquire();
+        try {
+            return body.evaluate(frame.fill(slots, variableCount, temporaries));
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * @return количество общих подвыражений
+     */
+    public int getTemporaryCount() {
+        return temporaries.length;
+    }
+}
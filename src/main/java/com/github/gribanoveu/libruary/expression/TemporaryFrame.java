@@ -0,0 +1,51 @@
+package com.github.gribanoveu.libruary.expression;
+
+/**
+ * Слоты переменных и временных значений одного потока для {@link SharedNode} и {@link PreparedGroup}.
+ * Массив растет до самого большого выражения и переиспользуется, поэтому вычисление не выделяет память.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class TemporaryFrame {
+    private static final ThreadLocal<TemporaryFrame> FRAMES = ThreadLocal.withInitial(TemporaryFrame::new);
+
+    private double[] slots = new double[16];
+    private boolean busy;
+
+    /**
+     * Занять массив потока.
+     * Если функция вычисляет другое выражение в том же потоке, массив потока уже занят, и создается новый.
+     */
+    static TemporaryFrame acquire() {
+        var frame = FRAMES.get();
+        if (frame.busy) {
+            frame = new TemporaryFrame();
+        }
+        frame.busy = true;
+        return frame;
+    }
+
+    void release() {
+        busy = false;
+    }
+
+    /**
+     * Скопировать значения переменных и вычислить временные значения в слотах после них.
+     * @param values значения переменных
+     * @param variableCount количество переменных, первый слот временных значений
+     * @param temporaries выражения временных значений, каждое читает только переменные и предыдущие временные
+     * @return слоты переменных и временных значений
+     */
+    double[] fill(double[] values, int variableCount, ExpressionNode[] temporaries) {
+        var size = variableCount + temporaries.length;
+        if (slots.length < size) {
+            slots = new double[Math.max(size, slots.length * 2)];
+        }
+        var slots = this.slots;
+        System.arraycopy(values, 0, slots, 0, variableCount);
+        for (int i = 0; i < temporaries.length; i++) {
+            slots[variableCount + i] = temporaries[i].evaluate(slots);
+        }
+        return slots;
+    }
+}
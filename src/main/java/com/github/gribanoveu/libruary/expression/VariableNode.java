@@ -0,0 +1,15 @@
+package com.github.gribanoveu.libruary.expression;
+
+/**
+ * Переменная выражения: price * qty.
+ * Имя переменной превращается в номер слота при построении дерева,
+ * поэтому при вычислении значение читается из массива по индексу.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public record VariableNode(String name, int slot) implements ExpressionNode {
+    @Override
+    public double evaluate(double[] slots) {
+        return slots[slot];
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.gribanoveu.libruary.function;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Асинхронная функция, например получение курса из хранилища.
+ * Регистрируется так же, как {@link CalculateFunction}:
+ * <pre>
+ * .registerFunction("rate", AsyncCalculateFunction.blocking((args, length) -> rates.load(args[0])))
+ * </pre>
+ * При вычислении через {@code calculateAsync} независимые вызовы таких функций в одном выражении
+ * выполняются одновременно, например три вызова в {@code max(rate(1), rate(2), rate(3))},
+ * а результаты собираются без ожидания в потоке вызывающего. При обычном {@code calculate}
+ * функция вызывается синхронно: вызывающий поток ждет результата.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@FunctionalInterface
+public interface AsyncCalculateFunction extends VarargFunction {
+
+    /**
+     * Начать вычисление функции.
+     * @param args аргументы, массив принадлежит этому вызову
+     * @param executor исполнитель для блокирующей работы: при {@code calculateAsync} - виртуальные потоки,
+     *                 если они доступны, при синхронном вызове - текущий поток
+     * @return будущий результат функции
+     */
+    CompletableFuture<Double> applyAsync(double[] args, Executor executor);
+
+    /**
+     * Синхронный вызов: функция выполняется в текущем потоке, и поток ждет ее результата.
+     */
+    @Override
+    default double apply(double[] args, int length) {
+        try {
+            return applyAsync(Arrays.copyOf(args, length), Runnable::run).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Сделать асинхронную функцию из блокирующей: она будет выполняться в потоке исполнителя.
+     * @param function блокирующая функция
+     * @return асинхронная функция
+     */
+    static AsyncCalculateFunction blocking(VarargFunction function) {
+        return (args, executor) -> CompletableFuture.supplyAsync(() -> function.apply(args, args.length), executor);
+    }
+}
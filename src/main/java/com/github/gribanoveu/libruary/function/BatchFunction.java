@@ -0,0 +1,23 @@
+package com.github.gribanoveu.libruary.function;
+
+/**
+ * Дополнительный интерфейс функции для пакетного вычисления по колонкам.
+ * Функция, реализующая его вместе с {@link CalculateFunction}, при пакетном вычислении
+ * получает сразу блок значений каждого аргумента и может обработать его одним циклом.
+ * Функции без этого интерфейса вызываются для каждой строки отдельно.
+ * Пример функции - {@link MaximalValueFunction}
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@FunctionalInterface
+public interface BatchFunction {
+
+    /**
+     * Вычислить функцию для блока строк.
+     * Массивы принадлежат калькулятору, функция не должна сохранять ссылки на них.
+     * @param args значения аргументов: args[номер аргумента][номер строки в блоке]
+     * @param length количество строк в блоке, значимы первые {@code length} элементов каждой колонки
+     * @param result массив для результатов, результат строки i записывается в result[i]
+     */
+    void applyBatch(double[][] args, int length, double[] result);
+}
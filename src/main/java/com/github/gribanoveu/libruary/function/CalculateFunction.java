@@ -5,8 +5,11 @@ import java.util.List;
 /**
  * Интерфейс, который должна реализовать функция для выполнения дополнительной логики расчетов.
  * Пример функции - поиск минимального числа - {@link MinimalValueFunction}
+ * <p>
+ * Аргументы в списке упакованы в {@link Double}, поэтому для частых вызовов лучше реализовать один из
+ * интерфейсов без упаковки: {@link Function1}, {@link Function2}, {@link Function3} или {@link VarargFunction}.
  * @author Evgeny Gribanov
- * @version 17.04.2024
+ * @version 17.10.2026
  */
 @FunctionalInterface
 public interface CalculateFunction {
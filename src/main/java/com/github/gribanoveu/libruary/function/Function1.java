@@ -0,0 +1,27 @@
+package com.github.gribanoveu.libruary.function;
+
+import com.github.gribanoveu.libruary.exception.FunctionException;
+
+import java.util.List;
+
+/**
+ * Функция одного аргумента без упаковки в {@code List<Double>}.
+ * Регистрируется так же, как {@link CalculateFunction}:
+ * <pre>
+ * .registerFunction("sqrt", (Function1) Math::sqrt)
+ * </pre>
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@FunctionalInterface
+public interface Function1 extends CalculateFunction {
+    double apply(double argument);
+
+    @Override
+    default double apply(List<Double> args) {
+        if (args.size() != 1) {
+            throw new FunctionException("Expected 1 argument, got " + args.size());
+        }
+        return apply(args.get(0));
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.gribanoveu.libruary.function;
+
+import com.github.gribanoveu.libruary.exception.FunctionException;
+
+import java.util.List;
+
+/**
+ * Функция двух аргументов без упаковки в {@code List<Double>}.
+ * Регистрируется так же, как {@link CalculateFunction}:
+ * <pre>
+ * .registerFunction("pow", (Function2) Math::pow)
+ * </pre>
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@FunctionalInterface
+public interface Function2 extends CalculateFunction {
+    double apply(double first, double second);
+
+    @Override
+    default double apply(List<Double> args) {
+        if (args.size() != 2) {
+            throw new FunctionException("Expected 2 arguments, got " + args.size());
+        }
+        return apply(args.get(0), args.get(1));
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.gribanoveu.libruary.function;
+
+import com.github.gribanoveu.libruary.exception.FunctionException;
+
+import java.util.List;
+
+/**
+ * Функция трех аргументов без упаковки в {@code List<Double>}.
+ * Регистрируется так же, как {@link CalculateFunction}:
+ * <pre>
+ * .registerFunction("fma", (Function3) Math::fma)
+ * </pre>
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@FunctionalInterface
+public interface Function3 extends CalculateFunction {
+    double apply(double first, double second, double third);
+
+    @Override
+    default double apply(List<Double> args) {
+        if (args.size() != 3) {
+            throw new FunctionException("Expected 3 arguments, got " + args.size());
+        }
+        return apply(args.get(0), args.get(1), args.get(2));
+    }
+}
@@ -1,18 +1,39 @@
 package com.github.gribanoveu.libruary.function;
 
-import java.util.List;
-
 /**
  * Функция для поиска максимального значения.
  * Для использования необходимо зарегистрировать ее при инициализации и вызывать как max(1, 2, 3).
  * @author Evgeny Gribanov
- * @version 24.06.2024
+ * @version 17.10.2026
  */
-public class MaximalValueFunction implements CalculateFunction {
+public class MaximalValueFunction implements VarargFunction, BatchFunction {
+    @Override
+    public double apply(double[] args, int length) {
+        if (length == 0) {
+            throw new ArithmeticException("Empty args list");
+        }
+        var max = args[0];
+        for (int i = 1; i < length; i++) {
+            if (Double.compare(args[i], max) > 0) {
+                max = args[i];
+            }
+        }
+        return max;
+    }
+
     @Override
-    public double apply(List<Double> args) {
-        return args.stream()
-                .max(Double::compare)
-                .orElseThrow(() -> new ArithmeticException("Empty args list"));
+    public void applyBatch(double[][] args, int length, double[] result) {
+        if (args.length == 0) {
+            throw new ArithmeticException("Empty args list");
+        }
+        System.arraycopy(args[0], 0, result, 0, length);
+        for (int column = 1; column < args.length; column++) {
+            var values = args[column];
+            for (int i = 0; i < length; i++) {
+                if (Double.compare(values[i], result[i]) > 0) {
+                    result[i] = values[i];
+                }
+            }
+        }
     }
 }
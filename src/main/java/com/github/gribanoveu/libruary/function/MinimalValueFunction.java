@@ -1,18 +1,39 @@
 package com.github.gribanoveu.libruary.function;
 
-import java.util.List;
-
 /**
  * Функция для поиска минимального значения.
  * Для использования необходимо зарегистрировать ее при инициализации и вызывать как min(1, 2, 3).
  * @author Evgeny Gribanov
- * @version 24.06.2024
+ * @version 17.10.2026
  */
-public class MinimalValueFunction implements CalculateFunction {
+public class MinimalValueFunction implements VarargFunction, BatchFunction {
+    @Override
+    public double apply(double[] args, int length) {
+        if (length == 0) {
+            throw new ArithmeticException("Empty args list");
+        }
+        var min = args[0];
+        for (int i = 1; i < length; i++) {
+            if (Double.compare(args[i], min) < 0) {
+                min = args[i];
+            }
+        }
+        return min;
+    }
+
     @Override
-    public double apply(List<Double> args) {
-        return args.stream()
-                .min(Double::compare)
-                .orElseThrow(() -> new ArithmeticException("Empty args list"));
+    public void applyBatch(double[][] args, int length, double[] result) {
+        if (args.length == 0) {
+            throw new ArithmeticException("Empty args list");
+        }
+        System.arraycopy(args[0], 0, result, 0, length);
+        for (int column = 1; column < args.length; column++) {
+            var values = args[column];
+            for (int i = 0; i < length; i++) {
+                if (Double.compare(values[i], result[i]) < 0) {
+                    result[i] = values[i];
+                }
+            }
+        }
     }
 }
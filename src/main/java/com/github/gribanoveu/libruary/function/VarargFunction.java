@@ -0,0 +1,25 @@
+package com.github.gribanoveu.libruary.function;
+
+import java.util.List;
+
+/**
+ * Функция с произвольным количеством аргументов без упаковки в {@code List<Double>}.
+ * Аргументы передаются в переиспользуемом массиве: значимы только первые {@code length} элементов.
+ * Массив принадлежит калькулятору, функция не должна сохранять ссылку на него или изменять его.
+ * Пример функции - {@link MaximalValueFunction}
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+@FunctionalInterface
+public interface VarargFunction extends CalculateFunction {
+    double apply(double[] args, int length);
+
+    @Override
+    default double apply(List<Double> args) {
+        var values = new double[args.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = args.get(i);
+        }
+        return apply(values, values.length);
+    }
+}
@@ -0,0 +1,158 @@
+package com.github.gribanoveu.libruary.metrics;
+
+import com.github.gribanoveu.libruary.calculator.CalculatorListener;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики калькулятора, собранные в гистограммы.
+ * Регистрируется в билдере как получатель событий:
+ * <pre>
+ * var metrics = new CalculatorMetrics();
+ * var calculator = new ArithmeticCalculatorBuilder()
+ *     .listener(metrics)
+ *     .build();
+ * ...
+ * metrics.getEvaluateLatency().getPercentile(0.99);
+ * </pre>
+ * Времена хранятся в наносекундах. Длина и вложенность записываются для каждого разобранного выражения:
+ * при вычислении без подготовки - при каждом разборе, при вычислении через кэш - только при подготовке.
+ * Все счетчики потокобезопасны и не блокируют потоки вычисления.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class CalculatorMetrics implements CalculatorListener {
+    private final Histogram tokenizeLatency = new Histogram();
+    private final Histogram evaluateLatency = new Histogram();
+    private final Histogram compileLatency = new Histogram();
+    private final Histogram expressionLength = new Histogram();
+    private final Histogram expressionDepth = new Histogram();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder cacheHitCount = new LongAdder();
+    private final LongAdder cacheMissCount = new LongAdder();
+    private final ConcurrentHashMap<String, FunctionMetrics> functions = new ConcurrentHashMap<>();
+
+    /**
+     * Счетчики одной функции.
+     * Для пакетных вызовов в гистограмму записывается среднее время на одно значение.
+     * @param calls количество вычисленных значений функции
+     * @param latency время одного вызова
+     */
+    public record FunctionMetrics(LongAdder calls, Histogram latency) {
+        FunctionMetrics() {
+            this(new LongAdder(), new Histogram());
+        }
+
+        public long getCallCount() {
+            return calls.sum();
+        }
+    }
+
+    @Override
+    public void onTokenize(CharSequence expression, int tokenCount, int depth, long nanos, ErrorCode errorCode) {
+        tokenizeLatency.record(nanos);
+        if (errorCode != ErrorCode.NONE) {
+            errorCount.increment();
+            return;
+        }
+        expressionLength.record(expression.length());
+        expressionDepth.record(depth);
+    }
+
+    @Override
+    public void onEvaluate(CharSequence expression, int tokenCount, int depth, long nanos, ErrorCode errorCode) {
+        evaluateLatency.record(nanos);
+        if (errorCode != ErrorCode.NONE) {
+            errorCount.increment();
+        }
+    }
+
+    @Override
+    public void onCompile(CharSequence expression, int tokenCount, int depth, long nanos) {
+        compileLatency.record(nanos);
+        expressionLength.record(expression.length());
+        expressionDepth.record(depth);
+    }
+
+    @Override
+    public void onCacheLookup(CharSequence expression, boolean hit) {
+        (hit ? cacheHitCount : cacheMissCount).increment();
+    }
+
+    @Override
+    public void onFunctionCall(String name, int calls, long nanos) {
+        var metrics = functions.get(name); // после первого вызова без блокировок и выделения памяти
+        if (metrics == null) {
+            metrics = functions.computeIfAbsent(name, key -> new FunctionMetrics());
+        }
+        metrics.calls().add(calls);
+        metrics.latency().record(calls > 1 ? nanos / calls : nanos);
+    }
+
+    public Histogram getTokenizeLatency() {
+        return tokenizeLatency;
+    }
+
+    public Histogram getEvaluateLatency() {
+        return evaluateLatency;
+    }
+
+    public Histogram getCompileLatency() {
+        return compileLatency;
+    }
+
+    public Histogram getExpressionLength() {
+        return expressionLength;
+    }
+
+    public Histogram getExpressionDepth() {
+        return expressionDepth;
+    }
+
+    /**
+     * Количество выражений, которые не удалось разобрать или вычислить.
+     */
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    public long getCacheHitCount() {
+        return cacheHitCount.sum();
+    }
+
+    public long getCacheMissCount() {
+        return cacheMissCount.sum();
+    }
+
+    /**
+     * Доля обращений, обслуженных кэшем подготовленных выражений.
+     * @return значение от 0.0 до 1.0
+     */
+    public double getCacheHitRate() {
+        var hits = getCacheHitCount();
+        var requests = hits + getCacheMissCount();
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    /**
+     * Счетчики вызовов функций по именам.
+     * @return неизменяемый снимок, отсортированный по имени функции
+     */
+    public Map<String, FunctionMetrics> getFunctions() {
+        return Collections.unmodifiableMap(new TreeMap<>(functions));
+    }
+
+    /**
+     * Счетчики одной функции.
+     * @param name имя функции
+     * @return счетчики или null, если функция еще не вызывалась
+     */
+    public FunctionMetrics getFunction(String name) {
+        return functions.get(name);
+    }
+}
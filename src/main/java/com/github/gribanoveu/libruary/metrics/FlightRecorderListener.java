@@ -0,0 +1,241 @@
+package com.github.gribanoveu.libruary.metrics;
+
+import com.github.gribanoveu.libruary.calculator.CalculatorListener;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.time.Duration;
+
+/**
+ * Получатель событий, который пишет медленные и ошибочные вычисления в JDK Flight Recorder.
+ * <p>
+ * Регистрируется в билдере как обычный получатель:
+ * <pre>
+ * var calculator = new ArithmeticCalculatorBuilder()
+ *     .listener(new FlightRecorderListener(Duration.ofMillis(5)))
+ *     .build();
+ * </pre>
+ * и включается при записи, например {@code -XX:StartFlightRecording}: события относятся к категории
+ * "String Calculator" и включены по умолчанию. Записываются только этапы не быстрее порога
+ * и все ошибки, поэтому запись можно держать включенной постоянно. Промахи кэша записываются всегда.
+ * <p>
+ * Время этапа калькулятор измеряет сам и передает получателю уже после окончания этапа, а длительность
+ * события JFR задается только вызовами begin/end, поэтому время хранится в поле {@code elapsed}.
+ * По той же причине порог задается в конструкторе, а не настройкой {@code threshold} в файле .jfc.
+ * Выражение в события не попадает: формулы пользователей могут содержать чувствительные данные.
+ * Вместо него записываются хэш (совпадает с {@link String#hashCode()}), длина, количество токенов и вложенность,
+ * по которым медленное выражение находится в журнале приложения.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class FlightRecorderListener implements CalculatorListener {
+    private static final String CATEGORY = "String Calculator";
+
+    private final long thresholdNanos;
+
+    /**
+     * Записывать этапы не короче 10 мс.
+     */
+    public FlightRecorderListener() {
+        this(Duration.ofMillis(10));
+    }
+
+    /**
+     * @param threshold наименьшая длительность этапа, который записывается, {@link Duration#ZERO} - записывать все
+     */
+    public FlightRecorderListener(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Name("com.github.gribanoveu.calculator.Tokenize")
+    @Label("Tokenize")
+    @Category(CATEGORY)
+    @Description("Expression split into tokens before evaluation")
+    @StackTrace(false)
+    static final class TokenizeEvent extends Event {
+        @Label("Expression Hash")
+        int expressionHash;
+        @Label("Length")
+        int length;
+        @Label("Token Count")
+        int tokenCount;
+        @Label("Depth")
+        int depth;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+        @Label("Error")
+        String error;
+    }
+
+    @Name("com.github.gribanoveu.calculator.Evaluate")
+    @Label("Evaluate")
+    @Category(CATEGORY)
+    @Description("Tokenized or prepared expression evaluated")
+    @StackTrace(false)
+    static final class EvaluateEvent extends Event {
+        @Label("Expression Hash")
+        int expressionHash;
+        @Label("Length")
+        int length;
+        @Label("Token Count")
+        @Description("-1 if the expression was prepared and taken from the cache")
+        int tokenCount;
+        @Label("Depth")
+        @Description("-1 if the expression was prepared and taken from the cache")
+        int depth;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+        @Label("Error")
+        String error;
+    }
+
+    @Name("com.github.gribanoveu.calculator.Compile")
+    @Label("Compile")
+    @Category(CATEGORY)
+    @Description("Expression parsed, folded and compiled by the evaluation backend")
+    @StackTrace(false)
+    static final class CompileEvent extends Event {
+        @Label("Expression Hash")
+        int expressionHash;
+        @Label("Length")
+        int length;
+        @Label("Token Count")
+        int tokenCount;
+        @Label("Depth")
+        int depth;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("com.github.gribanoveu.calculator.CacheMiss")
+    @Label("Cache Miss")
+    @Category(CATEGORY)
+    @Description("Prepared expression not found in the cache")
+    @StackTrace(false)
+    static final class CacheMissEvent extends Event {
+        @Label("Expression Hash")
+        int expressionHash;
+        @Label("Length")
+        int length;
+    }
+
+    @Name("com.github.gribanoveu.calculator.FunctionCall")
+    @Label("Function Call")
+    @Category(CATEGORY)
+    @Description("Slow call of a registered function")
+    @StackTrace(false)
+    static final class FunctionCallEvent extends Event {
+        @Label("Function")
+        String function;
+        @Label("Calls")
+        @Description("Number of values computed, greater than 1 for batch evaluation")
+        int calls;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Override
+    public void onTokenize(CharSequence expression, int tokenCount, int depth, long nanos, ErrorCode errorCode) {
+        if (nanos < thresholdNanos && errorCode == ErrorCode.NONE) {
+            return;
+        }
+        var event = new TokenizeEvent();
+        if (event.isEnabled()) {
+            event.expressionHash = hash(expression);
+            event.length = expression.length();
+            event.tokenCount = tokenCount;
+            event.depth = depth;
+            event.elapsed = nanos;
+            event.error = error(errorCode);
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onEvaluate(CharSequence expression, int tokenCount, int depth, long nanos, ErrorCode errorCode) {
+        if (nanos < thresholdNanos && errorCode == ErrorCode.NONE) {
+            return;
+        }
+        var event = new EvaluateEvent();
+        if (event.isEnabled()) {
+            event.expressionHash = hash(expression);
+            event.length = expression.length();
+            event.tokenCount = tokenCount;
+            event.depth = depth;
+            event.elapsed = nanos;
+            event.error = error(errorCode);
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onCompile(CharSequence expression, int tokenCount, int depth, long nanos) {
+        if (nanos < thresholdNanos) {
+            return;
+        }
+        var event = new CompileEvent();
+        if (event.isEnabled()) {
+            event.expressionHash = hash(expression);
+            event.length = expression.length();
+            event.tokenCount = tokenCount;
+            event.depth = depth;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onCacheLookup(CharSequence expression, boolean hit) {
+        if (hit) {
+            return;
+        }
+        var event = new CacheMissEvent();
+        if (event.isEnabled()) {
+            event.expressionHash = hash(expression);
+            event.length = expression.length();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onFunctionCall(String name, int calls, long nanos) {
+        if (nanos < thresholdNanos) {
+            return;
+        }
+        var event = new FunctionCallEvent();
+        if (event.isEnabled()) {
+            event.function = name;
+            event.calls = calls;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Хэш выражения, равный {@link String#hashCode()}, без копирования выражения в строку.
+     */
+    static int hash(CharSequence expression) {
+        if (expression instanceof String string) {
+            return string.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            hash = 31 * hash + expression.charAt(i);
+        }
+        return hash;
+    }
+
+    private static String error(ErrorCode errorCode) {
+        return errorCode == ErrorCode.NONE ? null : errorCode.name();
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.gribanoveu.libruary.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасная гистограмма неотрицательных значений со степенными корзинами.
+ * <p>
+ * Корзина i хранит значения от 2^(i-1) до 2^i - 1 (корзина 0 - только ноль), поэтому 64 корзины покрывают
+ * весь диапазон long, а запись стоит одного {@link Long#numberOfLeadingZeros(long)} и инкремента счетчика.
+ * Счетчики - {@link LongAdder}: потоки, одновременно пишущие в одну гистограмму, не ждут друг друга.
+ * Перцентили определяются с точностью до корзины, то есть до двух раз, чего достаточно для времени и размеров.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class Histogram {
+    private static final int BUCKETS = 65;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Записать значение, отрицательные значения записываются как 0.
+     * @param value значение
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Среднее значение.
+     * @return среднее или 0.0, если значений нет
+     */
+    public double getMean() {
+        var total = getCount();
+        return total == 0 ? 0.0 : (double) getSum() / total;
+    }
+
+    /**
+     * Оценка перцентиля сверху: верхняя граница корзины, в которую попадает перцентиль,
+     * но не больше наибольшего записанного значения.
+     * @param percentile доля от 0.0 до 1.0, например 0.99
+     * @return оценка значения или 0, если значений нет
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0.0 || percentile > 1.0) {
+            throw new IllegalArgumentException("Percentile must be between 0.0 and 1.0");
+        }
+        var counts = getBucketCounts();
+        long total = 0;
+        for (var bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        var rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                var upperBound = i == 0 ? 0 : i == 64 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upperBound, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Снимок счетчиков корзин, корзина i содержит значения меньше 2^i и не меньше 2^(i-1).
+     * @return массив из 65 счетчиков
+     */
+    public long[] getBucketCounts() {
+        var counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return "count=%d, mean=%.1f, p50=%d, p99=%d, max=%d"
+                .formatted(getCount(), getMean(), getPercentile(0.5), getPercentile(0.99), getMax());
+    }
+}
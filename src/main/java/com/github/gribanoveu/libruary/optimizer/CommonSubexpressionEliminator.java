@@ -0,0 +1,228 @@
+package com.github.gribanoveu.libruary.optimizer;
+
+
+import com.github.gribanoveu.libruary.expression.BinaryNode;
+import com.github.gribanoveu.libruary.expression.ChainNode;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.expression.FunctionNode;
+import com.github.gribanoveu.libruary.expression.NegationNode;
+import com.github.gribanoveu.libruary.expression.NumberNode;
+import com.github.gribanoveu.libruary.expression.Operator;
+import com.github.gribanoveu.libruary.expression.VariableNode;
+import com.github.gribanoveu.libruary.util.RegisteredFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Исключение общих подвыражений в одном или нескольких деревьях.
+ * <p>
+ * Деревья сводятся в ациклический граф (hash consing): одинаковые поддеревья получают один номер
+ * по оператору и номерам потомков, поэтому сравнение узла не обходит его поддерево. Узел, на который в графе
+ * ссылаются два раза и больше, становится временным значением в слоте после слотов переменных:
+ * в {@code (a*b+c)/d + max((a*b+c), e) - (a*b+c)*f} значение {@code a*b+c} вычисляется один раз, а {@code a*b}
+ * отдельным временным значением не становится, потому что в графе на него ссылается только {@code a*b+c}.
+ * <p>
+ * Общими считаются только операторы и вызовы чистых функций: вызов обычной функции выполняется столько раз,
+ * сколько он записан в выражении, как и без оптимизации. Числа и переменные не выносятся, их чтение дешевле слота.
+ * Порядок операций внутри подвыражения не меняется, поэтому {@code a*b} и {@code b*a} - разные подвыражения.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class CommonSubexpressionEliminator {
+
+    /**
+     * Результат исключения.
+     * @param temporaries выражения временных значений, i-е записывается в слот {@code variableCount + i}
+     *                    и читает только переменные и предыдущие временные значения
+     * @param roots деревья, в которых общие подвыражения заменены чтением временных слотов
+     */
+    public record Result(List<ExpressionNode> temporaries, List<ExpressionNode> roots) {
+    }
+
+    private record NegationKey(int operand) {
+    }
+
+    private record BinaryKey(Operator operator, int left, int right) {
+    }
+
+    private record ChainKey(List<Operator> operators, List<Integer> operands) {
+    }
+
+    private record CallKey(RegisteredFunction function, List<Integer> arguments) {
+    }
+
+    private final Map<Object, Integer> ids = new HashMap<>();
+    private final List<ExpressionNode> nodes = new ArrayList<>();
+    private final List<int[]> children = new ArrayList<>();
+
+    /**
+     * Исключить общие подвыражения одного дерева.
+     * @param root корень дерева
+     * @param variableCount количество переменных, первый слот временных значений
+     * @return результат, временных значений нет и дерево то же, если общих подвыражений нет
+     */
+    public Result eliminate(ExpressionNode root, int variableCount) {
+        return eliminate(List.of(root), variableCount);
+    }
+
+    /**
+     * Исключить общие подвыражения нескольких деревьев, которые вычисляются с одними значениями переменных.
+     * @param roots корни деревьев
+     * @param variableCount количество переменных всех деревьев, первый слот временных значений
+     * @return результат, временных значений нет и деревья те же, если общих подвыражений нет
+     */
+    public Result eliminate(List<ExpressionNode> roots, int variableCount) {
+        ids.clear();
+        nodes.clear();
+        children.clear();
+        var rootIds = new int[roots.size()];
+        for (int i = 0; i < rootIds.length; i++) {
+            rootIds[i] = intern(roots.get(i));
+        }
+        var references = countReferences(rootIds);
+        var slots = new int[nodes.size()];
+        Arrays.fill(slots, -1);
+        var temporaries = new ArrayList<ExpressionNode>();
+        for (int id = 0; id < nodes.size(); id++) { // номера идут от потомков к родителям
+            if (references[id] > 1 && !isLeaf(nodes.get(id))) {
+                var temporary = rebuild(id, slots);
+                slots[id] = variableCount + temporaries.size();
+                temporaries.add(temporary);
+            }
+        }
+        if (temporaries.isEmpty()) {
+            return new Result(List.of(), List.copyOf(roots));
+        }
+        var rebuilt = new ArrayList<ExpressionNode>(rootIds.length);
+        for (var id : rootIds) {
+            rebuilt.add(slots[id] >= 0 ? temporary(slots[id]) : rebuild(id, slots));
+        }
+        return new Result(temporaries, rebuilt);
+    }
+
+    /**
+     * Получить номер узла: одинаковые поддеревья получают один номер.
+     */
+    private int intern(ExpressionNode node) {
+        Object key;
+        int[] ids;
+        if (node instanceof NegationNode negation) {
+            ids = new int[]{intern(negation.operand())};
+            key = new NegationKey(ids[0]);
+        } else if (node instanceof BinaryNode binary) {
+            ids = new int[]{intern(binary.left()), intern(binary.right())};
+            key = new BinaryKey(binary.operator(), ids[0], ids[1]);
+        } else if (node instanceof ChainNode chain) {
+            ids = internAll(chain.operands());
+            key = new ChainKey(chain.operators(), boxed(ids));
+        } else if (node instanceof FunctionNode function) {
+            ids = new int[function.arguments().size()];
+            var arguments = new ArrayList<Integer>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = intern(function.arguments().get(i));
+                arguments.add(ids[i]);
+            }
+            // функция сравнивается по ссылке: разные версии функции с одним именем - разные вызовы
+            key = function.function().isPure() ? new CallKey(function.function(), arguments) : new Object();
+        } else {
+            ids = new int[0];
+            // числа и переменные сравниваются как записи, узлы других видов не объединяются
+            key = node instanceof NumberNode || node instanceof VariableNode ? node : new Object();
+        }
+        var id = this.ids.get(key);
+        if (id == null) {
+            id = nodes.size();
+            this.ids.put(key, id);
+            nodes.add(node);
+            children.add(ids);
+        }
+        return id;
+    }
+
+    private int[] internAll(List<ExpressionNode> nodes) {
+        var ids = new int[nodes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = intern(nodes.get(i));
+        }
+        return ids;
+    }
+
+    private static List<Integer> boxed(int[] ids) {
+        var list = new ArrayList<Integer>(ids.length);
+        for (var id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    /**
+     * Количество ссылок на каждый узел графа: общий узел считает ссылки на своих потомков один раз.
+     */
+    private int[] countReferences(int[] rootIds) {
+        var references = new int[nodes.size()];
+        var visited = new boolean[nodes.size()];
+        for (var id : rootIds) {
+            references[id]++;
+            visit(id, references, visited);
+        }
+        return references;
+    }
+
+    private void visit(int id, int[] references, boolean[] visited) {
+        if (visited[id]) {
+            return;
+        }
+        visited[id] = true;
+        for (var child : children.get(id)) {
+            references[child]++;
+            visit(child, references, visited);
+        }
+    }
+
+    /**
+     * Построить узел заново, заменив потомков, которые стали временными значениями, чтением их слотов.
+     */
+    private ExpressionNode rebuild(int id, int[] slots) {
+        var node = nodes.get(id);
+        var ids = children.get(id);
+        if (node instanceof NegationNode) {
+            return new NegationNode(child(ids[0], slots));
+        }
+        if (node instanceof BinaryNode binary) {
+            return new BinaryNode(binary.operator(), child(ids[0], slots), child(ids[1], slots));
+        }
+        if (node instanceof ChainNode chain) {
+            var operands = new ArrayList<ExpressionNode>(ids.length);
+            for (var operand : ids) {
+                operands.add(child(operand, slots));
+            }
+            return new ChainNode(operands, chain.operators());
+        }
+        if (node instanceof FunctionNode function) {
+            var arguments = new ArrayList<ExpressionNode>(ids.length);
+            for (var argument : ids) {
+                arguments.add(child(argument, slots));
+            }
+            return new FunctionNode(function.function(), arguments);
+        }
+        return node;
+    }
+
+    private ExpressionNode child(int id, int[] slots) {
+        return slots[id] >= 0 ? temporary(slots[id]) : rebuild(id, slots);
+    }
+
+    private static ExpressionNode temporary(int slot) {
+        return new VariableNode("$" + slot, slot);
+    }
+
+    private static boolean isLeaf(ExpressionNode node) {
+        return !(node instanceof NegationNode || node instanceof BinaryNode || node instanceof ChainNode
+                || node instanceof FunctionNode);
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.gribanoveu.libruary.optimizer;
+
+
+import com.github.gribanoveu.libruary.expression.BinaryNode;
+import com.github.gribanoveu.libruary.expression.ChainNode;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.expression.FunctionNode;
+import com.github.gribanoveu.libruary.expression.NegationNode;
+import com.github.gribanoveu.libruary.expression.NumberNode;
+
+import java.util.ArrayList;
+
+/**
+ * Свертка констант в синтаксическом дереве.
+ * <p>
+ * Поддеревья, состоящие только из чисел, и вызовы чистых функций с константными аргументами
+ * заменяются одним числом: {@code max(3, 5) * (2 + 8) / x} превращается в {@code 50 / x}.
+ * Значение вычисляется теми же узлами, что и при обычном вычислении, поэтому сохраняется семантика IEEE 754:
+ * деление на ноль по-прежнему дает Infinity или NaN.
+ * Порядок операций не меняется, поэтому {@code x * 2 * 3} не сворачивается: (x * 2) * 3 не равно x * 6 для всех x.
+ * В длинной цепочке {@link ChainNode} по той же причине сворачиваются только константы в ее начале.
+ * <p>
+ * Если чистая функция бросает исключение на константных аргументах, вызов не сворачивается,
+ * и ошибка возникнет при вычислении выражения, как и без оптимизации.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class ConstantFolder {
+    private static final double[] NO_SLOTS = new double[0];
+
+    /**
+     * Свернуть константы в дереве.
+     * @param node корень дерева
+     * @return новое дерево или тот же узел, если сворачивать нечего
+     */
+    public ExpressionNode fold(ExpressionNode node) {
+        if (node instanceof NegationNode negation) {
+            var operand = fold(negation.operand());
+            if (operand instanceof NumberNode number) {
+                return new NumberNode(-number.value());
+            }
+            return operand == negation.operand() ? negation : new NegationNode(operand);
+        }
+        if (node instanceof BinaryNode binary) {
+            var left = fold(binary.left());
+            var right = fold(binary.right());
+            var folded = left == binary.left() && right == binary.right()
+                    ? binary
+                    : new BinaryNode(binary.operator(), left, right);
+            if (left instanceof NumberNode && right instanceof NumberNode) {
+                return new NumberNode(folded.evaluate(NO_SLOTS));
+            }
+            return folded;
+        }
+        if (node instanceof ChainNode chain) {
+            return foldChain(chain);
+        }
+        if (node instanceof FunctionNode function) {
+            return foldFunction(function);
+        }
+        return node; // числа и переменные не сворачиваются
+    }
+
+    /**
+     * Свернуть операнды цепочки и константы в ее начале: (((1 + 2) + x) + 3) дает (3 + x) + 3,
+     * как и та же цепочка из узлов {@link BinaryNode}.
+     */
+    private ExpressionNode foldChain(ChainNode chain) {
+        var operands = new ArrayList<ExpressionNode>(chain.operands().size());
+        var changed = false;
+        for (var operand : chain.operands()) {
+            var folded = fold(operand);
+            changed |= folded != operand;
+            operands.add(folded);
+        }
+        var operators = chain.operators();
+        int constants = 0;
+        while (constants < operands.size() && operands.get(constants) instanceof NumberNode) {
+            constants++;
+        }
+        if (constants < 2) {
+            return changed ? new ChainNode(operands, operators) : chain;
+        }
+        var value = ((NumberNode) operands.get(0)).value();
+        for (int i = 1; i < constants; i++) {
+            value = operators.get(i - 1).apply(value, ((NumberNode) operands.get(i)).value());
+        }
+        if (constants == operands.size()) {
+            return new NumberNode(value);
+        }
+        var rest = new ArrayList<ExpressionNode>(operands.size() - constants + 1);
+        rest.add(new NumberNode(value));
+        rest.addAll(operands.subList(constants, operands.size()));
+        var restOperators = operators.subList(constants - 1, operators.size());
+        return rest.size() == 2 ? new BinaryNode(restOperators.get(0), rest.get(0), rest.get(1))
+                : new ChainNode(rest, restOperators);
+    }
+
+    private ExpressionNode foldFunction(FunctionNode function) {
+        var arguments = new ArrayList<ExpressionNode>(function.arguments().size());
+        var changed = false;
+        var constant = true;
+        for (var argument : function.arguments()) {
+            var folded = fold(argument);
+            changed |= folded != argument;
+            constant &= folded instanceof NumberNode;
+            arguments.add(folded);
+        }
+        var folded = changed ? new FunctionNode(function.function(), arguments) : function;
+        if (constant && function.function().isPure()) {
+            try {
+                return new NumberNode(folded.evaluate(NO_SLOTS));
+            } catch (RuntimeException e) { // ошибка должна возникать при вычислении, а не при подготовке
+                return folded;
+            }
+        }
+        return folded;
+    }
+}
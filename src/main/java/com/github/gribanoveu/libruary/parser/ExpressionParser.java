@@ -0,0 +1,17 @@
+package com.github.gribanoveu.libruary.parser;
+
+
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+
+/**
+ * Интерфейс, который строит синтаксическое дерево выражения из списка токенов.
+ * В отличие от {@link ExpressionEvaluator} ничего не вычисляет,
+ * поэтому построенное дерево можно вычислять многократно.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public interface ExpressionParser {
+    ExpressionNode buildTree(TokenBuffer buffer);
+}
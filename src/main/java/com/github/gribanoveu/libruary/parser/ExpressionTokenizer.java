@@ -38,9 +38,9 @@ public class ExpressionTokenizer implements Tokenizer {
                 tokens.add(numberToken);
                 index += numberToken.value().length(); // изменить позицию после чтения всего номера
             } else if (Character.isAlphabetic(currentChar)) {
-                var functionToken = readFunction(expression, index);
-                tokens.add(functionToken);
-                index += functionToken.value().length(); // изменить позицию после чтения имени функции
+                var nameToken = readName(expression, index);
+                tokens.add(nameToken);
+                index += nameToken.value().length(); // изменить позицию после чтения имени функции или переменной
             } else {
                 switch (currentChar) {
                     case '(' -> tokens.add(LEFT_BRACKET);
@@ -60,36 +60,44 @@ public class ExpressionTokenizer implements Tokenizer {
     }
 
     /**
-     * Собрать число, если оно состоит из больше, чем одного символа.
+     * Собрать число: целое, с дробной частью и/или экспонентой, например 12, 1.5, 2e3.
+     * Значение разбирается здесь же и сохраняется в токене.
      * @param expression входящее выражение
      * @param start позиция токена
      * @return полное число
      */
     private Token readNumber(String expression, int start) {
-        var digitBuilder = new StringBuilder();
-        while (start < expression.length() && Character.isDigit(expression.charAt(start))) {
-            digitBuilder.append(expression.charAt(start++));
-        }
-        return new Token(TokenType.NUMBER, digitBuilder.toString());
+        var end = NumberParser.scan(expression, start);
+        return new Token(TokenType.NUMBER, expression.substring(start, end), NumberParser.parse(expression, start, end));
     }
 
     /**
-     * Собрать имя функции и проверить, что она зарегистрирована (доступна для расчета)
+     * Собрать имя функции или переменной.
+     * Имя начинается с буквы и может содержать буквы, цифры и '_'.
+     * Если после имени идет открывающая скобка, то это функция, и она должна быть зарегистрирована
+     * (доступна для расчета), иначе это переменная.
      * @param expression входящее выражение
      * @param start позиция токена
-     * @return имя функции
+     * @return имя функции или переменной
      */
-    private Token readFunction(String expression, int start) {
-        var functionNameBuilder = new StringBuilder();
-        while (start < expression.length() && Character.isAlphabetic(expression.charAt(start))) {
-            functionNameBuilder.append(expression.charAt(start++));
+    private Token readName(String expression, int start) {
+        var nameBuilder = new StringBuilder();
+        while (start < expression.length() && isNamePart(expression.charAt(start))) {
+            nameBuilder.append(expression.charAt(start++));
         }
-        var functionName = functionNameBuilder.toString();
-        if (functionManager.isFunctionExist(functionName)) {
-            return new Token(TokenType.FUNCTION, functionName);
-        } else {
-            throw new FunctionException("Function not found: " + functionName);
+        var name = nameBuilder.toString();
+        if (start < expression.length() && expression.charAt(start) == '(') {
+            if (functionManager.isFunctionExist(name)) {
+                return new Token(TokenType.FUNCTION, name);
+            } else {
+                throw new FunctionException("Function not found: " + name);
+            }
         }
+        return new Token(TokenType.VARIABLE, name);
+    }
+
+    private static boolean isNamePart(char character) {
+        return Character.isLetterOrDigit(character) || character == '_';
     }
 }
 
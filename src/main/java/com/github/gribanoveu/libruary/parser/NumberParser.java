@@ -0,0 +1,270 @@
+package com.github.gribanoveu.libruary.parser;
+
+
+import com.github.gribanoveu.libruary.util.Characters;
+
+import java.math.BigInteger;
+
+/**
+ * Разбор числовых литералов: 12, 1.5, 0.25e-3, 6.02E23.
+ * <p>
+ * Литерал разбирается прямо из символов выражения без создания строки. Первые 19 значащих цифр
+ * накапливаются в long, после чего значение w * 10^q переводится в double:
+ * <ul>
+ *     <li>если w < 2^53 и |q| <= 22, одним точным умножением или делением (быстрый путь Клингера);</li>
+ *     <li>иначе алгоритмом Эйзеля-Лемира: умножением на 128-битное приближение 10^q из таблицы
+ *     с проверкой, что округление однозначно.</li>
+ * </ul>
+ * Результат всегда совпадает с {@link Double#parseDouble(String)}: в редких неоднозначных случаях,
+ * для субнормальных чисел и литералов длиннее 19 значащих цифр используется он.
+ * Пробелы внутри литерала игнорируются, как и при обычном разборе.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class NumberParser {
+    private static final int MAX_DIGITS = 19; // 10^19 - 1 < 2^64
+    private static final int MIN_EXPONENT = -342;
+    private static final int MAX_EXPONENT = 308;
+    private static final int MAX_EXPONENT_DIGITS_VALUE = 100_000; // дальше значение все равно 0 или бесконечность
+    private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * 128-битные мантиссы 10^q для q от {@link #MIN_EXPONENT} до {@link #MAX_EXPONENT}:
+     * старший бит старшей половины всегда установлен.
+     */
+    private static final long[] POWER_HIGH = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+    private static final long[] POWER_LOW = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+    static {
+        var five = BigInteger.valueOf(5);
+        var mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; exponent++) {
+            BigInteger mantissa;
+            if (exponent >= 0) { // мантисса 10^q совпадает с мантиссой 5^q
+                var power = five.pow(exponent);
+                var shift = power.bitLength() - 128;
+                mantissa = shift > 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+            } else { // как в fast_float: для малых |q| округление вверх, для больших - с запасом точности
+                var power = five.pow(-exponent);
+                var bits = exponent >= -27 ? power.bitLength() + 127 : 2 * power.bitLength() + 128;
+                mantissa = BigInteger.ONE.shiftLeft(bits).divide(power).add(BigInteger.ONE);
+                var shift = mantissa.bitLength() - 128;
+                if (shift > 0) {
+                    mantissa = mantissa.shiftRight(shift);
+                }
+            }
+            POWER_HIGH[exponent - MIN_EXPONENT] = mantissa.shiftRight(64).longValue();
+            POWER_LOW[exponent - MIN_EXPONENT] = mantissa.and(mask).longValue();
+        }
+    }
+
+    private NumberParser() {
+    }
+
+    /**
+     * Найти конец числового литерала: цифры, затем необязательная дробная часть '.' цифры
+     * и необязательная экспонента 'e' или 'E', знак и цифры. Пробелы между частями пропускаются.
+     * Точка без цифр после нее и 'e' без цифр в литерал не входят.
+     * @param expression выражение
+     * @param start позиция первой цифры литерала
+     * @return позиция после последнего символа литерала
+     */
+    public static int scan(CharSequence expression, int start) {
+        var end = scanDigits(expression, start);
+        var index = skipWhitespace(expression, end);
+        if (index < expression.length() && expression.charAt(index) == '.') {
+            var fractionEnd = scanDigits(expression, skipWhitespace(expression, index + 1));
+            if (fractionEnd > index + 1) {
+                end = fractionEnd;
+                index = skipWhitespace(expression, end);
+            }
+        }
+        if (index < expression.length() && (expression.charAt(index) == 'e' || expression.charAt(index) == 'E')) {
+            var exponentStart = skipWhitespace(expression, index + 1);
+            if (exponentStart < expression.length()
+                    && (expression.charAt(exponentStart) == '+' || expression.charAt(exponentStart) == '-')) {
+                exponentStart = skipWhitespace(expression, exponentStart + 1);
+            }
+            var exponentEnd = scanDigits(expression, exponentStart);
+            if (exponentEnd > exponentStart) {
+                end = exponentEnd;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Разобрать литерал, найденный {@link #scan(CharSequence, int)}.
+     * @param expression выражение
+     * @param start позиция первой цифры литерала
+     * @param end позиция после последнего символа литерала
+     * @return значение литерала, округленное к ближайшему double
+     */
+    public static double parse(CharSequence expression, int start, int end) {
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        var truncated = false;
+        var fraction = false;
+        int index = start;
+        for (; index < end; index++) {
+            var character = expression.charAt(index);
+            if (character == 'e' || character == 'E') {
+                break;
+            }
+            if (character == '.') {
+                fraction = true;
+                continue;
+            }
+            var digit = Character.digit(character, 10);
+            if (digit < 0) { // пробел
+                continue;
+            }
+            if (digits < MAX_DIGITS) {
+                if (digits > 0 || digit != 0) { // ведущие нули не занимают места в long
+                    significand = significand * 10 + digit;
+                    digits++;
+                }
+                if (fraction) {
+                    exponent--;
+                }
+            } else { // отброшенная цифра целой части увеличивает порядок
+                truncated |= digit != 0;
+                if (!fraction) {
+                    exponent++;
+                }
+            }
+        }
+        if (index < end) {
+            exponent += parseExponent(expression, index + 1, end);
+        }
+        if (significand == 0 && !truncated) {
+            return 0.0;
+        }
+        if (!truncated) {
+            if (significand >= 0 && significand <= MAX_EXACT_SIGNIFICAND && exponent >= -22 && exponent <= 22) {
+                return exponent >= 0
+                        ? significand * EXACT_POWERS_OF_TEN[exponent]
+                        : significand / EXACT_POWERS_OF_TEN[-exponent];
+            }
+            var value = eiselLemire(significand, exponent);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+        return Double.parseDouble(toAscii(expression, start, end));
+    }
+
+    private static int parseExponent(CharSequence expression, int start, int end) {
+        var sign = 1;
+        var value = 0;
+        for (int index = start; index < end; index++) {
+            var character = expression.charAt(index);
+            if (character == '-') {
+                sign = -1;
+            } else {
+                var digit = Character.digit(character, 10);
+                if (digit >= 0 && value < MAX_EXPONENT_DIGITS_VALUE) {
+                    value = value * 10 + digit;
+                }
+            }
+        }
+        return sign * value;
+    }
+
+    /**
+     * Алгоритм Эйзеля-Лемира для w * 10^q, w > 0.
+     * @return ближайший double или NaN, если округление неоднозначно или результат вне нормальных чисел
+     */
+    static double eiselLemire(long significand, int exponent) {
+        if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) {
+            return Double.NaN;
+        }
+        var leadingZeros = Long.numberOfLeadingZeros(significand);
+        var normalized = significand << leadingZeros;
+        // floor(q * log2(10)) + 64 + смещение порядка double
+        long binaryExponent = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+        var index = exponent - MIN_EXPONENT;
+        var high = unsignedMultiplyHigh(normalized, POWER_HIGH[index]);
+        var low = normalized * POWER_HIGH[index];
+        if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + normalized, normalized) < 0) {
+            // младших бит не хватает для однозначного округления, учитываем вторую половину мантиссы степени
+            var secondHigh = unsignedMultiplyHigh(normalized, POWER_LOW[index]);
+            var secondLow = normalized * POWER_LOW[index];
+            var mergedHigh = high;
+            var mergedLow = low + secondHigh;
+            if (Long.compareUnsigned(mergedLow, low) < 0) {
+                mergedHigh++;
+            }
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow + 1 == 0
+                    && Long.compareUnsigned(secondLow + normalized, normalized) < 0) {
+                return Double.NaN;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+
+        var upperBit = high >>> 63;
+        var mantissa = high >>> (upperBit + 9);
+        binaryExponent -= 1 ^ upperBit;
+
+        if (low == 0 && (high & 0x1FF) == 0 && (mantissa & 3) == 1) { // ровно посередине между двумя double
+            return Double.NaN;
+        }
+
+        mantissa += mantissa & 1; // округление 54 бит до 53
+        mantissa >>>= 1;
+        if ((mantissa >>> 53) > 0) {
+            mantissa >>>= 1;
+            binaryExponent++;
+        }
+        if (binaryExponent <= 0 || binaryExponent >= 0x7FF) { // субнормальные числа и переполнение
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(binaryExponent << 52 | mantissa & 0x000F_FFFF_FFFF_FFFFL);
+    }
+
+    private static long unsignedMultiplyHigh(long first, long second) {
+        return Math.multiplyHigh(first, second) + ((first >> 63) & second) + ((second >> 63) & first);
+    }
+
+    private static int scanDigits(CharSequence expression, int start) {
+        var end = start;
+        var index = start;
+        while (index < expression.length() && Character.isDigit(expression.charAt(index))) {
+            end = index + 1;
+            index = skipWhitespace(expression, end);
+        }
+        return end;
+    }
+
+    private static int skipWhitespace(CharSequence expression, int index) {
+        while (index < expression.length() && Characters.isWhitespace(expression.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Записать литерал без пробелов и с цифрами ASCII для {@link Double#parseDouble(String)}.
+     */
+    private static String toAscii(CharSequence expression, int start, int end) {
+        var builder = new StringBuilder(end - start);
+        for (int index = start; index < end; index++) {
+            var character = expression.charAt(index);
+            var digit = Character.digit(character, 10);
+            if (digit >= 0) {
+                builder.append((char) ('0' + digit));
+            } else if (!Characters.isWhitespace(character)) {
+                builder.append(character);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.gribanoveu.libruary.parser;
+
+
+import com.github.gribanoveu.libruary.entity.CalculationLimits;
+import com.github.gribanoveu.libruary.entity.CalculationResult;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import com.github.gribanoveu.libruary.entity.TokenType;
+import com.github.gribanoveu.libruary.util.Characters;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenStream;
+
+/**
+ * Токенизатор без выделения памяти.
+ * <p>
+ * Разбирает выражение так же, как {@link ExpressionTokenizer}, но за один проход по исходной строке:
+ * пробелы пропускаются на месте, а не удаляются регулярным выражением с копированием строки,
+ * числа сразу переводятся в double, а токены пишутся в переиспользуемый {@link TokenStream}.
+ * Как и в {@link ExpressionTokenizer}, пробелы внутри числа или имени игнорируются: "1 2" - это число 12.
+ * <p>
+ * За тот же проход проверяются ограничения {@link CalculationLimits}, кроме времени: длина выражения,
+ * количество токенов, вложенность и количество вызовов функций. Вложенность считает {@link TokenStream}
+ * при добавлении токенов тем же {@link com.github.gribanoveu.libruary.util.NestingDepth}, что и подготовка выражения:
+ * {@code - - - 1} имеет вложенность 3.
+ * <p>
+ * Объект не хранит состояния и может использоваться из нескольких потоков, если у каждого свой {@link TokenStream}.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class PackedTokenizer {
+    private final FunctionManager functionManager;
+    private final CalculationLimits limits;
+
+    public PackedTokenizer(FunctionManager functionManager) {
+        this(functionManager, CalculationLimits.NONE);
+    }
+
+    public PackedTokenizer(FunctionManager functionManager, CalculationLimits limits) {
+        this.functionManager = functionManager;
+        this.limits = limits;
+    }
+
+    /**
+     * Разобрать выражение на токены.
+     * @param expression входящее выражение
+     * @param stream поток, в который будут записаны токены, предыдущее содержимое удаляется
+     */
+    public void tokenize(CharSequence expression, TokenStream stream) {
+        try {
+            readTokens(expression, stream, null);
+        } catch (ParseFailure failure) { // ошибка редкая: повторяем разбор, чтобы собрать подробности
+            var result = new CalculationResult();
+            tryTokenize(expression, stream, result);
+            throw result.toException();
+        }
+    }
+
+    /**
+     * Разобрать выражение на токены без исключений.
+     * @param expression входящее выражение
+     * @param stream поток, в который будут записаны токены, предыдущее содержимое удаляется
+     * @param result при ошибке в него записываются код и позиция ошибки
+     * @return true, если выражение разобрано
+     */
+    public boolean tryTokenize(CharSequence expression, TokenStream stream, CalculationResult result) {
+        result.reset(expression);
+        try {
+            readTokens(expression, stream, result);
+            return true;
+        } catch (ParseFailure failure) { // подробности уже записаны в result
+            return false;
+        }
+    }
+
+    private void readTokens(CharSequence expression, TokenStream stream, CalculationResult result) {
+        stream.reset(expression);
+        var length = expression.length();
+        if (length > limits.maxLength()) {
+            throw fail(result, ErrorCode.LENGTH_LIMIT, 0, limits.maxLength(), length, limits.maxLength());
+        }
+        var maxTokens = limits.maxTokens();
+        int functionCalls = 0;
+        int index = skipWhitespace(expression, 0);
+
+        while (index < length) {
+            if (stream.size() >= maxTokens) {
+                throw fail(result, ErrorCode.TOKEN_LIMIT, stream.size(), index, index + 1, maxTokens);
+            }
+            var currentChar = expression.charAt(index);
+            if (isDigit(currentChar)) {
+                index = readNumber(expression, index, stream);
+            } else if (Character.isAlphabetic(currentChar)) {
+                var position = stream.size();
+                index = readName(expression, index, stream, result);
+                if (stream.getType(position) == TokenType.FUNCTION && ++functionCalls > limits.maxFunctionCalls()) {
+                    throw fail(result, ErrorCode.FUNCTION_CALL_LIMIT, position, stream.getStart(position),
+                            stream.getEnd(position), limits.maxFunctionCalls());
+                }
+            } else {
+                var type = switch (currentChar) {
+                    case '(' -> TokenType.LEFT_BRACKET;
+                    case ')' -> TokenType.RIGHT_BRACKET;
+                    case '+' -> TokenType.OP_PLUS;
+                    case '-' -> TokenType.OP_MINUS;
+                    case '*' -> TokenType.OP_MULTIPLICATION;
+                    case '/' -> TokenType.OP_DIVISION;
+                    case ',' -> TokenType.COMMA;
+                    default -> throw fail(result, ErrorCode.UNEXPECTED_CHARACTER, stream.size(), index, index + 1);
+                };
+                stream.add(type, index, index + 1, 0.0);
+                if (stream.getDepth() > limits.maxDepth()) { // открывающая скобка или унарный минус
+                    throw fail(result, ErrorCode.DEPTH_LIMIT, stream.size() - 1, index, index + 1, limits.maxDepth());
+                }
+                index = skipWhitespace(expression, index + 1);
+            }
+        }
+        stream.add(TokenType.EOF, length, length, 0.0);
+    }
+
+    /**
+     * Прочитать число и сразу разобрать его значение.
+     * @return позиция следующего токена
+     */
+    private int readNumber(CharSequence expression, int start, TokenStream stream) {
+        var end = NumberParser.scan(expression, start);
+        stream.add(TokenType.NUMBER, start, end, NumberParser.parse(expression, start, end));
+        return skipWhitespace(expression, end);
+    }
+
+    /**
+     * Прочитать имя функции или переменной.
+     * Если после имени идет открывающая скобка, то это функция, и она должна быть зарегистрирована.
+     * Функция находится здесь же, и в поток записывается ссылка на нее.
+     * @return позиция следующего токена
+     */
+    private int readName(CharSequence expression, int start, TokenStream stream, CalculationResult result) {
+        int end = start;
+        int index = start;
+        while (index < expression.length() && isNamePart(expression.charAt(index))) {
+            end = index + 1;
+            index = skipWhitespace(expression, end);
+        }
+        if (index < expression.length() && expression.charAt(index) == '(') {
+            var function = functionManager.getRegistry().find(expression, start, end);
+            if (function == null) {
+                throw fail(result, ErrorCode.UNKNOWN_FUNCTION, stream.size(), start, end);
+            }
+            stream.addFunction(start, end, function); // анализатор вызовет функцию по ссылке, без поиска по имени
+        } else {
+            stream.add(TokenType.VARIABLE, start, end, 0.0);
+        }
+        return index;
+    }
+
+    /**
+     * Записать нарушение ограничения в результат, если он передан.
+     * @return исключение для выброса, без стека вызовов
+     */
+    private static ParseFailure fail(CalculationResult result, ErrorCode errorCode, int tokenPosition,
+                                     int start, int end, long limit) {
+        if (result != null) {
+            result.setLimitError(errorCode, tokenPosition, start, end, limit);
+        }
+        return ParseFailure.INSTANCE;
+    }
+
+    /**
+     * Записать ошибку в результат, если он передан.
+     * @return исключение для выброса, без стека вызовов
+     */
+    private static ParseFailure fail(CalculationResult result, ErrorCode errorCode, int tokenPosition, int start, int end) {
+        if (result != null) {
+            result.setError(errorCode, tokenPosition, start, end);
+        }
+        return ParseFailure.INSTANCE;
+    }
+
+    private static int skipWhitespace(CharSequence expression, int index) {
+        while (index < expression.length() && Characters.isWhitespace(expression.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isDigit(char character) {
+        return Character.isDigit(character);
+    }
+
+    private static boolean isNamePart(char character) {
+        return Character.isLetterOrDigit(character) || character == '_';
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.gribanoveu.libruary.parser;
+
+/**
+ * Сигнал об ошибке разбора внутри токенизатора и анализатора.
+ * <p>
+ * Подробности ошибки записываются в {@link com.github.gribanoveu.libruary.entity.CalculationResult}
+ * до выброса, поэтому исключение не хранит состояния и создается один раз: без стека вызовов и сообщения
+ * его выброс стоит как обычный переход. Наружу не выходит, публичные методы возвращают признак ошибки
+ * или выбрасывают обычное исключение.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class ParseFailure extends RuntimeException {
+    static final ParseFailure INSTANCE = new ParseFailure();
+
+    private ParseFailure() {
+        super(null, null, false, false);
+    }
+}
@@ -0,0 +1,248 @@
+package com.github.gribanoveu.libruary.parser;
+
+
+import com.github.gribanoveu.libruary.entity.CalculationResult;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import com.github.gribanoveu.libruary.util.TokenStream;
+
+import java.util.Arrays;
+
+import static com.github.gribanoveu.libruary.entity.TokenType.*;
+
+
+/**
+ * Анализатор упакованного потока токенов без рекурсии.
+ * <p>
+ * Разбирает выражение по тем же правилам и с теми же ошибками, что и рекурсивный спуск {@link SyntaxEvaluator},
+ * но читает токены из {@link TokenStream}, заполненного {@link PackedTokenizer}, и обходится без рекурсии. Два уровня приоритета операторов позволяют хранить состояние одного уровня вложенности
+ * в нескольких локальных переменных: накопленную сумму, накопленное произведение, отложенные операторы
+ * и четность унарных минусов. При входе в скобки или вызов функции это состояние сохраняется
+ * в явном стеке рамок, а при выходе восстанавливается, поэтому выражение вида ((((...))))
+ * или min(min(min(...))) любой глубины занимает место только в этом стеке и не может переполнить стек потока,
+ * а минусы подряд вовсе не занимают места. Между скобками выражение вычисляется на регистрах,
+ * без вызовов методов и обращений к памяти, поэтому анализатор не медленнее рекурсивного спуска.
+ * Числа уже разобраны, а функции найдены токенизатором и вызываются по ссылке из потока.
+ * Стеки растут при первом длинном выражении и переиспользуются для следующих,
+ * поэтому в установившемся режиме вычисление не выделяет память.
+ * Ошибки разбора тоже не создают исключений: код и позиция записываются в {@link CalculationResult},
+ * а исключение создается только в {@link #calculateExpression(TokenStream)}.
+ * <p>
+ * Не потокобезопасен, у каждого потока должен быть свой объект.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class StackEvaluator {
+    // отложенный оператор уровня: сложения (в сумме) или умножения (в произведении)
+    private static final int NONE = 0;
+    private static final int ADD = 1;
+    private static final int SUBTRACT = 2;
+    private static final int MULTIPLY = 1;
+    private static final int DIVIDE = 2;
+    // вид рамки и размер рамки в стеке целых: вид, состояние, имя функции, начало аргументов
+    private static final int BRACKET = 0; // '(' ВЫРАЖЕНИЕ ')'
+    private static final int CALL = 1; // Имя '(' ВЫРАЖЕНИЕ (, ВЫРАЖЕНИЕ)* ')'
+    private static final int FRAME_INTS = 4;
+
+    private TokenStream stream;
+    private CalculationResult result; // куда записать ошибку текущего вычисления
+    private final CalculationResult scratch = new CalculationResult();
+
+    private double[] frameValues = new double[32]; // сумма и произведение внешних уровней
+    private int[] frames = new int[64];
+    private double[] arguments = new double[16]; // вычисленные аргументы всех открытых вызовов функций
+    private double[] callArguments = new double[16]; // аргументы текущего вызова, начиная с нуля
+
+    /**
+     * Вычисляем выражение из потока токенов.
+     * @param stream поток токенов, заканчивающийся EOF
+     * @return результат вычисления выражения
+     */
+    public double calculateExpression(TokenStream stream) {
+        if (!tryCalculateExpression(stream, scratch)) {
+            throw scratch.toException();
+        }
+        return scratch.getValue();
+    }
+
+    /**
+     * Вычисляем выражение из потока токенов без исключений.
+     * Ошибки разбора записываются в результат, исключение пользовательской функции сохраняется
+     * в нем с кодом {@link ErrorCode#EXCEPTION}.
+     * @param stream поток токенов, заканчивающийся EOF
+     * @param result результат, в который записывается значение или ошибка
+     * @return true, если выражение вычислено
+     */
+    public boolean tryCalculateExpression(TokenStream stream, CalculationResult result) {
+        this.stream = stream;
+        this.result = result;
+        result.reset(stream.getSource());
+        try {
+            result.setValue(calculate());
+            return true;
+        } catch (ParseFailure failure) { // подробности уже записаны в result
+            return false;
+        } catch (RuntimeException e) {
+            result.setException(e);
+            return false;
+        } finally {
+            this.result = null;
+        }
+    }
+
+    /**
+     * Автомат с двумя состояниями: ожидается операнд или ожидается оператор после операнда.
+     * Операции выполняются в том же порядке, что и при рекурсивном спуске: унарный минус относится
+     * к ближайшему операнду, произведение копится слева направо и добавляется к сумме на следующем '+' или '-',
+     * поэтому результат совпадает до бита.
+     */
+    private double calculate() {
+        var stream = this.stream;
+        int position = 0;
+        if (stream.getType(0) == EOF) { // пустое выражение
+            return 0.0;
+        }
+        // состояние текущего уровня вложенности
+        var sum = 0.0;
+        var product = 0.0;
+        int sumOperator = NONE;
+        int productOperator = NONE;
+        var negate = false;
+        // внешние уровни
+        var frameValues = this.frameValues;
+        var frames = this.frames;
+        int frameTop = 0;
+        int argumentTop = 0;
+
+        while (true) {
+            // ожидается операнд
+            // Множит: Функц | Унарн | Число | Перем | '(' ВЫРАЖЕНИЕ ')' ;
+            var token = stream.getType(position++);
+            double operand;
+            if (token == NUMBER) { // число уже разобрано токенизатором
+                operand = stream.getNumber(position - 1);
+            } else if (token == OP_MINUS) {
+                negate = !negate;
+                continue;
+            } else if (token == LEFT_BRACKET || token == FUNCTION) {
+                var kind = BRACKET;
+                var nameIndex = 0;
+                if (token == FUNCTION) {
+                    if (stream.getType(position++) != LEFT_BRACKET) {
+                        throw fail(ErrorCode.UNEXPECTED_TOKEN, position);
+                    }
+                    kind = CALL;
+                    nameIndex = position - 2;
+                }
+                if (frameTop * FRAME_INTS == frames.length) {
+                    frames = this.frames = Arrays.copyOf(frames, frames.length * 2);
+                    frameValues = this.frameValues = Arrays.copyOf(frameValues, frameValues.length * 2);
+                }
+                frameValues[frameTop * 2] = sum;
+                frameValues[frameTop * 2 + 1] = product;
+                var frame = frameTop * FRAME_INTS;
+                frames[frame] = kind;
+                frames[frame + 1] = sumOperator | productOperator << 2 | (negate ? 1 << 4 : 0);
+                frames[frame + 2] = nameIndex;
+                frames[frame + 3] = argumentTop;
+                frameTop++;
+                sumOperator = NONE;
+                productOperator = NONE;
+                negate = false;
+                continue;
+            } else if (token == VARIABLE) { // значения переменных передаются только в подготовленное выражение
+                throw fail(ErrorCode.UNBOUND_VARIABLE, position);
+            } else {
+                throw fail(ErrorCode.UNEXPECTED_TOKEN, position);
+            }
+
+            // операнд получен, ожидается оператор; закрытие скобки или вызова дает новый операнд
+            while (true) {
+                if (negate) {
+                    operand = -operand;
+                    negate = false;
+                }
+                product = switch (productOperator) {
+                    case MULTIPLY -> product * operand;
+                    case DIVIDE -> product / operand;
+                    default -> operand;
+                };
+                token = stream.getType(position++);
+                if (token == OP_MULTIPLICATION || token == OP_DIVISION) {
+                    productOperator = token == OP_MULTIPLICATION ? MULTIPLY : DIVIDE;
+                    break;
+                }
+                sum = switch (sumOperator) {
+                    case ADD -> sum + product;
+                    case SUBTRACT -> sum - product;
+                    default -> product;
+                };
+                productOperator = NONE;
+                if (token == OP_PLUS || token == OP_MINUS) {
+                    sumOperator = token == OP_PLUS ? ADD : SUBTRACT;
+                    break;
+                }
+                // выражение уровня закончилось, токен проверяет та рамка, в которой оно записано
+                if (frameTop == 0) { // лишние токены после выражения не читаются, как и при рекурсивном спуске
+                    return sum;
+                }
+                var frame = (frameTop - 1) * FRAME_INTS;
+                if (frames[frame] == CALL) {
+                    if (argumentTop == arguments.length) {
+                        arguments = Arrays.copyOf(arguments, argumentTop * 2);
+                    }
+                    arguments[argumentTop++] = sum;
+                    if (token == COMMA) { // следующий аргумент вычисляется на том же уровне с чистого состояния
+                        sumOperator = NONE;
+                        break;
+                    }
+                }
+                if (token != RIGHT_BRACKET) {
+                    throw fail(ErrorCode.UNEXPECTED_TOKEN, position);
+                }
+                operand = sum;
+                if (frames[frame] == CALL) {
+                    var base = frames[frame + 3];
+                    operand = callFunction(frames[frame + 2], base, argumentTop - base);
+                    argumentTop = base;
+                }
+                // восстановить состояние внешнего уровня, значение скобок или вызова становится операндом
+                frameTop--;
+                sum = frameValues[frameTop * 2];
+                product = frameValues[frameTop * 2 + 1];
+                var state = frames[frame + 1];
+                sumOperator = state & 3;
+                productOperator = state >> 2 & 3;
+                negate = (state & 1 << 4) != 0;
+            }
+        }
+    }
+
+    /**
+     * Вызвать функцию с аргументами, которые лежат в стеке аргументов начиная с {@code base}.
+     */
+    private double callFunction(int nameIndex, int base, int length) {
+        if (length > callArguments.length) {
+            callArguments = new double[Math.max(length, callArguments.length * 2)];
+        }
+        System.arraycopy(arguments, base, callArguments, 0, length);
+        var function = stream.getFunction(nameIndex); // функция найдена токенизатором
+        var arity = function.getArity();
+        if (arity >= 0 && arity != length) {
+            result.setArgumentCountError(nameIndex + 1, stream.getStart(nameIndex), stream.getEnd(nameIndex),
+                    function.getName(), arity, length);
+            throw ParseFailure.INSTANCE;
+        }
+        return function.invoke(callArguments, length);
+    }
+
+    /**
+     * Записать ошибку для последнего прочитанного токена.
+     * @param position позиция после этого токена
+     * @return исключение для выброса, без стека вызовов
+     */
+    private ParseFailure fail(ErrorCode errorCode, int position) {
+        result.setError(errorCode, position, stream.getStart(position - 1), stream.getEnd(position - 1));
+        return ParseFailure.INSTANCE;
+    }
+}
@@ -3,10 +3,11 @@ package com.github.gribanoveu.libruary.parser;
 
 
 import com.github.gribanoveu.libruary.exception.InvalidTokenException;
+import com.github.gribanoveu.libruary.exception.VariableException;
 import com.github.gribanoveu.libruary.util.FunctionManager;
 import com.github.gribanoveu.libruary.util.TokenBuffer;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 import static com.github.gribanoveu.libruary.entity.TokenType.*;
 
@@ -19,7 +20,8 @@ import static com.github.gribanoveu.libruary.entity.TokenType.*;
  * ВЫРАЖЕНИЕ:  ПлюсМинус*  EOF ;                             сложение или вычитанием и конец строки      6
  * ПлюсМинус:  УмножДелен  [('+' | '-') УмножДелен ]* ;      подвыражение со сложением или вычитанием    4 + 2
  * УмножДелен: Множит [('*' | '/') Множит ]* ;               подвыражение с умножением или делением      2 * 2
- * Множит:     Функц | Унарн | Число | '(' ВЫРАЖЕНИЕ ')' ;   номер или выражение в скобках               2 + (2 * 2)
+ * Множит:     Функц | Унарн | Число | Перем | '(' ВЫРАЖЕНИЕ ')' ; номер или выражение в скобках         2 + (2 * 2)
+ * Перем:      Имя                                           переменная                                  price * 2
  * Унарн:      '-' Множит                                    унарное выражение                           - 2 + 4
  * Функц:       Имя '(' ВЫРАЖЕНИЕ (, ВЫРАЖЕНИЕ)+)? ')'       функция                                     min(2, 4)
  * </code>
@@ -27,11 +29,14 @@ import static com.github.gribanoveu.libruary.entity.TokenType.*;
  *
  *
  * @author Evgeny Gribanov
- * @version 18.04.2024
+ * @version 17.10.2026
  */
 public class SyntaxEvaluator implements ExpressionEvaluator {
 
     private final FunctionManager functionManager;
+    private double[] argumentStack = new double[16]; // аргументы всех вложенных вызовов функций
+    private int argumentTop;
+    private double[] callArguments = new double[16]; // аргументы текущего вызова, начиная с нуля
 
     public SyntaxEvaluator(FunctionManager functionManager) {
         this.functionManager = functionManager;
@@ -121,8 +126,10 @@ public class SyntaxEvaluator implements ExpressionEvaluator {
                 return -value; // возвращает значение со знаком минус
             }
             case NUMBER -> { // если токен число, то возвращаем число
-                return Double.parseDouble(token.value());
+                return token.number();
             }
+            case VARIABLE -> // значения переменных передаются только в подготовленное выражение
+                    throw new VariableException("Variable is not bound: " + token.value());
             case LEFT_BRACKET -> { // если токен открывающая скобка
                 var value = calculateExpression(buffer); // вычисляем значение внутри
                 token = buffer.next();
@@ -149,20 +156,33 @@ public class SyntaxEvaluator implements ExpressionEvaluator {
             throw new InvalidTokenException(buffer);
         }
 
-        var args = new ArrayList<Double>();
-        buffer.next();
-        if (token.type() != RIGHT_BRACKET) {
-            buffer.back();
-            do { // вычислить выражение внутри
-                args.add(calculateExpression(buffer));
-                token = buffer.next();
-
-                if (token.type() != COMMA && token.type() != RIGHT_BRACKET) {
-                    throw new InvalidTokenException(buffer);
-                }
-
-            } while (token.type() == COMMA);
+        int base = argumentTop; // аргументы вложенных функций кладутся выше и снимаются до возврата
+        try {
+            buffer.next();
+            if (token.type() != RIGHT_BRACKET) {
+                buffer.back();
+                do { // вычислить выражение внутри
+                    var value = calculateExpression(buffer);
+                    if (argumentTop == argumentStack.length) {
+                        argumentStack = Arrays.copyOf(argumentStack, argumentTop * 2);
+                    }
+                    argumentStack[argumentTop++] = value;
+                    token = buffer.next();
+
+                    if (token.type() != COMMA && token.type() != RIGHT_BRACKET) {
+                        throw new InvalidTokenException(buffer);
+                    }
+
+                } while (token.type() == COMMA);
+            }
+            int length = argumentTop - base;
+            if (length > callArguments.length) {
+                callArguments = new double[Math.max(length, callArguments.length * 2)];
+            }
+            System.arraycopy(argumentStack, base, callArguments, 0, length);
+            return functionManager.applyFunction(name, callArguments, length);
+        } finally { // и при ошибке в аргументе или в функции, иначе стек растет на каждом неудачном вызове
+            argumentTop = base;
         }
-        return functionManager.applyFunction(name, args);
     }
 }
@@ -0,0 +1,282 @@
+package com.github.gribanoveu.libruary.parser;
+
+
+import com.github.gribanoveu.libruary.expression.BinaryNode;
+import com.github.gribanoveu.libruary.expression.ChainNode;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.expression.FunctionNode;
+import com.github.gribanoveu.libruary.expression.NegationNode;
+import com.github.gribanoveu.libruary.expression.NumberNode;
+import com.github.gribanoveu.libruary.expression.Operator;
+import com.github.gribanoveu.libruary.expression.VariableNode;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import com.github.gribanoveu.libruary.exception.InvalidTokenException;
+import com.github.gribanoveu.libruary.exception.LimitExceededException;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.RegisteredFunction;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.github.gribanoveu.libruary.entity.TokenType.*;
+
+
+/**
+ * Построитель синтаксического дерева.
+ * <p>
+ * Разбирает токены по тем же правилам, что и {@link SyntaxEvaluator},
+ * но вместо значения возвращает дерево узлов, которое затем вычисляется без повторного разбора.
+ * Числа преобразуются в double один раз, при построении дерева.
+ * Переменные получают номера слотов в порядке первого появления.
+ * Объект хранит найденные переменные, поэтому для каждого выражения создается новый построитель.
+ * Один построитель для нескольких выражений дает им общие слоты переменных.
+ * <p>
+ * Построение идет без рекурсии, тем же автоматом, что и в {@link StackEvaluator}: состояние уровня
+ * вложенности при входе в скобки или вызов функции сохраняется в явном стеке рамок. Скобки не добавляют узлов,
+ * а цепочка унарных минусов превращается в один {@link NegationNode} или ни в один, по четности,
+ * поэтому выражение ((((...)))) или - - - ... 1 любой длины дает дерево из нескольких узлов.
+ * Цепочка операторов одного приоритета длиннее {@link #MAX_BINARY_CHAIN} операндов становится одним
+ * узлом {@link ChainNode}, поэтому {@code x + 1 + 1 + ...} из тысяч слагаемых дает дерево высотой 2.
+ * <p>
+ * Свертка констант, компиляторы и вычисление дерева рекурсивны по высоте дерева, и высокое дерево получается
+ * только из действительно вложенных подвыражений: вызовов функций или скобок с операторами внутри,
+ * например {@code ((x + 1) * 2 + 1) * 2 ...}. Дерево выше {@link #MAX_TREE_HEIGHT} не строится, и вместо
+ * переполнения стека выбрасывается {@link LimitExceededException} с кодом {@link ErrorCode#TREE_HEIGHT_LIMIT}.
+ * Вычисление без подготовки такого ограничения не имеет.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class SyntaxTreeBuilder implements ExpressionParser {
+    /**
+     * Наибольшая высота дерева: с запасом меньше глубины, на которой рекурсивные обходы дерева
+     * переполняют стек потока размером 1 МБ.
+     */
+    public static final int MAX_TREE_HEIGHT = 1000;
+    /**
+     * Наибольшая длина цепочки, которая строится из узлов {@link BinaryNode}. В коротких цепочках каждая
+     * левая часть - отдельный узел, поэтому свертка констант и исключение общих подвыражений работают с ней
+     * как раньше, а длинная цепочка становится {@link ChainNode}.
+     */
+    public static final int MAX_BINARY_CHAIN = 32;
+
+    private final FunctionManager functionManager;
+    private final Map<String, VariableNode> variables = new LinkedHashMap<>();
+    private final Set<String> functions = new LinkedHashSet<>();
+
+    public SyntaxTreeBuilder(FunctionManager functionManager) {
+        this.functionManager = functionManager;
+    }
+
+    /**
+     * Цепочка операторов одного приоритета, которая копится на уровне вложенности.
+     */
+    private static final class Chain {
+        final List<ExpressionNode> operands = new ArrayList<>();
+        final List<Operator> operators = new ArrayList<>();
+        Operator pending; // оператор перед следующим операндом, null в начале цепочки
+        int binaryHeight; // высота цепочки из узлов BinaryNode
+        int operandHeight; // наибольшая высота операнда
+
+        void add(ExpressionNode operand, int height) {
+            if (operands.isEmpty()) {
+                binaryHeight = height;
+            } else {
+                operators.add(pending);
+                binaryHeight = Math.max(binaryHeight, height) + 1;
+            }
+            operands.add(operand);
+            operandHeight = Math.max(operandHeight, height);
+        }
+
+        ExpressionNode build() {
+            if (operands.size() > MAX_BINARY_CHAIN) {
+                return new ChainNode(operands, operators);
+            }
+            var node = operands.get(0);
+            for (int i = 1; i < operands.size(); i++) {
+                node = new BinaryNode(operators.get(i - 1), node, operands.get(i));
+            }
+            return node;
+        }
+
+        int height() {
+            return checkHeight(operands.size() > MAX_BINARY_CHAIN ? operandHeight + 1 : binaryHeight);
+        }
+
+        void clear() {
+            operands.clear();
+            operators.clear();
+            pending = null;
+            binaryHeight = 0;
+            operandHeight = 0;
+        }
+    }
+
+    /**
+     * Состояние внешнего уровня, сохраненное при входе в скобки или вызов функции.
+     */
+    private static final class Frame {
+        final RegisteredFunction function; // null для скобок
+        final String name;
+        final List<ExpressionNode> arguments = new ArrayList<>();
+        int argumentsHeight;
+        final Chain sum;
+        final Chain product;
+        final boolean negate;
+
+        Frame(RegisteredFunction function, String name, Chain sum, Chain product, boolean negate) {
+            this.function = function;
+            this.name = name;
+            this.sum = sum;
+            this.product = product;
+            this.negate = negate;
+        }
+    }
+
+    /**
+     * Получить имена переменных, найденных при построении дерева.
+     * @return имена переменных в порядке слотов
+     */
+    public List<String> getVariables() {
+        return List.copyOf(variables.keySet());
+    }
+
+    /**
+     * Получить имена функций, вызовы которых найдены при построении дерева.
+     * @return имена функций в порядке первого вызова
+     */
+    public List<String> getFunctions() {
+        return List.copyOf(functions);
+    }
+
+    /**
+     * Строим дерево для всего выражения.
+     * Правила:
+     * ВЫРАЖЕНИЕ: ПлюсМинус* EOF ;
+     * ПлюсМинус: УмножДелен [('+' | '-') УмножДелен]* ;
+     * УмножДелен: Множит [('*' | '/') Множит]* ;
+     * Множит: Функц | Унарн | Число | Перем | '(' ВЫРАЖЕНИЕ ')' ;
+     * Функц: Имя '(' ВЫРАЖЕНИЕ (, ВЫРАЖЕНИЕ)* ')' ;
+     * Пустое выражение превращается в число 0.0. Операторы одного приоритета связываются слева направо.
+     * Токен после выражения не читается: буфер остается на нем.
+     */
+    @Override
+    public ExpressionNode buildTree(TokenBuffer buffer) {
+        // состояние текущего уровня вложенности: цепочки суммы и произведения и четность унарных минусов
+        var sum = new Chain();
+        var product = new Chain();
+        var negate = false;
+        var levelStart = true; // пустое выражение допустимо только в начале уровня
+        var frames = new ArrayDeque<Frame>();
+
+        while (true) {
+            // ожидается операнд
+            var token = buffer.next();
+            var type = token.type();
+            ExpressionNode operand;
+            int height = 1;
+            if (type == NUMBER) { // строка разбирается один раз, при построении дерева
+                operand = new NumberNode(token.number());
+            } else if (type == VARIABLE) { // одна и та же переменная всегда читается из одного слота
+                operand = variables.computeIfAbsent(token.value(), name -> new VariableNode(name, variables.size()));
+            } else if (type == OP_MINUS) {
+                negate = !negate;
+                levelStart = false;
+                continue;
+            } else if (type == EOF && levelStart) {
+                buffer.back(); // оставляем EOF, чтобы незакрытая скобка дала ошибку, а не выход за буфер
+                operand = new NumberNode(0.0);
+            } else if (type == LEFT_BRACKET || type == FUNCTION) {
+                RegisteredFunction function = null;
+                if (type == FUNCTION) {
+                    function = functionManager.getFunction(token.value()); // узел хранит ссылку на функцию
+                    if (buffer.next().type() != LEFT_BRACKET) {
+                        throw new InvalidTokenException(buffer);
+                    }
+                }
+                frames.push(new Frame(function, token.value(), sum, product, negate));
+                sum = new Chain();
+                product = new Chain();
+                negate = false;
+                levelStart = true;
+                continue;
+            } else {
+                throw new InvalidTokenException(buffer);
+            }
+            levelStart = false;
+
+            // операнд получен, ожидается оператор; закрытие скобки или вызова дает новый операнд
+            while (true) {
+                if (negate) { // минус к минусу сокращается: -(-x) равно x до бита
+                    if (operand instanceof NegationNode negation) {
+                        operand = negation.operand();
+                        height--;
+                    } else {
+                        operand = new NegationNode(operand);
+                        height = checkHeight(height + 1);
+                    }
+                    negate = false;
+                }
+                product.add(operand, height);
+                token = buffer.next();
+                type = token.type();
+                if (type == OP_MULTIPLICATION || type == OP_DIVISION) {
+                    product.pending = type == OP_MULTIPLICATION ? Operator.MULTIPLICATION : Operator.DIVISION;
+                    break;
+                }
+                sum.add(product.build(), product.height());
+                product.clear();
+                if (type == OP_PLUS || type == OP_MINUS) {
+                    sum.pending = type == OP_PLUS ? Operator.PLUS : Operator.MINUS;
+                    break;
+                }
+                // выражение уровня закончилось, токен проверяет та рамка, в которой оно записано
+                var value = sum.build();
+                var valueHeight = sum.height();
+                sum.clear();
+                if (frames.isEmpty()) {
+                    buffer.back();
+                    return value;
+                }
+                var frame = frames.peek();
+                if (frame.function != null) {
+                    frame.arguments.add(value);
+                    frame.argumentsHeight = Math.max(frame.argumentsHeight, valueHeight);
+                    if (type == COMMA) { // следующий аргумент строится на том же уровне с чистого состояния
+                        levelStart = true;
+                        break;
+                    }
+                }
+                if (type != RIGHT_BRACKET) {
+                    throw new InvalidTokenException(buffer);
+                }
+                frames.pop();
+                operand = value;
+                height = valueHeight;
+                if (frame.function != null) {
+                    functions.add(frame.name);
+                    operand = new FunctionNode(frame.function, frame.arguments);
+                    height = checkHeight(frame.argumentsHeight + 1);
+                }
+                // восстановить состояние внешнего уровня, скобки или вызов становятся операндом
+                sum = frame.sum;
+                product = frame.product;
+                negate = frame.negate;
+            }
+        }
+    }
+
+    private static int checkHeight(int height) {
+        if (height > MAX_TREE_HEIGHT) {
+            throw new LimitExceededException(ErrorCode.TREE_HEIGHT_LIMIT, MAX_TREE_HEIGHT);
+        }
+        return height;
+    }
+}
@@ -0,0 +1,295 @@
+package com.github.gribanoveu.libruary.sheet;
+
+import com.github.gribanoveu.libruary.calculator.Calculator;
+import com.github.gribanoveu.libruary.exception.CyclicReferenceException;
+import com.github.gribanoveu.libruary.exception.VariableException;
+import com.github.gribanoveu.libruary.expression.PreparedExpression;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Набор именованных формул, ссылающихся друг на друга, как ячейки электронной таблицы.
+ * <p>
+ * Формула ячейки разбирается калькулятором один раз, переменные формулы - ссылки на другие ячейки:
+ * <pre>
+ * sheet.setValue("price", 10);
+ * sheet.setFormula("total", "price * qty - discount");
+ * </pre>
+ * Лист хранит граф зависимостей и не допускает циклов. Изменение ячейки только помечает ее
+ * и все зависящие от нее ячейки как устаревшие; при чтении пересчитываются только они,
+ * в топологическом порядке по уровням: ячейки одного уровня друг от друга не зависят
+ * и вычисляются параллельно в пуле потоков.
+ * <p>
+ * Ошибка вычисления формулы сохраняется в ячейке и выбрасывается при чтении этой ячейки
+ * и всех ячеек, которые от нее зависят.
+ * <p>
+ * Изменение листа не потокобезопасно: изменять и читать лист следует из одного потока
+ * или с внешней синхронизацией. Параллельность используется только внутри пересчета.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class FormulaSheet {
+    /**
+     * Уровни меньше этого размера пересчитываются в текущем потоке: задачи пула не окупаются.
+     */
+    static final int PARALLEL_THRESHOLD = 64;
+
+    private final Calculator calculator;
+    private final ForkJoinPool pool;
+    private final Map<String, Cell> cells = new HashMap<>();
+    private final List<Cell> dirty = new ArrayList<>();
+
+    public FormulaSheet(Calculator calculator) {
+        this(calculator, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param calculator калькулятор, которым разбираются формулы
+     * @param pool пул потоков для параллельного пересчета независимых ячеек
+     */
+    public FormulaSheet(Calculator calculator, ForkJoinPool pool) {
+        this.calculator = calculator;
+        this.pool = pool;
+    }
+
+    /**
+     * Задать значение входной ячейки. Формула ячейки, если была, удаляется.
+     * @param name имя ячейки
+     * @param value значение
+     */
+    public void setValue(String name, double value) {
+        var cell = cell(name);
+        replaceDependencies(cell, List.of());
+        cell.formula = null;
+        cell.value = value;
+        markDirty(cell);
+    }
+
+    /**
+     * Задать формулу ячейки. Переменные формулы - имена других ячеек, их можно определить позже.
+     * @param name имя ячейки
+     * @param formula формула
+     * @throws CyclicReferenceException если формула прямо или через другие ячейки ссылается на саму ячейку,
+     *                                  в этом случае значения и формулы ячеек не меняются
+     */
+    public void setFormula(String name, String formula) {
+        var prepared = calculator.prepare(formula);
+        var cell = cell(name);
+        var dependencies = new ArrayList<Cell>(prepared.getVariables().size());
+        for (var variable : prepared.getVariables()) {
+            dependencies.add(cell(variable));
+        }
+        checkCycle(cell, dependencies);
+        replaceDependencies(cell, dependencies);
+        cell.formula = prepared;
+        cell.slots = new double[dependencies.size()];
+        markDirty(cell);
+    }
+
+    /**
+     * Получить значение ячейки, предварительно пересчитав устаревшие ячейки.
+     * @param name имя ячейки
+     * @return значение ячейки
+     */
+    public double getValue(String name) {
+        var cell = cells.get(name);
+        if (cell == null) {
+            throw new VariableException("Cell not found: " + name);
+        }
+        recalculate();
+        if (cell.error != null) {
+            throw cell.error;
+        }
+        return cell.value;
+    }
+
+    /**
+     * Получить имена ячеек, на которые напрямую ссылается формула ячейки.
+     * @param name имя ячейки
+     * @return имена ячеек в порядке слотов формулы
+     */
+    public List<String> getDependencies(String name) {
+        var cell = cells.get(name);
+        if (cell == null) {
+            throw new VariableException("Cell not found: " + name);
+        }
+        return cell.dependencies.stream().map(dependency -> dependency.name).toList();
+    }
+
+    /**
+     * Пересчитать устаревшие ячейки.
+     * Порядок строится алгоритмом Кана по устаревшим ячейкам: уровень составляют ячейки,
+     * все устаревшие зависимости которых уже пересчитаны.
+     * @return количество пересчитанных ячеек
+     */
+    public int recalculate() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        var level = new ArrayList<Cell>();
+        for (var cell : dirty) {
+            cell.pending = 0;
+        }
+        for (var cell : dirty) {
+            for (var dependent : cell.dependents) {
+                if (dependent.dirty) {
+                    dependent.pending++;
+                }
+            }
+        }
+        for (var cell : dirty) {
+            if (cell.pending == 0) {
+                level.add(cell);
+            }
+        }
+        var count = 0;
+        while (!level.isEmpty()) {
+            evaluate(level);
+            count += level.size();
+            var next = new ArrayList<Cell>();
+            for (var cell : level) {
+                cell.dirty = false;
+                for (var dependent : cell.dependents) {
+                    if (dependent.dirty && --dependent.pending == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            level = next;
+        }
+        dirty.clear();
+        return count;
+    }
+
+    private void evaluate(List<Cell> level) {
+        if (level.size() < PARALLEL_THRESHOLD) {
+            for (var cell : level) {
+                cell.evaluate();
+            }
+        } else {
+            pool.invoke(new LevelTask(level, 0, level.size()));
+        }
+    }
+
+    private Cell cell(String name) {
+        return cells.computeIfAbsent(name, Cell::new);
+    }
+
+    /**
+     * Проверить, что ячейка не достижима из новых зависимостей по ссылкам формул.
+     */
+    private static void checkCycle(Cell cell, List<Cell> dependencies) {
+        var visited = new HashSet<Cell>();
+        var stack = new ArrayDeque<>(dependencies);
+        while (!stack.isEmpty()) {
+            var current = stack.pop();
+            if (current == cell) {
+                throw new CyclicReferenceException("Cyclic reference: cell %s depends on itself".formatted(cell.name));
+            }
+            if (visited.add(current)) {
+                stack.addAll(current.dependencies);
+            }
+        }
+    }
+
+    private static void replaceDependencies(Cell cell, List<Cell> dependencies) {
+        for (var dependency : cell.dependencies) {
+            dependency.dependents.remove(cell);
+        }
+        cell.dependencies = dependencies;
+        for (var dependency : dependencies) {
+            dependency.dependents.add(cell);
+        }
+    }
+
+    private void markDirty(Cell cell) {
+        var stack = new ArrayDeque<Cell>();
+        stack.push(cell);
+        while (!stack.isEmpty()) {
+            var current = stack.pop();
+            if (!current.dirty) {
+                current.dirty = true;
+                dirty.add(current);
+                stack.addAll(current.dependents);
+            }
+        }
+    }
+
+    /**
+     * Ячейка листа.
+     */
+    private static final class Cell {
+        private final String name;
+        private final Set<Cell> dependents = new LinkedHashSet<>();
+        private List<Cell> dependencies = List.of();
+        private PreparedExpression formula; // null для входной ячейки
+        private double[] slots;
+        private boolean dirty;
+        private int pending; // количество устаревших зависимостей, еще не пересчитанных в текущем пересчете
+        private double value;
+        private RuntimeException error;
+
+        private Cell(String name) {
+            this.name = name;
+            this.error = new VariableException("Cell not defined: " + name); // до первого setValue или setFormula
+        }
+
+        private void evaluate() {
+            error = null;
+            if (formula == null) {
+                return;
+            }
+            for (int slot = 0; slot < dependencies.size(); slot++) {
+                var dependency = dependencies.get(slot);
+                if (dependency.error != null) { // ошибка распространяется на зависимые ячейки
+                    error = dependency.error;
+                    return;
+                }
+                slots[slot] = dependency.value;
+            }
+            try {
+                value = formula.evaluate(slots);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+    }
+
+    /**
+     * Параллельный пересчет ячеек одного уровня.
+     */
+    private static final class LevelTask extends RecursiveAction {
+        private static final int MIN_CHUNK = 16;
+
+        private final List<Cell> level;
+        private final int start;
+        private final int end;
+
+        private LevelTask(List<Cell> level, int start, int end) {
+            this.level = level;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > MIN_CHUNK) {
+                var middle = (start + end) >>> 1;
+                invokeAll(new LevelTask(level, start, middle), new LevelTask(level, middle, end));
+                return;
+            }
+            for (int index = start; index < end; index++) {
+                level.get(index).evaluate();
+            }
+        }
+    }
+}
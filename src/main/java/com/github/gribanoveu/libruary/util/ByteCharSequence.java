@@ -0,0 +1,59 @@
+package com.github.gribanoveu.libruary.util;
+
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Представление части {@link ByteBuffer} в виде {@link CharSequence} без копирования и декодирования.
+ * Каждый байт считается отдельным символом (ASCII / ISO-8859-1), поэтому выражения из файла
+ * разбираются прямо из байтов, без создания строки на каждую строку файла.
+ * Объект переиспользуется: {@link #wrap(ByteBuffer, int, int)} переключает его на следующий фрагмент.
+ * Не потокобезопасен.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class ByteCharSequence implements CharSequence {
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    /**
+     * Переключиться на фрагмент буфера.
+     * @param buffer буфер с данными, позиция и лимит буфера не используются
+     * @param start абсолютная позиция первого байта
+     * @param end абсолютная позиция после последнего байта
+     * @return этот же объект
+     */
+    public ByteCharSequence wrap(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.offset = start;
+        this.length = end - start;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new ByteCharSequence().wrap(buffer, offset + start, offset + end);
+    }
+
+    @Override
+    public String toString() {
+        var bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
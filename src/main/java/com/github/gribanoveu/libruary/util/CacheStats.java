@@ -0,0 +1,23 @@
+package com.github.gribanoveu.libruary.util;
+
+/**
+ * Снимок счетчиков кэша выражений или кэша результатов функции.
+ * @param hitCount количество найденных в кэше выражений или результатов
+ * @param missCount количество выражений, которые пришлось разбирать, или вызовов функции
+ * @param evictionCount количество вытесненных записей
+ * @param size текущее количество записей в кэше
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public record CacheStats(long hitCount, long missCount, long evictionCount, int size) {
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0);
+
+    /**
+     * Доля обращений, обслуженных кэшем.
+     * @return значение от 0.0 до 1.0
+     */
+    public double hitRate() {
+        var requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+    }
+}
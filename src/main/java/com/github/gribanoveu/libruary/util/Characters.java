@@ -0,0 +1,23 @@
+package com.github.gribanoveu.libruary.util;
+
+
+/**
+ * Классы символов, общие для токенизаторов, кэша выражений, поиска функций и сообщений об ошибках.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class Characters {
+
+    private Characters() {
+    }
+
+    /**
+     * Те же символы, что и \s в регулярном выражении {@link com.github.gribanoveu.libruary.parser.ExpressionTokenizer}.
+     * @param character символ
+     * @return true, если символ пробельный и при разборе пропускается
+     */
+    public static boolean isWhitespace(char character) {
+        return character == ' ' || character == '\t' || character == '\n'
+                || character == '\u000B' || character == '\f' || character == '\r';
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.gribanoveu.libruary.util;
+
+
+import com.github.gribanoveu.libruary.expression.PreparedExpression;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Ограниченный кэш подготовленных выражений.
+ * <p>
+ * Чтение идет из {@link ConcurrentHashMap} без блокировок: при попадании у записи только выставляется флаг обращения.
+ * Добавление и вытеснение выполняются под одной блокировкой по алгоритму CLOCK (приближение LRU):
+ * стрелка обходит кольцо записей, снимает флаг обращения у недавно использованных и вытесняет первую запись без флага.
+ * <p>
+ * Размер кэша ограничивается количеством записей и суммарным весом, вес записи - длина ключа.
+ * Ключом служит выражение без пробельных символов, поэтому "2 + 2" и "2+2" - одна запись.
+ *
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class ExpressionCache {
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ConcurrentHashMap<String, Entry> entries;
+
+    private final Object evictionLock = new Object();
+    private Entry hand; // самая старая запись кольца, защищено evictionLock
+    private long weight; // защищено evictionLock
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public ExpressionCache(int maxEntries, long maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1 << 16));
+    }
+
+    /**
+     * Получить выражение из кэша или подготовить его и сохранить.
+     * Если выражение не удалось подготовить, исключение пробрасывается и в кэш ничего не попадает.
+     * @param expression исходное выражение
+     * @param compiler функция подготовки выражения при промахе
+     * @return подготовленное выражение
+     */
+    public PreparedExpression get(String expression, Function<String, PreparedExpression> compiler) {
+        var key = normalize(expression);
+        var entry = entries.get(key);
+        if (entry != null) {
+            if (!entry.referenced) { // не пишем лишний раз в общую запись
+                entry.referenced = true;
+            }
+            hitCount.increment();
+            return entry.value;
+        }
+        missCount.increment();
+        return add(key, compiler.apply(expression)); // разбор идет вне блокировки
+    }
+
+    private PreparedExpression add(String key, PreparedExpression value) {
+        if (key.length() > maxWeight) { // запись никогда не поместится в кэш
+            return value;
+        }
+        synchronized (evictionLock) {
+            var existing = entries.get(key);
+            if (existing != null) { // другой поток успел подготовить то же выражение
+                return existing.value;
+            }
+            var entry = new Entry(key, value);
+            if (hand == null) {
+                entry.next = entry;
+                entry.previous = entry;
+                hand = entry;
+            } else { // новая запись встает перед стрелкой, то есть будет проверена последней
+                entry.next = hand;
+                entry.previous = hand.previous;
+                hand.previous.next = entry;
+                hand.previous = entry;
+            }
+            entries.put(key, entry);
+            weight += key.length();
+            while (entries.size() > maxEntries || weight > maxWeight) {
+                evict();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Вытеснить одну запись, вызывается под evictionLock.
+     */
+    private void evict() {
+        while (hand.referenced) { // даем недавно использованным записям второй шанс
+            hand.referenced = false;
+            hand = hand.next;
+        }
+        unlink(hand);
+        evictionCount.increment();
+    }
+
+    /**
+     * Удалить запись из кольца и карты, вызывается под evictionLock.
+     */
+    private void unlink(Entry entry) {
+        if (entry.next == entry) {
+            hand = null;
+        } else {
+            entry.previous.next = entry.next;
+            entry.next.previous = entry.previous;
+            if (hand == entry) {
+                hand = entry.next;
+            }
+        }
+        entries.remove(entry.key);
+        weight -= entry.key.length();
+    }
+
+    /**
+     * Удалить выражение из кэша.
+     * @param expression исходное выражение
+     */
+    public void remove(String expression) {
+        var key = normalize(expression);
+        synchronized (evictionLock) {
+            var entry = entries.get(key);
+            if (entry != null) {
+                unlink(entry);
+            }
+        }
+    }
+
+    /**
+     * Удалить из кэша все выражения, удовлетворяющие условию, например зависящие от замененной функции.
+     * @param filter условие удаления
+     * @return количество удаленных выражений
+     */
+    public int removeIf(Predicate<PreparedExpression> filter) {
+        synchronized (evictionLock) {
+            var removed = 0;
+            for (var entry : entries.values()) {
+                if (filter.test(entry.value)) {
+                    unlink(entry);
+                    removed++;
+                }
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Получить счетчики кэша.
+     * @return снимок счетчиков
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), entries.size());
+    }
+
+    /**
+     * Убрать из выражения пробельные символы так же, как это делает токенизатор.
+     * Если пробелов нет, возвращается та же строка без копирования.
+     * @param expression исходное выражение
+     * @return ключ кэша
+     */
+    static String normalize(String expression) {
+        int index = 0;
+        while (index < expression.length() && !Characters.isWhitespace(expression.charAt(index))) {
+            index++;
+        }
+        if (index == expression.length()) {
+            return expression;
+        }
+        var keyBuilder = new StringBuilder(expression.length());
+        keyBuilder.append(expression, 0, index);
+        for (; index < expression.length(); index++) {
+            var currentChar = expression.charAt(index);
+            if (!Characters.isWhitespace(currentChar)) {
+                keyBuilder.append(currentChar);
+            }
+        }
+        return keyBuilder.toString();
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final PreparedExpression value;
+        private volatile boolean referenced = true; // новая запись переживет один оборот стрелки
+        private Entry next;
+        private Entry previous;
+
+        private Entry(String key, PreparedExpression value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.gribanoveu.libruary.util;
+
+
+import com.github.gribanoveu.libruary.entity.MemoizationPolicy;
+import com.github.gribanoveu.libruary.function.CalculateFunction;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш результатов чистой функции по набору аргументов.
+ * <p>
+ * Таблица прямого отображения: набор аргументов по хэшу попадает ровно в одну ячейку, и новая запись
+ * вытесняет прежнюю. Ключ - сами аргументы в записи, поэтому при попадании нет ни упаковки, ни выделения памяти:
+ * одно чтение ячейки и сравнение битов аргументов. Запись неизменяема и публикуется атомарной заменой ячейки,
+ * поэтому чтение идет без блокировок, а одновременные промахи по одной ячейке просто оставляют последнюю запись.
+ * <p>
+ * Аргументы сравниваются по {@link Double#doubleToLongBits(double)}: все NaN равны между собой, а 0.0 и -0.0 различны,
+ * потому что функция может вернуть для них разные значения, например {@code 1 / x}.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class FunctionCache {
+    private final AtomicReferenceArray<Entry> table;
+    private final long ttlNanos;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public FunctionCache(MemoizationPolicy policy) {
+        this.table = new AtomicReferenceArray<>(policy.maxEntries());
+        this.ttlNanos = policy.ttlNanos();
+    }
+
+    /**
+     * Обернуть чистую функцию так, чтобы ее результаты сохранялись в этом кэше.
+     * Обертка реализует тот же интерфейс вызова, что и функция.
+     * @param function функция, результат которой зависит только от аргументов
+     * @return функция с кэшем
+     * @throws IllegalArgumentException для асинхронной функции
+     */
+    public CalculateFunction memoize(CalculateFunction function) {
+        return MemoizedFunctions.wrap(function, this);
+    }
+
+    /**
+     * Сохраненный результат.
+     */
+    static final class Entry {
+        final double[] args;
+        final double value;
+        final long expiresAt;
+
+        Entry(double[] args, double value, long expiresAt) {
+            this.args = args;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Найти результат функции одного аргумента.
+     * @return запись или null при промахе
+     */
+    Entry find(double a) {
+        var entry = table.get(index(hash(1, a)));
+        if (entry != null && entry.args.length == 1 && same(entry.args[0], a) && isAlive(entry)) {
+            hitCount.increment();
+            return entry;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Найти результат функции двух аргументов.
+     * @return запись или null при промахе
+     */
+    Entry find(double a, double b) {
+        var entry = table.get(index(hash(hash(2, a), b)));
+        if (entry != null && entry.args.length == 2 && same(entry.args[0], a) && same(entry.args[1], b)
+                && isAlive(entry)) {
+            hitCount.increment();
+            return entry;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Найти результат функции трех аргументов.
+     * @return запись или null при промахе
+     */
+    Entry find(double a, double b, double c) {
+        var entry = table.get(index(hash(hash(hash(3, a), b), c)));
+        if (entry != null && entry.args.length == 3 && same(entry.args[0], a) && same(entry.args[1], b)
+                && same(entry.args[2], c) && isAlive(entry)) {
+            hitCount.increment();
+            return entry;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Найти результат функции с произвольным количеством аргументов.
+     * @param args аргументы, значимы первые {@code length} элементов
+     * @return запись или null при промахе
+     */
+    Entry find(double[] args, int length) {
+        var entry = table.get(index(hash(args, length)));
+        if (entry != null && entry.args.length == length && same(entry.args, args, length) && isAlive(entry)) {
+            hitCount.increment();
+            return entry;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Сохранить результат.
+     * @param args аргументы, массив принадлежит кэшу и не должен меняться
+     * @param value результат функции
+     */
+    void put(double[] args, double value) {
+        var expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+        var previous = table.getAndSet(index(hash(args, args.length)), new Entry(args, value, expiresAt));
+        if (previous != null && isAlive(previous)
+                && (previous.args.length != args.length || !same(previous.args, args, args.length))) {
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * Снимок счетчиков. Размер считается обходом таблицы, без истекших записей.
+     * @return счетчики попаданий, промахов и вытеснений
+     */
+    public CacheStats getStats() {
+        var size = 0;
+        for (int i = 0; i < table.length(); i++) {
+            var entry = table.get(i);
+            if (entry != null && isAlive(entry)) {
+                size++;
+            }
+        }
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), size);
+    }
+
+    /**
+     * Удалить все результаты, например после изменения данных, от которых зависит функция.
+     * Счетчики не сбрасываются.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+    }
+
+    private boolean isAlive(Entry entry) {
+        return ttlNanos == 0 || System.nanoTime() - entry.expiresAt < 0;
+    }
+
+    /**
+     * Номер ячейки без деления: старшие 32 бита хэша, умноженные на размер таблицы.
+     */
+    private int index(long hash) {
+        hash ^= hash >>> 33; // перемешивание из MurmurHash3
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) (((hash >>> 32) * table.length()) >>> 32);
+    }
+
+    private static long hash(double[] args, int length) {
+        long hash = length;
+        for (int i = 0; i < length; i++) {
+            hash = hash(hash, args[i]);
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, double arg) {
+        return hash * 0x9e3779b97f4a7c15L + Double.doubleToLongBits(arg);
+    }
+
+    private static boolean same(double left, double right) {
+        return Double.doubleToLongBits(left) == Double.doubleToLongBits(right);
+    }
+
+    private static boolean same(double[] left, double[] right, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!same(left[i], right[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
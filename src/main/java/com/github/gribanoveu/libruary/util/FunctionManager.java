@@ -1,31 +1,99 @@
 package com.github.gribanoveu.libruary.util;
 
 
+import com.github.gribanoveu.libruary.entity.MemoizationPolicy;
+import com.github.gribanoveu.libruary.exception.FunctionException;
 import com.github.gribanoveu.libruary.function.CalculateFunction;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Менеджер для управления всеми функциями.
+ * <p>
+ * Функции хранятся в неизменяемом снимке {@link FunctionRegistry}. Чтение идет из текущего снимка без блокировок,
+ * а регистрация создает новый снимок и атомарно подменяет ссылку на него (копирование при записи),
+ * поэтому функции можно добавлять и заменять во время вычислений в других потоках:
+ * начатые вычисления видят старый снимок или новый, но никогда не видят таблицу в промежуточном состоянии.
  * @author Evgeny Gribanov
- * @version 16.04.2024
+ * @version 17.10.2026
  */
 public class FunctionManager {
-    private final Map<String, CalculateFunction> functions;
+    private final AtomicReference<FunctionRegistry> registry;
 
     public FunctionManager() {
-        functions = new HashMap<>();
+        this(FunctionRegistry.EMPTY);
+    }
+
+    private FunctionManager(FunctionRegistry registry) {
+        this.registry = new AtomicReference<>(registry);
     }
 
     /**
      * Зарегистрировать функцию.
+     * Способ вызова выбирается здесь же: функции, реализующие {@link com.github.gribanoveu.libruary.function.Function1},
+     * {@link com.github.gribanoveu.libruary.function.Function2}, {@link com.github.gribanoveu.libruary.function.Function3}
+     * или {@link com.github.gribanoveu.libruary.function.VarargFunction}, вызываются без упаковки аргументов.
      * @param name имя функции, по которому она будет доступна для расчетов.
      * @param function реализация функции.
      */
     public void registerFunction(String name, CalculateFunction function) {
-        functions.put(name, function);
+        registerFunction(name, function, false);
+    }
+
+    /**
+     * Зарегистрировать или заменить функцию с признаком чистоты.
+     * Вызовы чистой функции, все аргументы которой константы, вычисляются один раз при подготовке выражения.
+     * @param name имя функции, по которому она будет доступна для расчетов.
+     * @param function реализация функции.
+     * @param pure функция зависит только от аргументов и не имеет побочных эффектов.
+     */
+    public void registerFunction(String name, CalculateFunction function, boolean pure) {
+        registerFunction(name, function, pure, null);
+    }
+
+    /**
+     * Зарегистрировать или заменить чистую функцию, результаты которой сохраняются в кэше по набору аргументов.
+     * Повторный вызов с теми же аргументами возвращает сохраненный результат без вызова функции.
+     * @param name имя функции, по которому она будет доступна для расчетов.
+     * @param function реализация функции.
+     * @param policy размер кэша и время жизни результатов.
+     * @return кэш функции для статистики и очистки
+     */
+    public FunctionCache registerFunction(String name, CalculateFunction function, MemoizationPolicy policy) {
+        var cache = new FunctionCache(policy);
+        registerFunction(name, cache.memoize(function), true, cache);
+        return cache;
+    }
+
+    /**
+     * Зарегистрировать или заменить функцию, сохранив кэш ее результатов,
+     * например при обертывании уже зарегистрированной функции.
+     * @param name имя функции, по которому она будет доступна для расчетов.
+     * @param function реализация функции.
+     * @param pure функция зависит только от аргументов и не имеет побочных эффектов.
+     * @param cache кэш результатов, который заполняет функция, или null
+     */
+    public void registerFunction(String name, CalculateFunction function, boolean pure, FunctionCache cache) {
+        var registered = new RegisteredFunction(name, function, pure, cache);
+        registry.updateAndGet(current -> current.with(registered));
+    }
+
+    /**
+     * Создать независимую копию менеджера с текущим снимком функций.
+     * Последующие регистрации в копии и в исходном менеджере не влияют друг на друга.
+     * @return копия менеджера
+     */
+    public FunctionManager copy() {
+        return new FunctionManager(registry.get());
+    }
+
+    /**
+     * Получить текущий снимок функций.
+     * @return неизменяемый снимок
+     */
+    public FunctionRegistry getRegistry() {
+        return registry.get();
     }
 
     /**
@@ -34,7 +102,32 @@ public class FunctionManager {
      * @return результат проверки.
      */
     public boolean isFunctionExist(String name) {
-        return functions.containsKey(name);
+        return registry.get().find(name) != null;
+    }
+
+    /**
+     * Проверить, существует ли функция, имя которой записано в части выражения.
+     * Не создает строку с именем; пробелы внутри имени игнорируются, как и при обычном разборе.
+     * @param expression выражение
+     * @param start позиция начала имени
+     * @param end позиция после конца имени
+     * @return результат проверки.
+     */
+    public boolean isFunctionExist(CharSequence expression, int start, int end) {
+        return registry.get().find(expression, start, end) != null;
+    }
+
+    /**
+     * Получить зарегистрированную функцию.
+     * @param name имя функции, по которому она будет доступна для расчетов.
+     * @return функция с выбранным способом вызова.
+     */
+    public RegisteredFunction getFunction(String name) {
+        var function = registry.get().find(name);
+        if (function == null) {
+            throw new FunctionException("Function not found: " + name);
+        }
+        return function;
     }
 
     /**
@@ -44,6 +137,17 @@ public class FunctionManager {
      * @return результат вычисления функции.
      */
     public double applyFunction(String name, List<Double> args) {
-        return functions.get(name).apply(args);
+        return getFunction(name).getFunction().apply(args);
+    }
+
+    /**
+     * Применить функцию без упаковки аргументов.
+     * @param name имя функции, по которому она будет доступна для расчетов.
+     * @param args аргументы, значимы первые {@code length} элементов.
+     * @param length количество аргументов.
+     * @return результат вычисления функции.
+     */
+    public double applyFunction(String name, double[] args, int length) {
+        return getFunction(name).invoke(args, length);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package com.github.gribanoveu.libruary.util;
+
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Неизменяемый снимок зарегистрированных функций.
+ * <p>
+ * Снимок никогда не меняется после создания, поэтому читается из любого количества потоков без блокировок.
+ * Регистрация функции создает новый снимок с копией таблицы ({@link #with(RegisteredFunction)}),
+ * а {@link FunctionManager} атомарно подменяет ссылку на него. Для поиска по части выражения функции
+ * дополнительно разложены в собственную хеш-таблицу с открытой адресацией и линейным пробированием:
+ * хеш имени считается прямо по символам выражения, пропуская пробелы, поэтому поиск не создает строку
+ * и сравнивает символы только с именами из той же цепочки проб, а не со всеми зарегистрированными.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class FunctionRegistry {
+    static final FunctionRegistry EMPTY = new FunctionRegistry(Map.of());
+
+    private final Map<String, RegisteredFunction> functions;
+    // таблица для поиска по части выражения: размер степень двойки, заполнена не больше чем наполовину
+    private final String[] names;
+    private final int[] hashes;
+    private final RegisteredFunction[] values;
+    private final int mask;
+
+    private FunctionRegistry(Map<String, RegisteredFunction> functions) {
+        this.functions = Map.copyOf(functions);
+        var capacity = Integer.highestOneBit(Math.max(this.functions.size(), 1) * 4 - 1);
+        this.names = new String[capacity];
+        this.hashes = new int[capacity];
+        this.values = new RegisteredFunction[capacity];
+        this.mask = capacity - 1;
+        for (var function : this.functions.values()) {
+            var name = function.getName();
+            var hash = hash(name, 0, name.length());
+            var slot = mix(hash) & mask;
+            while (names[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = name;
+            hashes[slot] = hash;
+            values[slot] = function;
+        }
+    }
+
+    /**
+     * Создать новый снимок, в котором добавлена или заменена функция. Текущий снимок не меняется.
+     * @param function зарегистрированная функция
+     * @return новый снимок
+     */
+    FunctionRegistry with(RegisteredFunction function) {
+        var copy = new HashMap<>(functions);
+        copy.put(function.getName(), function);
+        return new FunctionRegistry(copy);
+    }
+
+    /**
+     * Найти функцию по имени.
+     * @param name имя функции
+     * @return функция или null, если она не зарегистрирована
+     */
+    public RegisteredFunction find(String name) {
+        return functions.get(name);
+    }
+
+    /**
+     * Найти функцию, имя которой записано в части выражения, не создавая строку с именем.
+     * Пробелы внутри имени игнорируются, как и при обычном разборе.
+     * @param expression выражение
+     * @param start позиция начала имени
+     * @param end позиция после конца имени
+     * @return функция или null, если она не зарегистрирована
+     */
+    public RegisteredFunction find(CharSequence expression, int start, int end) {
+        var hash = hash(expression, start, end);
+        for (int slot = mix(hash) & mask; names[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && regionMatches(names[slot], expression, start, end)) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return имена всех функций снимка
+     */
+    public Set<String> getNames() {
+        return functions.keySet();
+    }
+
+    /**
+     * Хеш имени по тем же правилам, что и {@link String#hashCode()}, но без пробельных символов.
+     */
+    private static int hash(CharSequence expression, int start, int end) {
+        int hash = 0;
+        for (int index = start; index < end; index++) {
+            var character = expression.charAt(index);
+            if (!Characters.isWhitespace(character)) {
+                hash = 31 * hash + character;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Перемешать старшие биты хеша с младшими, по которым выбирается ячейка.
+     */
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionMatches(String name, CharSequence expression, int start, int end) {
+        int nameIndex = 0;
+        for (int index = start; index < end; index++) {
+            var character = expression.charAt(index);
+            if (Characters.isWhitespace(character)) {
+                continue;
+            }
+            if (nameIndex == name.length() || name.charAt(nameIndex++) != character) {
+                return false;
+            }
+        }
+        return nameIndex == name.length();
+    }
+}
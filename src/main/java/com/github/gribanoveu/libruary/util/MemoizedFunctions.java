@@ -0,0 +1,92 @@
+package com.github.gribanoveu.libruary.util;
+
+
+import com.github.gribanoveu.libruary.function.AsyncCalculateFunction;
+import com.github.gribanoveu.libruary.function.CalculateFunction;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.function.VarargFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Обертки чистых функций, которые сохраняют результаты в {@link FunctionCache}.
+ * <p>
+ * Обертка реализует тот же интерфейс, что и функция, поэтому все способы вычисления вызывают ее
+ * как обычную функцию с примитивными аргументами. Функция, реализующая только {@link CalculateFunction},
+ * оборачивается в {@link VarargFunction}: при попадании аргументы не упаковываются в список.
+ * Пакетная реализация функции не используется: при пакетном вычислении каждая строка проходит через кэш.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+final class MemoizedFunctions {
+
+    private MemoizedFunctions() {
+    }
+
+    /**
+     * Обернуть функцию в обертку того же вида.
+     * @throws IllegalArgumentException для асинхронной функции: ее результат еще не готов в момент вызова
+     */
+    static CalculateFunction wrap(CalculateFunction function, FunctionCache cache) {
+        if (function instanceof AsyncCalculateFunction) {
+            throw new IllegalArgumentException("Async function cannot be memoized");
+        }
+        if (function instanceof Function1 f) {
+            return (Function1) a -> {
+                var entry = cache.find(a);
+                if (entry != null) {
+                    return entry.value;
+                }
+                var value = f.apply(a);
+                cache.put(new double[]{a}, value);
+                return value;
+            };
+        } else if (function instanceof Function2 f) {
+            return (Function2) (a, b) -> {
+                var entry = cache.find(a, b);
+                if (entry != null) {
+                    return entry.value;
+                }
+                var value = f.apply(a, b);
+                cache.put(new double[]{a, b}, value);
+                return value;
+            };
+        } else if (function instanceof Function3 f) {
+            return (Function3) (a, b, c) -> {
+                var entry = cache.find(a, b, c);
+                if (entry != null) {
+                    return entry.value;
+                }
+                var value = f.apply(a, b, c);
+                cache.put(new double[]{a, b, c}, value);
+                return value;
+            };
+        } else if (function instanceof VarargFunction f) {
+            return (VarargFunction) (args, length) -> {
+                var entry = cache.find(args, length);
+                if (entry != null) {
+                    return entry.value;
+                }
+                var value = f.apply(args, length);
+                cache.put(Arrays.copyOf(args, length), value); // массив аргументов переиспользуется
+                return value;
+            };
+        }
+        return (VarargFunction) (args, length) -> {
+            var entry = cache.find(args, length);
+            if (entry != null) {
+                return entry.value;
+            }
+            var list = new ArrayList<Double>(length);
+            for (int i = 0; i < length; i++) {
+                list.add(args[i]);
+            }
+            var value = function.apply(list);
+            cache.put(Arrays.copyOf(args, length), value);
+            return value;
+        };
+    }
+}
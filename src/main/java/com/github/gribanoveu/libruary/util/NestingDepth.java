@@ -0,0 +1,74 @@
+package com.github.gribanoveu.libruary.util;
+
+import com.github.gribanoveu.libruary.entity.Token;
+import com.github.gribanoveu.libruary.entity.TokenType;
+
+import java.util.List;
+
+/**
+ * Счетчик вложенности выражения для ограничения {@link com.github.gribanoveu.libruary.entity.CalculationLimits#maxDepth()}.
+ * Вложенность - это глубина скобок, в том числе скобок вызовов функций, а для подряд идущих унарных минусов -
+ * глубина скобок плюс длина цепочки: {@code - - - 1} имеет вложенность 3. Закрывающая скобка без пары
+ * не опускает глубину ниже нуля, такую скобку отклоняет разбор.
+ * <p>
+ * Один и тот же счетчик работает при разборе без подготовки, при подготовке выражения и для получателя событий,
+ * поэтому результат проверки не зависит от того, включен ли кэш.
+ * Не потокобезопасен, у каждого потока должен быть свой объект.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class NestingDepth {
+    private TokenType previous;
+    private int depth;
+    private int unaryMinus; // длина текущей цепочки унарных минусов
+    private int maxDepth;
+
+    /**
+     * Наибольшая вложенность списка токенов.
+     * @param tokens токены выражения
+     * @return наибольшая вложенность
+     */
+    public static int of(List<Token> tokens) {
+        var nesting = new NestingDepth();
+        for (var token : tokens) {
+            nesting.add(token.type());
+        }
+        return nesting.getMaxDepth();
+    }
+
+    /**
+     * Очистить счетчик перед новым выражением.
+     */
+    public void reset() {
+        previous = null;
+        depth = 0;
+        unaryMinus = 0;
+        maxDepth = 0;
+    }
+
+    /**
+     * Учесть следующий токен выражения.
+     * Минус в начале выражения или после токена, который ожидает операнд, - унарный.
+     * @param type тип токена
+     */
+    public void add(TokenType type) {
+        if (type == TokenType.OP_MINUS && (previous == null || previous.expectsOperand())) {
+            maxDepth = Math.max(maxDepth, depth + ++unaryMinus);
+        } else {
+            unaryMinus = 0;
+            if (type == TokenType.LEFT_BRACKET) {
+                maxDepth = Math.max(maxDepth, ++depth);
+            } else if (type == TokenType.RIGHT_BRACKET) {
+                depth = Math.max(depth - 1, 0);
+            }
+        }
+        previous = type;
+    }
+
+    /**
+     * @return наибольшая вложенность учтенных токенов
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.gribanoveu.libruary.util;
+
+
+import com.github.gribanoveu.libruary.exception.FunctionException;
+import com.github.gribanoveu.libruary.function.BatchFunction;
+import com.github.gribanoveu.libruary.function.CalculateFunction;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.function.VarargFunction;
+
+import java.util.ArrayList;
+
+/**
+ * Зарегистрированная функция.
+ * Способ вызова выбирается один раз при регистрации по интерфейсу, который реализует функция:
+ * {@link Function1}, {@link Function2}, {@link Function3} и {@link VarargFunction} вызываются с примитивными аргументами,
+ * а обычная {@link CalculateFunction} - через медленный путь с упаковкой аргументов в список.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public final class RegisteredFunction {
+
+    /**
+     * Способ вызова функции.
+     */
+    public enum Kind {
+        FUNCTION_1, FUNCTION_2, FUNCTION_3, VARARG, LIST
+    }
+
+    private final String name;
+    private final CalculateFunction function;
+    private final Kind kind;
+    private final boolean pure;
+    private final FunctionCache cache;
+
+    RegisteredFunction(String name, CalculateFunction function, boolean pure, FunctionCache cache) {
+        this.name = name;
+        this.function = function;
+        this.pure = pure;
+        this.cache = cache;
+        if (function instanceof Function1) {
+            kind = Kind.FUNCTION_1;
+        } else if (function instanceof Function2) {
+            kind = Kind.FUNCTION_2;
+        } else if (function instanceof Function3) {
+            kind = Kind.FUNCTION_3;
+        } else if (function instanceof VarargFunction) {
+            kind = Kind.VARARG;
+        } else {
+            kind = Kind.LIST;
+        }
+    }
+
+    /**
+     * Вызвать функцию.
+     * @param args аргументы, значимы первые {@code length} элементов
+     * @param length количество аргументов
+     * @return результат вычисления функции
+     */
+    public double invoke(double[] args, int length) {
+        return switch (kind) {
+            case FUNCTION_1 -> {
+                checkArity(1, length);
+                yield ((Function1) function).apply(args[0]);
+            }
+            case FUNCTION_2 -> {
+                checkArity(2, length);
+                yield ((Function2) function).apply(args[0], args[1]);
+            }
+            case FUNCTION_3 -> {
+                checkArity(3, length);
+                yield ((Function3) function).apply(args[0], args[1], args[2]);
+            }
+            case VARARG -> ((VarargFunction) function).apply(args, length);
+            case LIST -> { // медленный путь для функций, реализующих только CalculateFunction
+                var list = new ArrayList<Double>(length);
+                for (int i = 0; i < length; i++) {
+                    list.add(args[i]);
+                }
+                yield function.apply(list);
+            }
+        };
+    }
+
+    private void checkArity(int expected, int actual) {
+        if (expected != actual) {
+            throw new FunctionException("Function %s expects %s arguments, got %s".formatted(name, expected, actual));
+        }
+    }
+
+    /**
+     * Количество аргументов функции.
+     * @return количество аргументов или -1, если функция принимает любое количество
+     */
+    public int getArity() {
+        return switch (kind) {
+            case FUNCTION_1 -> 1;
+            case FUNCTION_2 -> 2;
+            case FUNCTION_3 -> 3;
+            case VARARG, LIST -> -1;
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CalculateFunction getFunction() {
+        return function;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Получить пакетную реализацию функции.
+     * @return функция как {@link BatchFunction} или null, если пакетного вычисления у нее нет
+     */
+    public BatchFunction getBatchFunction() {
+        return function instanceof BatchFunction batchFunction ? batchFunction : null;
+    }
+
+    /**
+     * Чистая функция зависит только от аргументов и не имеет побочных эффектов,
+     * поэтому ее вызов с константами можно вычислить заранее.
+     * @return признак, заданный при регистрации
+     */
+    public boolean isPure() {
+        return pure;
+    }
+
+    /**
+     * Кэш результатов функции, зарегистрированной с {@link com.github.gribanoveu.libruary.entity.MemoizationPolicy}.
+     * @return кэш или null, если результаты не сохраняются
+     */
+    public FunctionCache getCache() {
+        return cache;
+    }
+}
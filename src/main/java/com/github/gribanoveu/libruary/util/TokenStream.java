@@ -0,0 +1,130 @@
+package com.github.gribanoveu.libruary.util;
+
+
+import com.github.gribanoveu.libruary.entity.TokenType;
+
+import java.util.Arrays;
+
+/**
+ * Упакованный поток токенов.
+ * Вместо списка объектов {@link com.github.gribanoveu.libruary.entity.Token} хранит для каждого токена
+ * тип, начало и конец в исходной строке и уже разобранное значение числа в примитивных массивах,
+ * а для вызова функции - ссылку на найденную при разборе функцию.
+ * Массивы растут только при первом разборе длинного выражения и переиспользуются для следующих,
+ * поэтому в установившемся режиме заполнение потока не выделяет память.
+ * Вложенность выражения считается при добавлении токенов, см. {@link NestingDepth}.
+ * Не потокобезопасен, у каждого потока должен быть свой объект.
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+public class TokenStream {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private CharSequence source;
+    private int size;
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private double[] numbers = new double[INITIAL_CAPACITY];
+    private RegisteredFunction[] functions = new RegisteredFunction[INITIAL_CAPACITY];
+    private final NestingDepth nesting = new NestingDepth();
+
+    /**
+     * Очистить поток перед разбором нового выражения.
+     * @param source исходное выражение
+     */
+    public void reset(CharSequence source) {
+        this.source = source;
+        this.size = 0;
+        nesting.reset();
+    }
+
+    /**
+     * Добавить токен в конец потока.
+     * @param type тип токена
+     * @param start позиция первого символа токена в исходном выражении
+     * @param end позиция после последнего символа токена
+     * @param number значение числа для токена NUMBER, для остальных 0.0
+     */
+    public void add(TokenType type, int start, int end, double number) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = type.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        numbers[size] = number;
+        size++;
+        nesting.add(type);
+    }
+
+    /**
+     * Добавить в конец потока токен FUNCTION с уже найденной функцией.
+     * @param start позиция первого символа имени в исходном выражении
+     * @param end позиция после последнего символа имени
+     * @param function зарегистрированная функция
+     */
+    public void addFunction(int start, int end, RegisteredFunction function) {
+        add(TokenType.FUNCTION, start, end, 0.0);
+        functions[size - 1] = function;
+    }
+
+    private void grow() {
+        var capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        numbers = Arrays.copyOf(numbers, capacity);
+        functions = Arrays.copyOf(functions, capacity);
+    }
+
+    public CharSequence getSource() {
+        return source;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return наибольшая вложенность добавленных токенов, см. {@link NestingDepth}
+     */
+    public int getDepth() {
+        return nesting.getMaxDepth();
+    }
+
+    public TokenType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        return ends[index];
+    }
+
+    public double getNumber(int index) {
+        return numbers[index];
+    }
+
+    /**
+     * Получить функцию токена FUNCTION, найденную при разборе.
+     * @param index номер токена
+     * @return зарегистрированная функция
+     */
+    public RegisteredFunction getFunction(int index) {
+        return functions[index];
+    }
+
+    /**
+     * Получить текст токена. Выделяет память, поэтому предназначен для сообщений об ошибках и отладки.
+     * @param index номер токена
+     * @return текст токена
+     */
+    public String getText(int index) {
+        return source.subSequence(starts[index], ends[index]).toString();
+    }
+}
@@ -1,13 +1,40 @@
 package com.github.gribanoveu.libruary.calculator;
 
+import com.github.gribanoveu.libruary.compiler.EvaluationBackend;
+import com.github.gribanoveu.libruary.entity.CalculationResult;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import com.github.gribanoveu.libruary.exception.FunctionException;
+import com.github.gribanoveu.libruary.exception.InvalidTokenException;
+import com.github.gribanoveu.libruary.exception.LimitExceededException;
+import com.github.gribanoveu.libruary.exception.VariableException;
+import com.github.gribanoveu.libruary.function.AsyncCalculateFunction;
 import com.github.gribanoveu.libruary.function.CalculateFunction;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author Evgeny Gribanov
@@ -33,6 +60,17 @@ class ArithmeticCalculatorTest {
                 .isEqualTo(29.0);
     }
 
+    @Test
+    void calculateDecimalLiterals() {
+        var expression = "1.5 * 2e3 - 0.25E+2 / 2.5e-1";
+        assertThat(calculator.calculate(expression))
+                .as("Дробные числа и экспонента должны разбираться при токенизации")
+                .isEqualTo(2900.0);
+        assertThat(calculator.prepare(expression).evaluate())
+                .as("Подготовленное выражение должно давать тот же результат")
+                .isEqualTo(2900.0);
+    }
+
     @Test
     void calculateMinFunctionAdded() {
         var expression = "min(3 + 2 * 5, 9)";
@@ -60,6 +98,534 @@ class ArithmeticCalculatorTest {
                 .isEqualTo(9.0);
     }
 
+    @Test
+    void prepareExpressionOnce() {
+        var prepared = calculator.prepare("min(3 + 2 * 5, 9) - (4 - 6) / 4");
+        assertThat(prepared.evaluate())
+                .as("Результат подготовленного выражения посчитан неверно")
+                .isEqualTo(9.5)
+                .isEqualTo(prepared.evaluate())
+                .isEqualTo(calculator.calculate(prepared.getExpression()));
+    }
+
+    @Test
+    void prepareEmptyString() {
+        assertThat(calculator.prepare("  ").evaluate())
+                .as("Пустая строка должна вернуть 0.0")
+                .isEqualTo(0.0);
+    }
+
+    @Test
+    void defaultPrepareDelegatesToCalculate() {
+        Calculator delegating = expression -> calculator.calculate(expression);
+        var prepared = delegating.prepare("min(3, 4) * 2");
+
+        assertThat(prepared.evaluate())
+                .as("Подготовка по умолчанию вычисляет выражение через calculate")
+                .isEqualTo(6.0)
+                .isEqualTo(prepared.evaluate(new double[0]));
+        assertThat(prepared.getVariables()).as("Выражение без переменных").isEmpty();
+        assertThat(prepared.getExpression()).as("Исходная строка").isEqualTo("min(3, 4) * 2");
+        assertThatThrownBy(() -> prepared.slotOf("x"))
+                .as("Переменных у такого выражения нет")
+                .isInstanceOf(VariableException.class);
+    }
+
+    @Test
+    void prepareExpressionWithVariables() {
+        var prepared = calculator.prepare("price * qty - min(discount, 10)");
+        assertThat(prepared.getVariables())
+                .as("Слоты переменных назначаются в порядке появления")
+                .containsExactly("price", "qty", "discount");
+
+        assertThat(prepared.evaluate(new double[]{2.5, 4, 3}))
+                .as("Неверный результат расчета по слотам")
+                .isEqualTo(7.0);
+
+        var bindings = prepared.newBindings()
+                .set("price", 10)
+                .set("qty", 2)
+                .set(prepared.slotOf("discount"), 50);
+        assertThat(bindings.evaluate())
+                .as("Неверный результат расчета по именам")
+                .isEqualTo(10.0);
+    }
+
+    @Test
+    void calculateUnboundVariable() {
+        assertThatThrownBy(() -> calculator.calculate("price * 2"))
+                .as("Значение переменной не передано")
+                .isInstanceOf(VariableException.class)
+                .hasMessageContaining("Variable is not bound: price");
+        assertThatThrownBy(() -> calculator.prepare("price * 2").evaluate())
+                .as("Значение переменной не передано")
+                .isInstanceOf(VariableException.class)
+                .hasMessageContaining("Variable is not bound: price");
+    }
+
+    @Test
+    void calculateWithExpressionCache() {
+        var cachedCalculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("min", new MinimalValueFunction())
+                .expressionCache(100)
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(cachedCalculator.calculate("min(3 + 2 * 5, 9) * 2"))
+                    .as("Результат из кэша посчитан неверно")
+                    .isEqualTo(18.0);
+        }
+        assertThat(cachedCalculator.getCacheStats().hitCount()).isEqualTo(2);
+        assertThat(cachedCalculator.getCacheStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void calculatePrimitiveFunctions() {
+        var primitiveCalculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("sqrt", (Function1) Math::sqrt)
+                .registerFunction("pow", (Function2) Math::pow)
+                .registerFunction("fma", (Function3) Math::fma)
+                .registerFunction("max", new MaximalValueFunction())
+                .registerFunction("min", new MinimalValueFunction())
+                .build();
+        var expression = "max(1, min(5, sqrt(pow(2, 2))), fma(2, 3, 4)) - max(7)";
+
+        assertThat(primitiveCalculator.calculate(expression))
+                .as("Неверный результат вложенных функций")
+                .isEqualTo(3.0)
+                .isEqualTo(primitiveCalculator.prepare(expression).evaluate());
+        assertThatThrownBy(() -> primitiveCalculator.calculate("pow(2)"))
+                .as("Неверное количество аргументов")
+                .isInstanceOf(FunctionException.class)
+                .hasMessageContaining("Function pow expects 2 arguments, got 1");
+    }
+
+    @Test
+    void prepareWithBytecodeBackend() {
+        var bytecodeCalculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("min", new MinimalValueFunction())
+                .backend(EvaluationBackend.BYTECODE)
+                .build();
+
+        var prepared = bytecodeCalculator.prepare("min(price, 9) * qty - 2");
+
+        assertThat(prepared.evaluate(new double[]{4, 3}))
+                .as("Неверный результат скомпилированного выражения")
+                .isEqualTo(10.0);
+    }
+
+    @Test
+    void prepareWithRpnBackend() {
+        var rpnCalculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("min", new MinimalValueFunction())
+                .backend(EvaluationBackend.RPN)
+                .build();
+
+        var prepared = rpnCalculator.prepare("min(price, 9) * qty - 2 / (1 - -1)");
+
+        assertThat(prepared.evaluate(new double[]{4, 3}))
+                .as("Неверный результат выражения в обратной польской записи")
+                .isEqualTo(11.0);
+    }
+
+    @Test
+    void calculateAllReportsErrorsPerItem() {
+        var expressions = new ArrayList<String>();
+        for (int index = 0; index < 5000; index++) {
+            expressions.add(index % 100 == 0 ? "min(" + index : "pow(" + index % 7 + ", 2) - min(" + index + ", 3)");
+        }
+
+        var result = calculator.calculateAll(expressions);
+
+        assertThat(result.getErrorCount())
+                .as("Каждое сотое выражение должно завершиться ошибкой")
+                .isEqualTo(50);
+        for (int index = 0; index < expressions.size(); index++) {
+            if (index % 100 == 0) {
+                assertThat(result.getError(index))
+                        .as("Ошибка должна быть сохранена для выражения " + index)
+                        .isInstanceOf(ArithmeticException.class);
+            } else {
+                assertThat(result.getValue(index))
+                        .as("Результат отличается от последовательного вычисления: " + expressions.get(index))
+                        .isEqualTo(calculator.calculate(expressions.get(index)));
+            }
+        }
+    }
+
+    @Test
+    void calculateAllSpliteratorInCustomPool() {
+        var pool = new ForkJoinPool(3);
+        try {
+            var poolCalculator = new ArithmeticCalculatorBuilder()
+                    .registerFunction("min", new MinimalValueFunction())
+                    .forkJoinPool(pool)
+                    .build();
+            var results = new ConcurrentHashMap<String, Double>();
+            var threads = ConcurrentHashMap.<Thread>newKeySet();
+            var expressions = IntStream.range(0, 3000).mapToObj(index -> "min(" + index + ", 1000) * 2");
+
+            poolCalculator.calculateAll(expressions.spliterator(), (expression, value, error) -> {
+                threads.add(Thread.currentThread());
+                results.put(expression, value);
+            });
+
+            assertThat(results)
+                    .as("Должны быть получены результаты всех выражений")
+                    .hasSize(3000)
+                    .containsEntry("min(1500, 1000) * 2", 2000.0);
+            assertThat(threads)
+                    .as("Выражения должны вычисляться в заданном пуле")
+                    .allMatch(thread -> thread instanceof ForkJoinWorkerThread worker
+                            && worker.getPool() == pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void buildFreezesFunctions() {
+        var builder = new ArithmeticCalculatorBuilder().registerFunction("twice", (Function1) x -> x * 2);
+        var frozenCalculator = builder.build();
+
+        builder.registerFunction("twice", (Function1) x -> x * 3);
+
+        assertThat(frozenCalculator.calculate("twice(5)"))
+                .as("Регистрация в билдере после build() не должна влиять на калькулятор")
+                .isEqualTo(10.0);
+        assertThat(builder.build().calculate("twice(5)"))
+                .as("Новый калькулятор должен получить новую функцию")
+                .isEqualTo(15.0);
+    }
+
+    @Test
+    void replaceFunctionInvalidatesCache() {
+        var cachedCalculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("rate", (Function1) x -> x * 2)
+                .registerFunction("min", new MinimalValueFunction())
+                .expressionCache(100)
+                .backend(EvaluationBackend.BYTECODE)
+                .build();
+        var prepared = cachedCalculator.prepare("rate(10) + 1");
+        cachedCalculator.calculate("min(1, 2)");
+
+        cachedCalculator.registerFunction("rate", (Function1) x -> x * 3);
+
+        assertThat(cachedCalculator.calculate("rate(10) + 1"))
+                .as("Выражение с замененной функцией должно быть подготовлено заново")
+                .isEqualTo(31.0);
+        assertThat(prepared.evaluate())
+                .as("Ранее подготовленное выражение использует прежнюю версию функции")
+                .isEqualTo(21.0);
+        assertThat(cachedCalculator.getCacheStats().size())
+                .as("Выражения без замененной функции должны остаться в кэше")
+                .isEqualTo(2);
+    }
+
+    @Test
+    void replaceFunctionWhileCalculating() throws Exception {
+        var sharedCalculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("rate", (Function1) x -> 1.0)
+                .build();
+        var results = ConcurrentHashMap.<Double>newKeySet();
+        var errors = new ConcurrentLinkedQueue<Throwable>();
+        var workers = new ArrayList<Thread>();
+        for (int thread = 0; thread < 4; thread++) {
+            workers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 20_000; i++) {
+                        results.add(sharedCalculator.calculate("rate(1) * 10"));
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        for (int version = 2; version <= 100; version++) {
+            var value = version;
+            sharedCalculator.registerFunction("rate", (Function1) x -> value);
+            sharedCalculator.registerFunction("other" + version, (Function1) x -> x);
+        }
+        for (var worker : workers) {
+            worker.join();
+        }
+
+        assertThat(errors)
+                .as("Замена функций не должна мешать вычислениям в других потоках")
+                .isEmpty();
+        assertThat(results)
+                .as("Каждое вычисление видит одну из зарегистрированных версий функции")
+                .allMatch(result -> result >= 10.0 && result <= 1000.0 && result % 10 == 0);
+    }
+
+    @Test
+    void tryCalculateReportsErrorCodes() {
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("pow", (Function2) Math::pow)
+                .registerFunction("fail", (Function1) x -> {
+                    throw new FunctionException("fail " + x);
+                })
+                .build();
+        var result = new CalculationResult();
+
+        assertThat(calculator.tryCalculate("1.5 * 2", result)).as("Верное выражение").isTrue();
+        assertThat(result.getValue()).isEqualTo(3.0);
+
+        var errors = List.of("2 + (3", "2 # 3", "2 + foo(1)", "price * 2", "pow(2)", "fail(1)");
+        var codes = List.of(ErrorCode.UNEXPECTED_TOKEN, ErrorCode.UNEXPECTED_CHARACTER, ErrorCode.UNKNOWN_FUNCTION,
+                ErrorCode.UNBOUND_VARIABLE, ErrorCode.ARGUMENT_COUNT, ErrorCode.EXCEPTION);
+        for (int i = 0; i < errors.size(); i++) {
+            var expression = errors.get(i);
+            assertThat(calculator.tryCalculate(expression, result)).as("Ошибка в выражении: " + expression).isFalse();
+            assertThat(result.getErrorCode()).as("Код ошибки: " + expression).isEqualTo(codes.get(i));
+            assertThat(Double.valueOf(result.getValue())).as("Значение ошибочного выражения").isNaN();
+            assertThatThrownBy(() -> calculator.calculate(expression))
+                    .as("calculate должен выбросить исключение с тем же сообщением: " + expression)
+                    .isInstanceOf(result.toException().getClass())
+                    .hasMessage(result.getMessage());
+        }
+
+        calculator.tryCalculate("2 + foo(1)", result);
+        assertThat(result.getStart()).as("Начало имени функции").isEqualTo(4);
+        assertThat(result.getEnd()).as("Конец имени функции").isEqualTo(7);
+        calculator.tryCalculate("(1 + 2", result);
+        assertThat(result.getTokenPosition()).as("Позиция токена, как в InvalidTokenException").isEqualTo(5);
+    }
+
+    @Test
+    void calculateReentrantFromFunction() {
+        var holder = new Calculator[1];
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("inner", (Function1) x -> holder[0].calculate("1 + 1 + 1 + 1 + 1 + 1 + 1 + 1 + 1 + 1"))
+                .build();
+        holder[0] = calculator;
+        var result = new CalculationResult();
+
+        assertThat(calculator.calculate("1 + inner(5) * 2"))
+                .as("Вложенное вычисление тем же калькулятором не должно портить внешнее")
+                .isEqualTo(21.0);
+        assertThat(calculator.tryCalculate("inner(0) * 3 - 4", result)).isTrue();
+        assertThat(result.getValue()).as("Результат внешнего выражения").isEqualTo(26.0);
+        assertThat(calculator.tryCalculate("inner(0) * 3 - ", result))
+                .as("Ошибка внешнего выражения после вложенного вычисления")
+                .isFalse();
+    }
+
+    @Test
+    void tryCalculateInvalidWithoutAllocation() {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var result = new CalculationResult();
+        var expressions = new String[]{"min(3, 2 * (5 + 1)", "2 + * 3", "rand(1)", "price - 1", "2 $ 2"};
+        for (int i = 0; i < 20_000; i++) { // прогрев
+            calculator.tryCalculate(expressions[i % expressions.length], result);
+        }
+
+        var allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            calculator.tryCalculate(expressions[i % expressions.length], result);
+        }
+        var allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        assertThat(allocated)
+                .as("Проверка ошибочных выражений не должна создавать исключения")
+                .isLessThan(1024);
+    }
+
+    @Test
+    void limitsCheckedDuringTokenization() {
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("pow", (Function2) Math::pow)
+                .maxExpressionLength(40)
+                .maxTokens(16)
+                .maxDepth(3)
+                .maxFunctionCalls(2)
+                .build();
+        var cached = new ArithmeticCalculatorBuilder()
+                .registerFunction("pow", (Function2) Math::pow)
+                .maxExpressionLength(40)
+                .maxTokens(16)
+                .maxDepth(3)
+                .maxFunctionCalls(2)
+                .expressionCache(16)
+                .build();
+        var result = new CalculationResult();
+
+        assertThat(calculator.calculate("pow(2, ((3)))")).as("Выражение в пределах ограничений").isEqualTo(8.0);
+        var errors = List.of("1".repeat(41), "1+1+1+1+1+1+1+1+1", "((((1))))", "pow(1, pow(1, pow(1, 1)))");
+        var codes = List.of(ErrorCode.LENGTH_LIMIT, ErrorCode.TOKEN_LIMIT, ErrorCode.DEPTH_LIMIT,
+                ErrorCode.FUNCTION_CALL_LIMIT);
+        for (int i = 0; i < errors.size(); i++) {
+            var expression = errors.get(i);
+            assertThat(calculator.tryCalculate(expression, result)).as("Нарушено ограничение: " + expression).isFalse();
+            assertThat(result.getErrorCode()).as("Код ограничения: " + expression).isEqualTo(codes.get(i));
+            assertThatThrownBy(() -> calculator.calculate(expression))
+                    .as("calculate выбрасывает LimitExceededException: " + expression)
+                    .isInstanceOf(LimitExceededException.class)
+                    .hasMessage(result.getMessage());
+            assertThatThrownBy(() -> cached.calculate(expression))
+                    .as("Подготовка выражения проверяет те же ограничения: " + expression)
+                    .isInstanceOf(LimitExceededException.class)
+                    .hasMessage(result.getMessage());
+        }
+        assertThat(cached.getCacheStats().size()).as("Выражения сверх ограничений не попадают в кэш").isZero();
+    }
+
+    @Test
+    void depthLimitCountsUnaryMinusChains() {
+        var calculator = new ArithmeticCalculatorBuilder().maxDepth(100).build();
+        var cached = new ArithmeticCalculatorBuilder().maxDepth(100).expressionCache(10).build();
+        var result = new CalculationResult();
+        var deep = "-".repeat(200_000) + "1";
+
+        assertThat(cached.calculate("(" + "-".repeat(99) + "1)")).as("Цепочка в пределах ограничения").isEqualTo(-1.0);
+        assertThat(calculator.calculate("1 - -1 - -1")).as("Бинарный минус не входит в цепочку").isEqualTo(3.0);
+        assertThat(calculator.tryCalculate(deep, result)).isFalse();
+        assertThat(result.getErrorCode()).as("Цепочка унарных минусов").isEqualTo(ErrorCode.DEPTH_LIMIT);
+        assertThatThrownBy(() -> cached.calculate(deep))
+                .as("Кэшированный калькулятор отклоняет цепочку до построения дерева")
+                .isInstanceOf(LimitExceededException.class)
+                .hasMessage(result.getMessage());
+        assertThatThrownBy(() -> calculator.prepare("(" + "-".repeat(100) + "1)"))
+                .as("Подготовка выражения считает вложенность так же")
+                .isInstanceOf(LimitExceededException.class)
+                .hasMessage(result.getMessage());
+    }
+
+    @Test
+    void depthLimitDoesNotDependOnCache() {
+        var calculator = new ArithmeticCalculatorBuilder().maxDepth(3).build();
+        var cached = new ArithmeticCalculatorBuilder().maxDepth(3).expressionCache(10).build();
+        var result = new CalculationResult();
+
+        for (var expression : List.of(")((((1", "(1))-(-(-(-1", "1)+((-(-1")) {
+            assertThat(calculator.tryCalculate(expression, result)).isFalse();
+            assertThat(result.getErrorCode())
+                    .as("Скобка без пары не уменьшает вложенность ниже нуля: " + expression)
+                    .isEqualTo(ErrorCode.DEPTH_LIMIT);
+            assertThatThrownBy(() -> cached.calculate(expression))
+                    .as("С кэшем выражение отклоняется так же: " + expression)
+                    .isInstanceOf(LimitExceededException.class)
+                    .hasMessage(result.getMessage());
+        }
+    }
+
+    @Test
+    void deepExpressionsWithAndWithoutCache() {
+        var cached = new ArithmeticCalculatorBuilder().expressionCache(10).build();
+        var brackets = "(".repeat(100_000) + "1" + ")".repeat(100_000);
+        var minus = "-".repeat(200_001) + "1";
+        var chain = "1" + " + 1".repeat(100_000);
+        var nested = "(".repeat(2000) + "1" + " + 1)".repeat(2000);
+
+        for (var expression : List.of(brackets, minus, chain, nested)) {
+            assertThat(cached.calculate(expression))
+                    .as("С кэшем результат тот же, что и без него")
+                    .isEqualTo(calculator.calculate(expression));
+        }
+        assertThat(cached.prepare(brackets).evaluate()).as("Скобки не добавляют узлов").isEqualTo(1.0);
+        assertThat(cached.prepare(minus).evaluate()).as("Цепочка минусов - один узел").isEqualTo(-1.0);
+        assertThat(cached.prepare(chain).evaluate()).as("Длинная цепочка операторов - один узел").isEqualTo(100_001.0);
+        assertThatThrownBy(() -> cached.prepare(nested))
+                .as("Дерево выше ограничения не строится")
+                .isInstanceOf(LimitExceededException.class)
+                .hasMessage("Expression tree is taller than %s levels", SyntaxTreeBuilder.MAX_TREE_HEIGHT);
+        assertThat(cached.tryCalculate(nested).getValue())
+                .as("Без подготовки высота дерева не ограничена")
+                .isEqualTo(2001.0);
+
+        var highest = "(".repeat(SyntaxTreeBuilder.MAX_TREE_HEIGHT - 1) + "x"
+                + " + 1)".repeat(SyntaxTreeBuilder.MAX_TREE_HEIGHT - 1);
+        var generated = "x0" + IntStream.range(1, 1200).mapToObj(i -> " + x" + i).collect(Collectors.joining());
+        var slots = new double[1200];
+        Arrays.fill(slots, 1);
+        for (var backend : EvaluationBackend.values()) {
+            var backendCalculator = new ArithmeticCalculatorBuilder().backend(backend).build();
+            assertThat(backendCalculator.prepare(highest).evaluate(new double[]{1}))
+                    .as("Дерево наибольшей высоты вычисляется: " + backend)
+                    .isEqualTo(SyntaxTreeBuilder.MAX_TREE_HEIGHT);
+            assertThat(backendCalculator.prepare(generated).evaluate(slots))
+                    .as("Сгенерированная формула из 1200 слагаемых подготавливается: " + backend)
+                    .isEqualTo(1200.0);
+        }
+    }
+
+    @Test
+    void timeoutAndCancellation() {
+        Function1 slow = x -> {
+            var end = System.nanoTime() + 120_000_000;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            return x;
+        };
+        for (var cacheSize : List.of(0, 16)) {
+            var builder = new ArithmeticCalculatorBuilder()
+                    .registerFunction("slow", slow)
+                    .timeout(Duration.ofMillis(200));
+            var calculator = cacheSize > 0 ? builder.expressionCache(cacheSize).build() : builder.build();
+            var result = new CalculationResult();
+
+            assertThat(calculator.calculate("slow(1) + 1")).as("Выражение укладывается в срок").isEqualTo(2.0);
+            assertThatThrownBy(() -> calculator.calculate("slow(1) + slow(2) + slow(3)"))
+                    .as("Следующая функция не вызывается после срока")
+                    .isInstanceOf(LimitExceededException.class)
+                    .hasMessage("Calculation exceeded timeout of 200 ms");
+            assertThat(calculator.tryCalculate("slow(1) + slow(2) + slow(3)", result)).as("Срок без исключения").isFalse();
+            assertThat(result.getErrorCode()).as("Код превышения срока").isEqualTo(ErrorCode.TIMEOUT);
+
+            Thread.currentThread().interrupt();
+            try {
+                assertThatThrownBy(() -> calculator.calculate("slow(1)"))
+                        .as("Прерывание потока отменяет вычисление")
+                        .isInstanceOf(LimitExceededException.class)
+                        .extracting(e -> ((LimitExceededException) e).getErrorCode())
+                        .isEqualTo(ErrorCode.CANCELLED);
+                assertThat(calculator.prepare("slow(1)").evaluate())
+                        .as("Подготовленное выражение вычисляется без срока, прерывание его не отменяет")
+                        .isEqualTo(1.0);
+            } finally {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    @Test
+    void calculateAsyncRunsIndependentCallsConcurrently() throws Exception {
+        var started = new CountDownLatch(3);
+        var release = new CountDownLatch(1);
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("max", new MaximalValueFunction())
+                .registerFunction("rate", AsyncCalculateFunction.blocking((args, length) -> {
+                    started.countDown();
+                    try { // все три вызова должны начаться до того, как первый закончится
+                        assertThat(release.await(10, TimeUnit.SECONDS)).isTrue();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return args[0] * 10;
+                }))
+                .build();
+
+        var future = calculator.calculateAsync("max(rate(1), rate(2), rate(3)) + 1");
+        assertThat(future.isDone()).as("Вызывающий поток не ждет функций").isFalse();
+        assertThat(started.await(10, TimeUnit.SECONDS)).as("Независимые вызовы выполняются одновременно").isTrue();
+        release.countDown();
+        assertThat(future.get(10, TimeUnit.SECONDS)).as("Результат асинхронного вычисления").isEqualTo(31.0);
+
+        assertThat(calculator.calculate("rate(2) * 2"))
+                .as("При обычном вычислении асинхронная функция вызывается синхронно")
+                .isEqualTo(40.0);
+        assertThat(calculator.calculateAsync("2 + 2").isDone())
+                .as("Выражение без асинхронных функций вычисляется сразу")
+                .isTrue();
+        assertThat(calculator.calculateAsync("2 + (3"))
+                .as("Ошибка разбора возвращается в результате")
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(InvalidTokenException.class);
+    }
+
     @Nested
     class MinimalValueFunction implements CalculateFunction {
         @Override
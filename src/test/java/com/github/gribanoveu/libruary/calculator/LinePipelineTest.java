@@ -0,0 +1,89 @@
+package com.github.gribanoveu.libruary.calculator;
+
+import com.github.gribanoveu.libruary.function.MinimalValueFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class LinePipelineTest {
+    private ArithmeticCalculator calculator;
+    private List<String> lines;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("min", new MinimalValueFunction())
+                .build();
+        lines = new ArrayList<>();
+        for (int index = 0; index < 60_000; index++) { // несколько пакетов, строки пересекают границы буферов
+            lines.add(index % 1000 == 0 ? "min(" + index : "min(" + index + ", 7) * 2 - " + index % 13);
+        }
+        lines.add("1 + " + "1 + ".repeat(LinePipeline.BATCH_SIZE / 4) + "1"); // строка длиннее пакета
+        lines.add("");
+        lines.add("3 * 3\r");
+    }
+
+    private List<String> expectedOutput() {
+        var expected = new ArrayList<String>();
+        for (var line : lines) {
+            try {
+                expected.add(Double.toString(calculator.calculate(line)));
+            } catch (ArithmeticException e) {
+                expected.add("ERROR " + e.getMessage());
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    void calculateFileInOrder(@TempDir Path directory) throws Exception {
+        var input = directory.resolve("input.txt");
+        Files.write(input, lines, StandardCharsets.US_ASCII);
+        var output = new ByteArrayOutputStream();
+
+        var count = calculator.calculateLines(input, Channels.newChannel(output));
+
+        assertThat(count)
+                .as("Должны быть вычислены все строки файла")
+                .isEqualTo(lines.size());
+        assertThat(output.toString(StandardCharsets.US_ASCII).split("\n", -1))
+                .as("Результаты должны совпадать с построчным вычислением и идти в порядке строк")
+                .containsExactlyElementsOf(withTrailingEmpty(expectedOutput()));
+    }
+
+    @Test
+    void calculateChannelInOrder() throws Exception {
+        var input = String.join("\n", lines).getBytes(StandardCharsets.US_ASCII); // без перевода строки в конце
+        var output = new ByteArrayOutputStream();
+
+        var count = calculator.calculateLines(Channels.newChannel(new ByteArrayInputStream(input)),
+                Channels.newChannel(output));
+
+        assertThat(count)
+                .as("Последняя строка без перевода строки тоже должна быть вычислена")
+                .isEqualTo(lines.size());
+        assertThat(output.toString(StandardCharsets.US_ASCII).split("\n", -1))
+                .as("Результаты должны совпадать с построчным вычислением и идти в порядке строк")
+                .containsExactlyElementsOf(withTrailingEmpty(expectedOutput()));
+    }
+
+    private static List<String> withTrailingEmpty(List<String> expected) {
+        expected.add("");
+        return expected;
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.gribanoveu.libruary.compiler;
+
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
+import com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class BytecodeCompilerTest {
+    private FunctionManager functionManager;
+    private final BytecodeCompiler compiler = new BytecodeCompiler();
+
+    @BeforeEach
+    void setUp() {
+        functionManager = new FunctionManager();
+        functionManager.registerFunction("sqrt", (Function1) Math::sqrt);
+        functionManager.registerFunction("pow", (Function2) Math::pow);
+        functionManager.registerFunction("fma", (Function3) Math::fma);
+        functionManager.registerFunction("max", new MaximalValueFunction());
+        functionManager.registerFunction("sum", args -> args.stream().mapToDouble(Double::doubleValue).sum());
+    }
+
+    private ExpressionNode buildTree(String expression) {
+        var tokens = new ExpressionTokenizer(functionManager).parseExpression(expression);
+        return new SyntaxTreeBuilder(functionManager).buildTree(new TokenBuffer(tokens));
+    }
+
+    @Test
+    void sameResultAsTree() {
+        var expressions = new String[]{"0", "1", "-0 * 1", "122 + 3 -2* (2 * 5 + 2) * 4", "1 / 0", "0 / 0",
+                "x * y - -z / 7", "sqrt(x) + pow(y, 2) - fma(x, y, z)", "max(x, y, 300, z) + sum(x, 1, 2, 3)",
+                "pow(sqrt(pow(x, 2)), max(1, 2))"};
+        var slots = new double[]{16, 3, -2.5};
+        for (var expression : expressions) {
+            var tree = buildTree(expression);
+
+            var compiled = compiler.compile(tree);
+
+            assertThat(compiled)
+                    .as("Выражение должно компилироваться в скрытый класс: " + expression)
+                    .isNotSameAs(tree);
+            assertThat(compiled.getClass().isHidden()).isTrue();
+            assertThat(compiled.evaluate(slots))
+                    .as("Результат байт-кода отличается от дерева: " + expression)
+                    .isEqualTo(Double.valueOf(tree.evaluate(slots)));
+        }
+    }
+
+    @Test
+    void hugeExpressionFallsBackToTree() {
+        var expression = "x" + " + x".repeat(3000);
+        var tree = buildTree(expression);
+
+        assertThat(compiler.compile(tree))
+                .as("Слишком большой метод не компилируется JIT, остается дерево")
+                .isSameAs(tree);
+    }
+
+    @Test
+    void hiddenClassIsUnloadable() throws InterruptedException {
+        var compiled = compiler.compile(buildTree("x * 2 + 1"));
+        var hiddenClass = new WeakReference<Class<?>>(compiled.getClass());
+        compiled = null;
+
+        for (int i = 0; i < 20 && hiddenClass.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(hiddenClass.get())
+                .as("Скрытый класс должен выгружаться вместе с выражением")
+                .isNull();
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.gribanoveu.libruary.compiler;
+
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
+import com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class MethodHandleCompilerTest {
+    private FunctionManager functionManager;
+    private final MethodHandleCompiler compiler = new MethodHandleCompiler();
+
+    @BeforeEach
+    void setUp() {
+        functionManager = new FunctionManager();
+        functionManager.registerFunction("sqrt", (Function1) Math::sqrt);
+        functionManager.registerFunction("pow", (Function2) Math::pow);
+        functionManager.registerFunction("fma", (Function3) Math::fma);
+        functionManager.registerFunction("max", new MaximalValueFunction());
+        functionManager.registerFunction("sum", args -> args.stream().mapToDouble(Double::doubleValue).sum());
+    }
+
+    private ExpressionNode buildTree(String expression) {
+        var tokens = new ExpressionTokenizer(functionManager).parseExpression(expression);
+        return new SyntaxTreeBuilder(functionManager).buildTree(new TokenBuffer(tokens));
+    }
+
+    @Test
+    void sameResultAsTree() {
+        var expressions = new String[]{"0", "-0 * 1", "122 + 3 -2* (2 * 5 + 2) * 4", "1 / 0", "0 / 0",
+                "x * y - -z / 7", "sqrt(x) + pow(y, 2) - fma(x, y, z)", "max(x, y, 300, z) + sum(x, 1, 2, 3)",
+                "pow(sqrt(pow(x, 2)), max(1, 2))"};
+        var slots = new double[]{16, 3, -2.5};
+        for (var expression : expressions) {
+            var tree = buildTree(expression);
+
+            var compiled = compiler.compile(tree);
+
+            assertThat(compiled)
+                    .as("Выражение должно собираться в обработчик: " + expression)
+                    .isNotSameAs(tree);
+            assertThat(compiled.evaluate(slots))
+                    .as("Результат обработчика отличается от дерева: " + expression)
+                    .isEqualTo(Double.valueOf(tree.evaluate(slots)));
+        }
+    }
+
+    @Test
+    void handleIsBoundAsConstantOfHiddenClass() {
+        functionManager.registerFunction("fail", (Function1) value -> {
+            throw new ArithmeticException("fail " + value);
+        });
+
+        var compiled = compiler.compile(buildTree("x * 2 + 1"));
+        var failing = compiler.compile(buildTree("fail(x) + 1"));
+
+        assertThat(compiled.getClass().isHidden())
+                .as("Обработчик хранится в static final поле скрытого класса, чтобы JIT считал его константой")
+                .isTrue();
+        assertThat(compiled.getClass())
+                .as("Каждое выражение получает свой класс со своим обработчиком")
+                .isNotSameAs(failing.getClass());
+        assertThat(compiled.evaluate(new double[]{20})).isEqualTo(41.0);
+        assertThatThrownBy(() -> failing.evaluate(new double[]{3}))
+                .as("Исключение функции проходит через обработчик без обертки")
+                .isInstanceOf(ArithmeticException.class)
+                .hasMessage("fail 3.0");
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.gribanoveu.libruary.compiler;
+
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
+import com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class RpnCompilerTest {
+    private FunctionManager functionManager;
+    private final RpnCompiler compiler = new RpnCompiler();
+
+    @BeforeEach
+    void setUp() {
+        functionManager = new FunctionManager();
+        functionManager.registerFunction("sqrt", (Function1) Math::sqrt);
+        functionManager.registerFunction("pow", (Function2) Math::pow);
+        functionManager.registerFunction("fma", (Function3) Math::fma);
+        functionManager.registerFunction("max", new MaximalValueFunction());
+        functionManager.registerFunction("sum", args -> args.stream().mapToDouble(Double::doubleValue).sum());
+    }
+
+    private ExpressionNode buildTree(String expression) {
+        var tokens = new ExpressionTokenizer(functionManager).parseExpression(expression);
+        return new SyntaxTreeBuilder(functionManager).buildTree(new TokenBuffer(tokens));
+    }
+
+    @Test
+    void sameResultAsTree() {
+        var expressions = new String[]{"0", "-0 * 1", "122 + 3 -2* (2 * 5 + 2) * 4", "1 / 0", "0 / 0",
+                "x * y - -z / 7", "sqrt(x) + pow(y, 2) - fma(x, y, z)", "max(x, y, 300, z) + sum(x, 1, 2, 3)",
+                "pow(sqrt(pow(x, 2)), max(1, 2))", "x - 0 + -0 * y", "sum(max(x, 1, sum(y, 2)), 3) / 1.5"};
+        var slots = new double[]{16, 3, -2.5};
+        for (var expression : expressions) {
+            var tree = buildTree(expression);
+
+            var program = compiler.compile(tree);
+
+            assertThat(program.evaluate(slots))
+                    .as("Результат программы отличается от дерева: " + expression)
+                    .isEqualTo(Double.valueOf(tree.evaluate(slots)));
+        }
+    }
+
+    @Test
+    void constantsAndFunctionsArePooled() {
+        var program = compiler.compile(buildTree("x * 2 + y * 2 - sqrt(2) * sqrt(x)"));
+
+        assertThat(program.getCodeLength())
+                .as("x, *2, y, *2, +, 2, sqrt, x, sqrt, *, -: константа справа сливается с операцией")
+                .isEqualTo(11);
+        assertThat(program.evaluate(new double[]{4, 1}))
+                .isEqualTo(10 - Math.sqrt(2) * 2);
+    }
+
+    @Test
+    void nestedEvaluationInFunction() {
+        var inner = compiler.compile(buildTree("x * 10 + 1"));
+        functionManager.registerFunction("inner", (Function1) x -> inner.evaluate(new double[]{x}));
+        var outer = compiler.compile(buildTree("sum(1, 2, inner(x), 3) * 2"));
+
+        assertThat(outer.evaluate(new double[]{5}))
+                .as("Функция может вычислять другую программу в том же потоке")
+                .isEqualTo(114.0);
+    }
+
+    @Test
+    void evaluateWithoutAllocation() {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var program = compiler.compile(buildTree("max(x, y, 300) * pow(x, 2) - fma(x, y, 1) / sqrt(y) + -x"));
+        var slots = new double[]{16, 3};
+        for (int i = 0; i < 20_000; i++) { // прогрев
+            program.evaluate(slots);
+        }
+
+        var allocated = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 3; attempt++) { // лучший из замеров, чтобы не учитывать работу JIT
+            var allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 10_000; i++) {
+                program.evaluate(slots);
+            }
+            allocated = Math.min(allocated, threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore);
+        }
+
+        assertThat(allocated)
+                .as("Вычисление программы не должно выделять память")
+                .isLessThan(1024);
+    }
+}
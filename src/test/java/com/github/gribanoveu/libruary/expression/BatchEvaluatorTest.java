@@ -0,0 +1,85 @@
+package com.github.gribanoveu.libruary.expression;
+
+import com.github.gribanoveu.libruary.exception.VariableException;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.Function3;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import com.github.gribanoveu.libruary.function.MinimalValueFunction;
+import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
+import com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class BatchEvaluatorTest {
+    private FunctionManager functionManager;
+
+    @BeforeEach
+    void setUp() {
+        functionManager = new FunctionManager();
+        functionManager.registerFunction("sqrt", (Function1) Math::sqrt);
+        functionManager.registerFunction("pow", (Function2) Math::pow);
+        functionManager.registerFunction("fma", (Function3) Math::fma);
+        functionManager.registerFunction("max", new MaximalValueFunction());
+        functionManager.registerFunction("min", new MinimalValueFunction());
+        functionManager.registerFunction("sum", args -> args.stream().mapToDouble(Double::doubleValue).sum());
+    }
+
+    private CompiledExpression prepare(String expression) {
+        var tokens = new ExpressionTokenizer(functionManager).parseExpression(expression);
+        var builder = new SyntaxTreeBuilder(functionManager);
+        var root = builder.buildTree(new TokenBuffer(tokens));
+        return new CompiledExpression(expression, root, builder.getVariables());
+    }
+
+    @Test
+    void sameResultAsRowByRow() {
+        var expressions = new String[]{"7", "-x", "x * y - -z / 7", "(x + 1) * (y - 2) / (z + x)",
+                "sqrt(x) + pow(y, 2) - fma(x, y, z)", "max(x, y, 300, z) + min(x, -y) + sum(x, 1, 2, 3)",
+                "x" + " - y * 0.5 + z / 3".repeat(40)}; // длинная цепочка становится ChainNode
+        var random = new Random(42);
+        var rows = BatchEvaluator.BLOCK_SIZE * 2 + 17; // несколько полных блоков и неполный хвост
+        var columns = new double[3][rows];
+        for (var column : columns) {
+            for (int row = 0; row < rows; row++) {
+                column[row] = random.nextDouble() * 200 - 100;
+            }
+        }
+        for (var expression : expressions) {
+            var prepared = prepare(expression);
+            var out = new double[rows];
+
+            prepared.evaluateBatch(columns, out);
+
+            for (int row = 0; row < rows; row++) {
+                var slots = new double[]{columns[0][row], columns[1][row], columns[2][row]};
+                assertThat(out[row])
+                        .as("Пакетный результат отличается от построчного: %s, строка %s", expression, row)
+                        .isEqualTo(Double.valueOf(prepared.evaluate(slots)));
+            }
+        }
+    }
+
+    @Test
+    void invalidColumns() {
+        var prepared = prepare("x + y");
+
+        assertThatThrownBy(() -> prepared.evaluateBatch(new double[1][10], new double[10]))
+                .as("Должно выбрасываться исключение, если колонок меньше, чем переменных")
+                .isInstanceOf(VariableException.class);
+        assertThatThrownBy(() -> prepared.evaluateBatch(new double[][]{new double[10], new double[5]}, new double[10]))
+                .as("Должно выбрасываться исключение, если в колонке меньше строк, чем в результате")
+                .isInstanceOf(VariableException.class);
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.gribanoveu.libruary.metrics;
+
+import com.github.gribanoveu.libruary.calculator.ArithmeticCalculatorBuilder;
+import com.github.gribanoveu.libruary.compiler.EvaluationBackend;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import com.github.gribanoveu.libruary.exception.LimitExceededException;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class CalculatorMetricsTest {
+
+    @Test
+    void collectPhasesAndFunctionCalls() {
+        var metrics = new CalculatorMetrics();
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("max", new MaximalValueFunction())
+                .registerFunction("pow", (Function2) Math::pow)
+                .listener(metrics)
+                .build();
+
+        assertThat(calculator.calculate("max(1, pow(2, (3))) * 2"))
+                .as("Получатель событий не должен менять результат")
+                .isEqualTo(16.0);
+        calculator.calculate("pow(2, 2)");
+        assertThat(calculator.tryCalculate("2 + %").isSuccess())
+                .as("Ошибка разбора должна записываться в результат")
+                .isFalse();
+
+        assertThat(metrics.getTokenizeLatency().getCount())
+                .as("Разбор измеряется для каждого выражения")
+                .isEqualTo(3);
+        assertThat(metrics.getEvaluateLatency().getCount())
+                .as("Вычисление измеряется только для разобранных выражений")
+                .isEqualTo(2);
+        assertThat(metrics.getErrorCount())
+                .as("Ошибка разбора должна учитываться")
+                .isEqualTo(1);
+        assertThat(metrics.getExpressionDepth().getMax())
+                .as("Вложенность считается по скобкам вызовов и выражений")
+                .isEqualTo(3);
+        assertThat(metrics.getExpressionLength().getMax())
+                .as("Длина выражения в символах")
+                .isEqualTo("max(1, pow(2, (3))) * 2".length());
+        assertThat(metrics.getFunction("pow").getCallCount())
+                .as("Каждый вызов функции должен учитываться")
+                .isEqualTo(2);
+        assertThat(metrics.getFunctions())
+                .as("Счетчики ведутся по именам функций")
+                .containsOnlyKeys("max", "pow");
+    }
+
+    @Test
+    void collectCacheAndCompile() {
+        var metrics = new CalculatorMetrics();
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("max", new MaximalValueFunction())
+                .backend(EvaluationBackend.BYTECODE)
+                .expressionCache(16)
+                .listener(metrics)
+                .build();
+
+        for (int i = 0; i < 4; i++) {
+            calculator.calculate("max(1, 2) + 1");
+        }
+        assertThat(metrics.getCacheMissCount())
+                .as("Выражение подготавливается один раз")
+                .isEqualTo(1);
+        assertThat(metrics.getCacheHitRate())
+                .as("Остальные обращения обслуживает кэш")
+                .isEqualTo(0.75);
+        assertThat(metrics.getCompileLatency().getCount())
+                .as("Подготовка измеряется при промахе кэша")
+                .isEqualTo(1);
+        assertThat(metrics.getEvaluateLatency().getCount())
+                .as("Вычисление подготовленного выражения измеряется при каждом вызове")
+                .isEqualTo(4);
+        assertThat(metrics.getFunction("max").getCallCount())
+                .as("Вызовы функции из скомпилированного кода тоже учитываются")
+                .isEqualTo(4);
+
+        calculator.registerFunction("fail", (Function2) (a, b) -> {
+            throw new IllegalStateException("fail");
+        });
+        assertThatThrownBy(() -> calculator.calculate("fail(1, 2)"))
+                .as("Исключение функции пробрасывается как прежде")
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(metrics.getErrorCount())
+                .as("Исключение при вычислении должно учитываться")
+                .isEqualTo(1);
+    }
+
+    @Test
+    void countErrorsWithAndWithoutCache() {
+        var expressions = List.of("1+", "2*(3", "abc(1)", "pow(2)", "1 + 2 + 3 + 4", "limit(1)", "1+2", "%");
+        var counts = new ArrayList<Long>();
+        var codes = new ArrayList<List<ErrorCode>>();
+        for (var cached : new boolean[]{false, true}) {
+            var metrics = new ErrorRecorder();
+            var builder = new ArithmeticCalculatorBuilder()
+                    .registerFunction("pow", (Function2) Math::pow)
+                    .registerFunction("limit", (Function1) x -> {
+                        throw new LimitExceededException(ErrorCode.TIMEOUT, 1);
+                    })
+                    .maxTokens(6)
+                    .listener(metrics);
+            if (cached) {
+                builder.expressionCache(16);
+            }
+            var calculator = builder.build();
+            for (var expression : expressions) {
+                try {
+                    calculator.calculate(expression);
+                } catch (ArithmeticException ignored) {
+                    // ошибки считает получатель событий
+                }
+            }
+            counts.add(metrics.getErrorCount());
+            codes.add(metrics.codes);
+        }
+
+        assertThat(counts)
+                .as("Ошибки разбора, ограничений и вычисления учитываются с кэшем и без него")
+                .containsExactly(7L, 7L);
+        assertThat(codes.get(1))
+                .as("С кэшем получатель видит те же коды ошибок, что и без него")
+                .isEqualTo(codes.get(0))
+                .containsExactly(ErrorCode.UNEXPECTED_TOKEN, ErrorCode.UNEXPECTED_TOKEN, ErrorCode.UNKNOWN_FUNCTION,
+                        ErrorCode.ARGUMENT_COUNT, ErrorCode.TOKEN_LIMIT, ErrorCode.TIMEOUT,
+                        ErrorCode.UNEXPECTED_CHARACTER);
+    }
+
+    /**
+     * Метрики, которые дополнительно записывают коды ошибок разбора и вычисления.
+     */
+    private static class ErrorRecorder extends CalculatorMetrics {
+        private final List<ErrorCode> codes = new ArrayList<>();
+
+        @Override
+        public void onTokenize(CharSequence expression, int tokenCount, int depth, long nanos, ErrorCode errorCode) {
+            super.onTokenize(expression, tokenCount, depth, nanos, errorCode);
+            if (errorCode != ErrorCode.NONE) {
+                codes.add(errorCode);
+            }
+        }
+
+        @Override
+        public void onEvaluate(CharSequence expression, int tokenCount, int depth, long nanos, ErrorCode errorCode) {
+            super.onEvaluate(expression, tokenCount, depth, nanos, errorCode);
+            if (errorCode != ErrorCode.NONE) {
+                codes.add(errorCode);
+            }
+        }
+    }
+
+    @Test
+    void wrappedFunctionsKeepBatchEvaluation() {
+        var metrics = new CalculatorMetrics();
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("max", new MaximalValueFunction())
+                .listener(metrics)
+                .build();
+        var prepared = calculator.prepare("max(x, 2)");
+        var out = new double[3];
+        prepared.evaluateBatch(new double[][]{{1.0, 5.0, 3.0}}, out);
+
+        assertThat(out)
+                .as("Пакетное вычисление через обертку")
+                .containsExactly(2.0, 5.0, 3.0);
+        assertThat(metrics.getFunction("max").getCallCount())
+                .as("Пакетный вызов учитывается по количеству строк")
+                .isEqualTo(3);
+    }
+
+    @Test
+    void histogramPercentiles() {
+        var histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getCount()).as("Количество значений").isEqualTo(100);
+        assertThat(histogram.getMean()).as("Среднее значение").isEqualTo(50.5);
+        assertThat(histogram.getPercentile(0.5))
+                .as("Медиана оценивается верхней границей корзины 32..63")
+                .isEqualTo(63);
+        assertThat(histogram.getPercentile(1.0))
+                .as("Перцентиль не больше наибольшего значения")
+                .isEqualTo(100);
+    }
+}
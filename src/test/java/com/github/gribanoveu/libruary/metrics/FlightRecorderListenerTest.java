@@ -0,0 +1,91 @@
+package com.github.gribanoveu.libruary.metrics;
+
+import com.github.gribanoveu.libruary.calculator.ArithmeticCalculatorBuilder;
+import com.github.gribanoveu.libruary.function.Function2;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class FlightRecorderListenerTest {
+    private static final String PREFIX = "com.github.gribanoveu.calculator.";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordAllEventsWithoutThreshold() throws Exception {
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("pow", (Function2) Math::pow)
+                .expressionCache(16)
+                .listener(new FlightRecorderListener(Duration.ZERO))
+                .build();
+        var events = record(() -> {
+            calculator.calculate("pow(2, (3))");
+            calculator.tryCalculate("2 + %");
+        });
+
+        assertThat(events)
+                .as("Каждый этап должен записываться в JFR")
+                .extracting(event -> event.getEventType().getName())
+                .contains(PREFIX + "CacheMiss", PREFIX + "Compile", PREFIX + "Evaluate",
+                        PREFIX + "FunctionCall", PREFIX + "Tokenize");
+        var compile = find(events, "Compile");
+        assertThat(compile.getInt("expressionHash"))
+                .as("Хэш совпадает с хэшем строки выражения")
+                .isEqualTo("pow(2, (3))".hashCode());
+        assertThat(compile.getInt("tokenCount")).as("Количество токенов").isEqualTo(8);
+        assertThat(compile.getInt("depth")).as("Вложенность").isEqualTo(2);
+        assertThat(find(events, "Tokenize").getString("error"))
+                .as("Ошибка разбора записывается кодом")
+                .isEqualTo("UNEXPECTED_CHARACTER");
+    }
+
+    @Test
+    void skipFastStagesBelowThreshold() throws Exception {
+        var calculator = new ArithmeticCalculatorBuilder()
+                .listener(new FlightRecorderListener(Duration.ofMinutes(1)))
+                .build();
+        var events = record(() -> {
+            calculator.calculate("2 + 2");
+            calculator.tryCalculate("2 + %");
+        });
+
+        assertThat(events)
+                .as("Быстрые этапы не записываются, ошибки записываются всегда")
+                .extracting(event -> event.getEventType().getName())
+                .containsExactly(PREFIX + "Tokenize");
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws Exception {
+        var file = directory.resolve("calculator.jfr");
+        try (var recording = new Recording()) {
+            for (var name : List.of("Tokenize", "Evaluate", "Compile", "CacheMiss", "FunctionCall")) {
+                recording.enable(PREFIX + name);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(PREFIX + name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
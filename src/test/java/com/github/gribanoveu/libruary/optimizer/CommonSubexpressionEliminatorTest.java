@@ -0,0 +1,119 @@
+package com.github.gribanoveu.libruary.optimizer;
+
+import com.github.gribanoveu.libruary.calculator.ArithmeticCalculatorBuilder;
+import com.github.gribanoveu.libruary.compiler.EvaluationBackend;
+import com.github.gribanoveu.libruary.expression.BinaryNode;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.expression.Operator;
+import com.github.gribanoveu.libruary.expression.VariableNode;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
+import com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class CommonSubexpressionEliminatorTest {
+    private final AtomicInteger callCount = new AtomicInteger();
+    private FunctionManager functionManager;
+    private SyntaxTreeBuilder treeBuilder;
+
+    @BeforeEach
+    void setUp() {
+        functionManager = new FunctionManager();
+        functionManager.registerFunction("max", new MaximalValueFunction(), true);
+        functionManager.registerFunction("rand", args -> Math.random());
+        treeBuilder = new SyntaxTreeBuilder(functionManager);
+    }
+
+    private ExpressionNode buildTree(String expression) {
+        var tokens = new ExpressionTokenizer(functionManager).parseExpression(expression);
+        return treeBuilder.buildTree(new TokenBuffer(tokens));
+    }
+
+    @Test
+    void shareOuterSubexpressionOnly() {
+        var root = buildTree("(a*b+c)/d + max((a*b+c), e) - (a*b+c)*f");
+        var result = new CommonSubexpressionEliminator().eliminate(root, treeBuilder.getVariables().size());
+
+        var a = new VariableNode("a", 0);
+        var b = new VariableNode("b", 1);
+        var c = new VariableNode("c", 2);
+        assertThat(result.temporaries())
+                .as("a*b встречается только внутри a*b+c и отдельным временным значением не становится")
+                .containsExactly(new BinaryNode(Operator.PLUS, new BinaryNode(Operator.MULTIPLICATION, a, b), c));
+        var slots = new double[]{2, 3, 4, 5, 1, 7, 0};
+        slots[6] = result.temporaries().get(0).evaluate(slots); // слот после переменных a, b, c, d, e, f
+        assertThat(result.roots().get(0).evaluate(slots))
+                .as("Результат совпадает с вычислением исходного дерева")
+                .isEqualTo(root.evaluate(slots));
+    }
+
+    @Test
+    void keepImpureCallsAndUniqueTrees() {
+        var eliminator = new CommonSubexpressionEliminator();
+        var impure = buildTree("rand(1) * 2 + rand(1) * 2");
+        assertThat(eliminator.eliminate(impure, 0).temporaries())
+                .as("Вызов обычной функции выполняется столько раз, сколько записан")
+                .isEmpty();
+
+        var unique = buildTree("a * b + b * a");
+        var result = eliminator.eliminate(unique, 2);
+        assertThat(result.temporaries()).as("Порядок операндов не меняется").isEmpty();
+        assertThat(result.roots()).as("Без общих подвыражений дерево не меняется").containsExactly(unique);
+    }
+
+    @Test
+    void evaluatePureFunctionOncePerEvaluation() {
+        for (var backend : EvaluationBackend.values()) {
+            callCount.set(0);
+            var calculator = new ArithmeticCalculatorBuilder()
+                    .registerPureFunction("npv", (Function2) (rate, value) -> {
+                        callCount.incrementAndGet();
+                        return value / (1 + rate);
+                    })
+                    .backend(backend)
+                    .build();
+
+            var prepared = calculator.prepare("npv(r, x) * 2 + npv(r, x) / 4 - npv(r, x)");
+            assertThat(prepared.evaluate(new double[]{1, 8})).as(backend.name()).isEqualTo(5.0);
+            assertThat(callCount.get())
+                    .as("Общий вызов чистой функции выполняется один раз: " + backend)
+                    .isEqualTo(1);
+
+            var group = calculator.prepareGroup(List.of("npv(r, x) + y", "npv(r, x) * y", "y - x"));
+            assertThat(group.getVariables()).containsExactly("r", "x", "y");
+            assertThat(group.getTemporaryCount()).isEqualTo(1);
+            assertThat(group.evaluate(new double[]{1, 8, 3}))
+                    .as("Формулы группы вычисляются с общими значениями: " + backend)
+                    .containsExactly(7.0, 12.0, -5.0);
+            assertThat(callCount.get()).as("Вызов общий для формул группы").isEqualTo(2);
+        }
+    }
+
+    @Test
+    void reenterFromFunction() {
+        var inner = new ArithmeticCalculatorBuilder().build()
+                .prepare("(x + 1) * (x + 1)");
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("square", (Function1) value -> inner.evaluate(new double[]{value - 1}))
+                .build();
+        var prepared = calculator.prepare("square(y * 2) + (y * 2)");
+
+        assertThat(prepared.evaluate(new double[]{3}))
+                .as("Вычисление другого выражения внутри функции не портит временные слоты")
+                .isEqualTo(42.0);
+    }
+}
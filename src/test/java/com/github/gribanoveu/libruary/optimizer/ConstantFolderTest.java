@@ -0,0 +1,99 @@
+package com.github.gribanoveu.libruary.optimizer;
+
+import com.github.gribanoveu.libruary.exception.FunctionException;
+import com.github.gribanoveu.libruary.expression.BinaryNode;
+import com.github.gribanoveu.libruary.expression.ChainNode;
+import com.github.gribanoveu.libruary.expression.ExpressionNode;
+import com.github.gribanoveu.libruary.expression.FunctionNode;
+import com.github.gribanoveu.libruary.expression.NumberNode;
+import com.github.gribanoveu.libruary.expression.Operator;
+import com.github.gribanoveu.libruary.expression.VariableNode;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import com.github.gribanoveu.libruary.parser.ExpressionTokenizer;
+import com.github.gribanoveu.libruary.parser.SyntaxTreeBuilder;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class ConstantFolderTest {
+    private FunctionManager functionManager;
+    private final ConstantFolder constantFolder = new ConstantFolder();
+
+    @BeforeEach
+    void setUp() {
+        functionManager = new FunctionManager();
+        functionManager.registerFunction("max", new MaximalValueFunction(), true);
+        functionManager.registerFunction("rand", args -> Math.random());
+        functionManager.registerFunction("fail", args -> {
+            throw new FunctionException("Always fails");
+        }, true);
+    }
+
+    private ExpressionNode buildTree(String expression) {
+        var tokens = new ExpressionTokenizer(functionManager).parseExpression(expression);
+        return new SyntaxTreeBuilder(functionManager).buildTree(new TokenBuffer(tokens));
+    }
+
+    @Test
+    void foldLiteralsAndPureFunctions() {
+        var folded = constantFolder.fold(buildTree("max(3, 5) * (2 + 8) / x"));
+
+        assertThat(folded)
+                .as("Константная часть должна быть свернута")
+                .isEqualTo(new BinaryNode(Operator.DIVISION, new NumberNode(50.0), new VariableNode("x", 0)));
+    }
+
+    @Test
+    void foldLeadingConstantsOfLongChain() {
+        var folded = constantFolder.fold(buildTree("1 + 2 + x" + " + 3".repeat(40)));
+
+        assertThat(folded).as("Цепочка остается одним узлом").isInstanceOf(ChainNode.class);
+        var chain = (ChainNode) folded;
+        assertThat(chain.operands().subList(0, 3))
+                .as("Сворачиваются только константы в начале цепочки, порядок операций не меняется")
+                .containsExactly(new NumberNode(3.0), new VariableNode("x", 0), new NumberNode(3.0));
+        assertThat(chain.operands()).hasSize(42);
+        assertThat(constantFolder.fold(buildTree("1" + " + 1".repeat(40))))
+                .as("Цепочка из констант сворачивается целиком")
+                .isEqualTo(new NumberNode(41.0));
+    }
+
+    @Test
+    void keepImpureFunctions() {
+        var folded = constantFolder.fold(buildTree("rand(1 + 1)"));
+
+        assertThat(folded)
+                .as("Функция без признака чистоты вызывается при каждом вычислении")
+                .isInstanceOf(FunctionNode.class);
+        assertThat(((FunctionNode) folded).arguments())
+                .as("Аргументы функции сворачиваются")
+                .containsExactly(new NumberNode(2.0));
+    }
+
+    @Test
+    void keepDivisionByZeroSemantics() {
+        assertThat(constantFolder.fold(buildTree("1 / 0 - 2")))
+                .isEqualTo(new NumberNode(Double.POSITIVE_INFINITY));
+        assertThat(constantFolder.fold(buildTree("0 / 0")))
+                .isEqualTo(new NumberNode(Double.NaN));
+        assertThat(constantFolder.fold(buildTree("-(0 * 1)")))
+                .as("Знак нуля должен сохраняться")
+                .isEqualTo(new NumberNode(-0.0));
+    }
+
+    @Test
+    void keepFailingCallsForEvaluation() {
+        var folded = constantFolder.fold(buildTree("2 + fail(1)"));
+
+        assertThat(folded)
+                .as("Ошибка чистой функции должна возникать при вычислении")
+                .isInstanceOf(BinaryNode.class);
+    }
+}
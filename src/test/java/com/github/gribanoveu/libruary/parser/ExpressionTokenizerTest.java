@@ -159,6 +159,23 @@ class ExpressionTokenizerTest {
                 );
     }
 
+    @Test
+    void tokenizeVariable() {
+        var expression = "price_1 * function(qty)";
+        var tokenizerResult = tokenizer.parseExpression(expression);
+        assertThat(tokenizerResult)
+                .as("Выражение не имеет ожидаемых токенов")
+                .containsExactly(
+                        new Token(TokenType.VARIABLE, "price_1"),
+                        new Token(TokenType.OP_MULTIPLICATION, "*"),
+                        new Token(TokenType.FUNCTION, "function"),
+                        new Token(TokenType.LEFT_BRACKET, "("),
+                        new Token(TokenType.VARIABLE, "qty"),
+                        new Token(TokenType.RIGHT_BRACKET, ")"),
+                        new Token(TokenType.EOF, "")
+                );
+    }
+
     @Test
     void tokenizeThrowException() {
         assertThatThrownBy(() -> tokenizer.parseExpression("2&"))
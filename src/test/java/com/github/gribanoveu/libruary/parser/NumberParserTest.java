@@ -0,0 +1,100 @@
+package com.github.gribanoveu.libruary.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class NumberParserTest {
+
+    @Test
+    void scanLiteral() {
+        assertThat(NumberParser.scan("12+3", 0)).as("Целое число").isEqualTo(2);
+        assertThat(NumberParser.scan("1.25*2", 0)).as("Дробная часть").isEqualTo(4);
+        assertThat(NumberParser.scan("2e-3)", 0)).as("Экспонента со знаком").isEqualTo(4);
+        assertThat(NumberParser.scan("1 . 5 E 3 ", 0)).as("Пробелы внутри литерала").isEqualTo(9);
+        assertThat(NumberParser.scan("2e+x", 0)).as("Экспонента без цифр не входит в литерал").isEqualTo(1);
+        assertThat(NumberParser.scan("3.e", 0)).as("Точка без цифр не входит в литерал").isEqualTo(1);
+    }
+
+    @Test
+    void parseKnownValues() {
+        assertParsed("0");
+        assertParsed("000.000e10");
+        assertParsed("1.5");
+        assertParsed("0.1");
+        assertParsed("6.02e23");
+        assertParsed("9007199254740993");
+        assertParsed("12345678901234567890123");
+        assertParsed("0.000000000000000000000000000001234567890123456789");
+        assertParsed("1.7976931348623157e308");
+        assertParsed("1.7976931348623159e308");
+        assertParsed("2.2250738585072014e-308");
+        assertParsed("4.9e-324");
+        assertParsed("1e-400");
+        assertParsed("1e99999999999");
+        assertParsed("2.00000000000000011102230246251565404236316680908203125");
+        assertParsed("7.3177701707893310e15");
+    }
+
+    @Test
+    void parseSameAsDouble() {
+        var random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            var builder = new StringBuilder();
+            builder.append(random.nextInt(10));
+            var digits = 1 + random.nextInt(i % 3 == 0 ? 25 : 17);
+            for (int j = 0; j < digits; j++) {
+                builder.append(random.nextInt(10));
+            }
+            if (random.nextBoolean()) {
+                builder.insert(1 + random.nextInt(builder.length() - 1), '.');
+            }
+            if (random.nextBoolean()) {
+                builder.append(random.nextBoolean() ? 'e' : 'E')
+                        .append(random.nextBoolean() ? '-' : "")
+                        .append(random.nextInt(330));
+            }
+            assertParsed(builder.toString());
+        }
+        for (int i = 0; i < 10_000; i++) { // точные представления случайных double
+            var value = Math.abs(Double.longBitsToDouble(random.nextLong()));
+            if (Double.isFinite(value)) {
+                assertParsed(Double.toString(value));
+            }
+        }
+    }
+
+    @Test
+    void eiselLemireWithoutFallback() {
+        assertThat(NumberParser.eiselLemire(1234567890123456789L, 100))
+                .as("Большой порядок разбирается без Double.parseDouble")
+                .isEqualTo(Double.parseDouble("1234567890123456789e100"));
+        assertThat(NumberParser.eiselLemire(-8_000_000_000_000_000_001L, -20))
+                .as("Мантисса из 19 цифр, превышающая Long.MAX_VALUE, без знака")
+                .isEqualTo(Double.parseDouble("10446744073709551615e-20"));
+        assertThat(NumberParser.eiselLemire(1, -330))
+                .as("Субнормальные числа отдаются Double.parseDouble")
+                .isNaN();
+    }
+
+    @Test
+    void parseUnicodeDigitsAndWhitespace() {
+        assertThat(NumberParser.parse("١٢.٥", 0, 4)).as("Цифры других алфавитов").isEqualTo(12.5);
+        assertThat(NumberParser.parse("1 2 . 5 e 1", 0, 11)).as("Пробелы пропускаются").isEqualTo(125.0);
+    }
+
+    private static void assertParsed(String literal) {
+        assertThat(NumberParser.scan(literal, 0))
+                .as("Литерал должен быть прочитан целиком: " + literal)
+                .isEqualTo(literal.length());
+        assertThat(Double.valueOf(NumberParser.parse(literal, 0, literal.length())))
+                .as("Значение должно совпадать с Double.parseDouble: " + literal)
+                .isEqualTo(Double.valueOf(Double.parseDouble(literal)));
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.gribanoveu.libruary.parser;
+
+import com.github.gribanoveu.libruary.entity.TokenType;
+import com.github.gribanoveu.libruary.exception.FunctionException;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class PackedTokenizerTest {
+    private FunctionManager functionManager;
+    private PackedTokenizer tokenizer;
+    private TokenStream stream;
+
+    @BeforeEach
+    void setUp() {
+        functionManager = new FunctionManager();
+        functionManager.registerFunction("function", x -> 0.0);
+        tokenizer = new PackedTokenizer(functionManager);
+        stream = new TokenStream();
+    }
+
+    @Test
+    void sameTokensAsExpressionTokenizer() {
+        var expressions = new String[]{"", "   ", "2", "123+45", "2 +2", "+-*/", "(),", "function(2)",
+                "1 2 + fun ction(x, y_1)", "-4 + 8 + (3 +2-1) * price / 12345678901234567890",
+                "1.5 + 2e3 * 0.25E-2 - 6.02e+23", "1. 5 e 3", "3e + 4e-"};
+        for (var expression : expressions) {
+            assertSameTokens(expression);
+        }
+    }
+
+    private void assertSameTokens(String expression) {
+        var expected = new ExpressionTokenizer(functionManager).parseExpression(expression);
+
+        tokenizer.tokenize(expression, stream);
+
+        var types = new ArrayList<TokenType>();
+        for (int index = 0; index < stream.size(); index++) {
+            types.add(stream.getType(index));
+        }
+        assertThat(types)
+                .as("Типы токенов должны совпадать с ExpressionTokenizer: " + expression)
+                .containsExactlyElementsOf(expected.stream().map(token -> token.type()).toList());
+        for (int index = 0; index < stream.size(); index++) {
+            if (stream.getType(index) == TokenType.NUMBER) {
+                assertThat(stream.getNumber(index))
+                        .as("Число должно быть разобрано при токенизации")
+                        .isEqualTo(expected.get(index).number());
+            }
+        }
+    }
+
+    @Test
+    void tokenOffsets() {
+        tokenizer.tokenize(" 12 * x", stream);
+
+        assertThat(stream.getText(0)).isEqualTo("12");
+        assertThat(stream.getStart(2)).isEqualTo(6);
+        assertThat(stream.getEnd(2)).isEqualTo(7);
+    }
+
+    @Test
+    void tokenizeThrowFunctionException() {
+        assertThatThrownBy(() -> tokenizer.tokenize("2+rand (256)", stream))
+                .as("Ожидался неверный токен")
+                .isInstanceOf(FunctionException.class)
+                .hasMessageContaining("Function not found: rand");
+    }
+
+    @Test
+    void tokenizeWithoutAllocation() {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var expression = "function(3 + 2 * 5, 9) - (4 - 6) / 4 + price * 1000";
+        for (int i = 0; i < 20_000; i++) { // прогрев и рост массивов потока
+            tokenizer.tokenize(expression, stream);
+        }
+
+        var allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            tokenizer.tokenize(expression, stream);
+        }
+        var allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        assertThat(allocated)
+                .as("Повторная токенизация не должна выделять память")
+                .isLessThan(1024);
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.gribanoveu.libruary.parser;
+
+import com.github.gribanoveu.libruary.entity.CalculationResult;
+import com.github.gribanoveu.libruary.entity.ErrorCode;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.MinimalValueFunction;
+import com.github.gribanoveu.libruary.function.VarargFunction;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class StackEvaluatorTest {
+    private PackedTokenizer tokenizer;
+    private StackEvaluator evaluator;
+    private TokenStream stream;
+
+    @BeforeEach
+    void setUp() {
+        var functionManager = new FunctionManager();
+        functionManager.registerFunction("min", new MinimalValueFunction());
+        functionManager.registerFunction("pow", (Function2) Math::pow);
+        functionManager.registerFunction("sum", (VarargFunction) (args, length) -> {
+            var sum = 0.0;
+            for (int i = 0; i < length; i++) {
+                sum += args[i];
+            }
+            return sum;
+        });
+        tokenizer = new PackedTokenizer(functionManager);
+        evaluator = new StackEvaluator();
+        stream = new TokenStream();
+    }
+
+    @Test
+    void resultsAndErrorsOfRecursiveDescent() {
+        // значения, коды и позиции ошибок рекурсивного спуска, по которым сверялся анализатор
+        var cases = new Object[][]{
+                {"", 0.0}, {"2", 2.0}, {"- 4 + 8 + (3 +2-1)", 8.0}, {"122 + 3 -2* (2 * 5 + 2) * 4", 29.0},
+                {"1 / 0", Double.POSITIVE_INFINITY}, {"min(4, pow(2, 3), -1) * 2", -2.0},
+                {"m in(3, 4) + p ow(min(2, 9), min(3, 1 0))", 11.0}, {"2 3 + 1", 24.0},
+                {"-2 * -3 - -(4 - 1) / 2", 7.5}, {"1 - 2 - 3 * 4 / 5 / 6 + 7", 1 - 2 - 3.0 * 4 / 5 / 6 + 7},
+                {"0.1 + 0.2 * 3 - 1e-3 / 7", 0.1 + 0.2 * 3 - 1e-3 / 7},
+                {"sum(1, -(2), (3 + 4) * 5, min(6, 7 - 8)) / 3", 11.0},
+                // лишние токены после выражения не читаются
+                {"2 ) + 1", 2.0}, {"2, 3", 2.0}, {"(1) (2)", 1.0},
+                {"(", ErrorCode.UNEXPECTED_TOKEN, 2}, {"()", ErrorCode.UNEXPECTED_TOKEN, 2},
+                {"(2 + 3", ErrorCode.UNEXPECTED_TOKEN, 5}, {"2 +", ErrorCode.UNEXPECTED_TOKEN, 3},
+                {"2 * * 3", ErrorCode.UNEXPECTED_TOKEN, 3}, {"min()", ErrorCode.UNEXPECTED_TOKEN, 3},
+                {"min(1,)", ErrorCode.UNEXPECTED_TOKEN, 5}, {"min(1 2", ErrorCode.UNEXPECTED_TOKEN, 4},
+                {"pow(1)", ErrorCode.ARGUMENT_COUNT, 1}, {"pow 2", ErrorCode.UNBOUND_VARIABLE, 1},
+                {"price * 2", ErrorCode.UNBOUND_VARIABLE, 1}, {"-(x)", ErrorCode.UNBOUND_VARIABLE, 3},
+                {"sum(1, (2, 3))", ErrorCode.UNEXPECTED_TOKEN, 7}, {")", ErrorCode.UNEXPECTED_TOKEN, 1},
+                {"+1", ErrorCode.UNEXPECTED_TOKEN, 1}};
+        var result = new CalculationResult();
+        for (var testCase : cases) {
+            var expression = (String) testCase[0];
+            tokenizer.tokenize(expression, stream);
+            var success = evaluator.tryCalculateExpression(stream, result);
+
+            if (testCase[1] instanceof ErrorCode errorCode) {
+                assertThat(success).as("Выражение должно дать ошибку: " + expression).isFalse();
+                assertThat(result.getErrorCode()).as("Код ошибки: " + expression).isEqualTo(errorCode);
+                assertThat(result.getTokenPosition()).as("Позиция ошибки: " + expression).isEqualTo(testCase[2]);
+            } else {
+                assertThat(success).as("Выражение должно вычислиться: " + expression).isTrue();
+                assertThat(Double.valueOf(result.getValue())).as("Результат: " + expression).isEqualTo(testCase[1]);
+            }
+        }
+    }
+
+    @Test
+    void deepNestingWithoutStackOverflow() {
+        var depth = 200_000;
+        var brackets = "(".repeat(depth) + "1" + ")".repeat(depth);
+        var negations = "-".repeat(depth + 1) + "1";
+        var calls = "min(".repeat(depth) + "2" + ", 3)".repeat(depth);
+
+        assertThat(calculate(brackets)).as("Вложенные скобки").isEqualTo(1.0);
+        assertThat(calculate(negations)).as("Унарные минусы").isEqualTo(-1.0);
+        assertThat(calculate(calls)).as("Вложенные вызовы функций").isEqualTo(2.0);
+        assertThat(calculate("(".repeat(depth) + "1"))
+                .as("Незакрытые скобки дают ошибку, а не переполнение стека")
+                .isNaN();
+    }
+
+    @Test
+    void calculateWithoutAllocation() {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var expression = "min(3 + 2 * 5, -(9)) - (4 - 6) / 4 + sum(1, 2, pow(2, 10)) * 1000";
+        tokenizer.tokenize(expression, stream);
+        for (int i = 0; i < 20_000; i++) { // прогрев
+            evaluator.calculateExpression(stream);
+        }
+
+        var allocated = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 3; attempt++) { // лучший из замеров, чтобы не учитывать работу JIT
+            var allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 10_000; i++) {
+                evaluator.calculateExpression(stream);
+            }
+            allocated = Math.min(allocated, threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore);
+        }
+
+        assertThat(allocated)
+                .as("Повторное вычисление не должно выделять память")
+                .isLessThan(1024);
+    }
+
+    private double calculate(String expression) {
+        var result = new CalculationResult();
+        tokenizer.tokenize(expression, stream);
+        evaluator.tryCalculateExpression(stream, result);
+        return result.getValue();
+    }
+}
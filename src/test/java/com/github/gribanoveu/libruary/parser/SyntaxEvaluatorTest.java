@@ -3,6 +3,7 @@ package com.github.gribanoveu.libruary.parser;
 import com.github.gribanoveu.libruary.entity.Token;
 import com.github.gribanoveu.libruary.entity.TokenType;
 import com.github.gribanoveu.libruary.exception.InvalidTokenException;
+import com.github.gribanoveu.libruary.exception.VariableException;
 import com.github.gribanoveu.libruary.function.CalculateFunction;
 import com.github.gribanoveu.libruary.util.FunctionManager;
 import com.github.gribanoveu.libruary.util.TokenBuffer;
@@ -18,7 +19,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author Evgeny Gribanov
- * @version 19.04.2024
+ * @version 17.10.2026
  */
 class SyntaxEvaluatorTest {
     private ExpressionEvaluator syntaxEvaluator;
@@ -391,6 +392,32 @@ class SyntaxEvaluatorTest {
                     .isInstanceOf(InvalidTokenException.class)
                     .hasMessageContaining("Unexpected token at position: 4");
         }
+
+        @Test
+        void failedCallsDoNotGrowArgumentStack() throws ReflectiveOperationException {
+            var tokens = List.of( // min(1, 2, x) = ошибка на третьем аргументе
+                    new Token(TokenType.FUNCTION, "min"),
+                    new Token(TokenType.LEFT_BRACKET, "("),
+                    new Token(TokenType.NUMBER, "1"),
+                    new Token(TokenType.COMMA, ","),
+                    new Token(TokenType.NUMBER, "2"),
+                    new Token(TokenType.COMMA, ","),
+                    new Token(TokenType.VARIABLE, "x"),
+                    new Token(TokenType.RIGHT_BRACKET, ")"),
+                    new Token(TokenType.EOF, "")
+            );
+
+            for (int i = 0; i < 100_000; i++) {
+                assertThatThrownBy(() -> syntaxEvaluator.calculateExpression(new TokenBuffer(tokens)))
+                        .isInstanceOf(VariableException.class);
+            }
+
+            var argumentTop = SyntaxEvaluator.class.getDeclaredField("argumentTop");
+            argumentTop.setAccessible(true);
+            assertThat(argumentTop.get(syntaxEvaluator))
+                    .as("Аргументы неудачного вызова снимаются со стека")
+                    .isEqualTo(0);
+        }
     }
 
     @Nested
@@ -0,0 +1,164 @@
+package com.github.gribanoveu.libruary.parser;
+
+import com.github.gribanoveu.libruary.entity.Token;
+import com.github.gribanoveu.libruary.entity.TokenType;
+import com.github.gribanoveu.libruary.exception.FunctionException;
+import com.github.gribanoveu.libruary.exception.InvalidTokenException;
+import com.github.gribanoveu.libruary.expression.BinaryNode;
+import com.github.gribanoveu.libruary.expression.ChainNode;
+import com.github.gribanoveu.libruary.expression.NumberNode;
+import com.github.gribanoveu.libruary.expression.Operator;
+import com.github.gribanoveu.libruary.function.Function1;
+import com.github.gribanoveu.libruary.util.FunctionManager;
+import com.github.gribanoveu.libruary.util.TokenBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class SyntaxTreeBuilderTest {
+    private ExpressionParser treeBuilder;
+
+    @BeforeEach
+    void setUp() {
+        var functionManager = new FunctionManager();
+        functionManager.registerFunction("pow", args -> Math.pow(args.get(0), args.get(1)));
+        functionManager.registerFunction("sqrt", (Function1) Math::sqrt);
+        treeBuilder = new SyntaxTreeBuilder(functionManager);
+    }
+
+    @Test
+    void buildPriorityTree() {
+        var buffer = new TokenBuffer(List.of( // 2 + 3 * 4
+                new Token(TokenType.NUMBER, "2"),
+                new Token(TokenType.OP_PLUS, "+"),
+                new Token(TokenType.NUMBER, "3"),
+                new Token(TokenType.OP_MULTIPLICATION, "*"),
+                new Token(TokenType.NUMBER, "4"),
+                new Token(TokenType.EOF, "")
+        ));
+
+        var tree = treeBuilder.buildTree(buffer);
+
+        assertThat(tree)
+                .as("Умножение должно быть глубже сложения")
+                .isEqualTo(new BinaryNode(Operator.PLUS,
+                        new NumberNode(2.0),
+                        new BinaryNode(Operator.MULTIPLICATION, new NumberNode(3.0), new NumberNode(4.0))));
+    }
+
+    @Test
+    void evaluateTreeRepeatedly() {
+        var buffer = new TokenBuffer(List.of( // -2 + pow(3, 2) = 7
+                new Token(TokenType.OP_MINUS, "-"),
+                new Token(TokenType.NUMBER, "2"),
+                new Token(TokenType.OP_PLUS, "+"),
+                new Token(TokenType.FUNCTION, "pow"),
+                new Token(TokenType.LEFT_BRACKET, "("),
+                new Token(TokenType.NUMBER, "3"),
+                new Token(TokenType.COMMA, ","),
+                new Token(TokenType.NUMBER, "2"),
+                new Token(TokenType.RIGHT_BRACKET, ")"),
+                new Token(TokenType.EOF, "")
+        ));
+
+        var tree = treeBuilder.buildTree(buffer);
+
+        assertThat(tree.evaluate(new double[0]))
+                .as("Неверный результат расчета")
+                .isEqualTo(7.0);
+        assertThat(tree.evaluate(new double[0]))
+                .as("Повторное вычисление должно давать тот же результат")
+                .isEqualTo(7.0);
+    }
+
+    @Test
+    void buildVariableSlots() {
+        var buffer = new TokenBuffer(List.of( // x * y + x
+                new Token(TokenType.VARIABLE, "x"),
+                new Token(TokenType.OP_MULTIPLICATION, "*"),
+                new Token(TokenType.VARIABLE, "y"),
+                new Token(TokenType.OP_PLUS, "+"),
+                new Token(TokenType.VARIABLE, "x"),
+                new Token(TokenType.EOF, "")
+        ));
+        var builder = new SyntaxTreeBuilder(new FunctionManager());
+
+        var tree = builder.buildTree(buffer);
+
+        assertThat(builder.getVariables())
+                .as("Повторная переменная должна использовать тот же слот")
+                .containsExactly("x", "y");
+        assertThat(tree.evaluate(new double[]{3, 4}))
+                .as("Неверный результат расчета")
+                .isEqualTo(15.0);
+    }
+
+    @Test
+    void exceptionWhenNoCloseBracket() {
+        var buffer = new TokenBuffer(List.of( // (2 + 3 = ошибка
+                new Token(TokenType.LEFT_BRACKET, "("),
+                new Token(TokenType.NUMBER, "2"),
+                new Token(TokenType.OP_PLUS, "+"),
+                new Token(TokenType.NUMBER, "3"),
+                new Token(TokenType.EOF, "")
+        ));
+
+        assertThatThrownBy(() -> treeBuilder.buildTree(buffer))
+                .as("Ожидался неверный токен")
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("Unexpected token at position: 5");
+    }
+
+    @Test
+    void wrongArityFailsOnBuild() {
+        var buffer = new TokenBuffer(List.of( // sqrt(1, 2)
+                new Token(TokenType.FUNCTION, "sqrt"),
+                new Token(TokenType.LEFT_BRACKET, "("),
+                new Token(TokenType.NUMBER, "1"),
+                new Token(TokenType.COMMA, ","),
+                new Token(TokenType.NUMBER, "2"),
+                new Token(TokenType.RIGHT_BRACKET, ")"),
+                new Token(TokenType.EOF, "")
+        ));
+
+        assertThatThrownBy(() -> treeBuilder.buildTree(buffer))
+                .as("Количество аргументов функции проверяется при построении дерева")
+                .isInstanceOf(FunctionException.class)
+                .hasMessageContaining("Function sqrt expects 1 arguments, got 2");
+    }
+
+    @Test
+    void longChainBecomesOneNode() {
+        var functionManager = new FunctionManager();
+        var longest = "x" + " - 0.1".repeat(SyntaxTreeBuilder.MAX_BINARY_CHAIN - 1);
+        var longer = longest + " / 3 * 7 - 0.1";
+
+        var binary = new SyntaxTreeBuilder(functionManager).buildTree(tokens(functionManager, longest));
+        var chain = new SyntaxTreeBuilder(functionManager).buildTree(tokens(functionManager, longer));
+
+        assertThat(binary).as("Короткая цепочка строится из BinaryNode").isInstanceOf(BinaryNode.class);
+        assertThat(chain).as("Длинная цепочка - один узел").isInstanceOf(ChainNode.class);
+        assertThat(((ChainNode) chain).operands()).hasSize(SyntaxTreeBuilder.MAX_BINARY_CHAIN + 1);
+        var slots = new double[]{10};
+        var prefix = 10.0; // все слагаемые, кроме последнего, которое в длинной цепочке стало произведением
+        for (int i = 2; i < SyntaxTreeBuilder.MAX_BINARY_CHAIN; i++) {
+            prefix -= 0.1;
+        }
+        assertThat(binary.evaluate(slots)).isEqualTo(prefix - 0.1);
+        assertThat(chain.evaluate(slots))
+                .as("Операторы цепочки применяются слева направо, результат совпадает до бита")
+                .isEqualTo(prefix - 0.1 / 3 * 7 - 0.1);
+    }
+
+    private static TokenBuffer tokens(FunctionManager functionManager, String expression) {
+        return new TokenBuffer(new ExpressionTokenizer(functionManager).parseExpression(expression));
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.gribanoveu.libruary.sheet;
+
+import com.github.gribanoveu.libruary.calculator.ArithmeticCalculatorBuilder;
+import com.github.gribanoveu.libruary.exception.CyclicReferenceException;
+import com.github.gribanoveu.libruary.exception.VariableException;
+import com.github.gribanoveu.libruary.function.MaximalValueFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class FormulaSheetTest {
+    private FormulaSheet sheet;
+
+    @BeforeEach
+    void setUp() {
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerFunction("max", new MaximalValueFunction())
+                .build();
+        sheet = new FormulaSheet(calculator);
+    }
+
+    @Test
+    void recalculateOnlyDirtyCells() {
+        sheet.setValue("price", 10);
+        sheet.setValue("qty", 3);
+        sheet.setValue("discount", 5);
+        sheet.setFormula("subtotal", "price * qty");
+        sheet.setFormula("total", "max(subtotal - discount, 0)");
+        sheet.setFormula("unrelated", "discount * 2");
+        sheet.recalculate();
+
+        sheet.setValue("qty", 4);
+
+        assertThat(sheet.recalculate())
+                .as("Пересчитываются только измененная ячейка и зависящие от нее")
+                .isEqualTo(3);
+        assertThat(sheet.getValue("total"))
+                .as("Неверное значение после пересчета")
+                .isEqualTo(35.0);
+        assertThat(sheet.getValue("unrelated")).isEqualTo(10.0);
+        assertThat(sheet.getDependencies("total")).containsExactly("subtotal", "discount");
+    }
+
+    @Test
+    void rejectCycle() {
+        sheet.setFormula("a", "b + 1");
+        sheet.setFormula("b", "c * 2");
+        sheet.setValue("c", 1);
+
+        assertThatThrownBy(() -> sheet.setFormula("c", "a - 1"))
+                .as("Циклическая ссылка должна быть отклонена")
+                .isInstanceOf(CyclicReferenceException.class);
+        assertThatThrownBy(() -> sheet.setFormula("d", "d + 1"))
+                .as("Ссылка на саму себя должна быть отклонена")
+                .isInstanceOf(CyclicReferenceException.class);
+        assertThat(sheet.getValue("a"))
+                .as("После отклоненной формулы лист не меняется")
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void undefinedCellPropagatesError() {
+        sheet.setFormula("total", "price * 2");
+        sheet.setFormula("report", "total + 1");
+
+        assertThatThrownBy(() -> sheet.getValue("report"))
+                .as("Ошибка ячейки распространяется на зависимые ячейки")
+                .isInstanceOf(VariableException.class)
+                .hasMessageContaining("Cell not defined: price");
+
+        sheet.setValue("price", 4);
+
+        assertThat(sheet.getValue("report"))
+                .as("После определения ячейки зависимые пересчитываются")
+                .isEqualTo(9.0);
+    }
+
+    @Test
+    void recalculateIndependentBranchesInParallel() {
+        var pool = new ForkJoinPool(4);
+        try {
+            var parallelSheet = new FormulaSheet(new ArithmeticCalculatorBuilder().build(), pool);
+            parallelSheet.setValue("base", 1);
+            var cells = FormulaSheet.PARALLEL_THRESHOLD * 10;
+            for (int index = 0; index < cells; index++) {
+                parallelSheet.setFormula("branch" + index, "base * " + index);
+                parallelSheet.setFormula("leaf" + index, "branch" + index + " + 1");
+            }
+            parallelSheet.recalculate();
+
+            parallelSheet.setValue("base", 2);
+
+            assertThat(parallelSheet.recalculate())
+                    .as("Пересчитываются входная ячейка, ветви и листья")
+                    .isEqualTo(1 + cells * 2);
+            for (int index = 0; index < cells; index++) {
+                assertThat(parallelSheet.getValue("leaf" + index))
+                        .as("Неверное значение ячейки leaf" + index)
+                        .isEqualTo(index * 2 + 1.0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
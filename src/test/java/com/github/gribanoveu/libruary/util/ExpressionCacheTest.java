@@ -0,0 +1,89 @@
+package com.github.gribanoveu.libruary.util;
+
+import com.github.gribanoveu.libruary.expression.CompiledExpression;
+import com.github.gribanoveu.libruary.expression.NumberNode;
+import com.github.gribanoveu.libruary.expression.PreparedExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class ExpressionCacheTest {
+    private final AtomicInteger compileCount = new AtomicInteger();
+
+    private PreparedExpression compile(String expression) {
+        compileCount.incrementAndGet();
+        return new CompiledExpression(expression, new NumberNode(expression.length()), List.of());
+    }
+
+    @Test
+    void hitIgnoresWhitespace() {
+        var cache = new ExpressionCache(10, Long.MAX_VALUE);
+
+        var first = cache.get("2 + 2", this::compile);
+        var second = cache.get("2+2", this::compile);
+        var third = cache.get("\t2 +2\n", this::compile);
+
+        assertThat(second)
+                .as("Выражения с разными пробелами - одна запись кэша")
+                .isSameAs(first)
+                .isSameAs(third);
+        assertThat(compileCount.get()).isEqualTo(1);
+        assertThat(cache.getStats())
+                .as("Неверные счетчики кэша")
+                .isEqualTo(new CacheStats(2, 1, 0, 1));
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        var cache = new ExpressionCache(2, Long.MAX_VALUE);
+        cache.get("1", this::compile);
+        cache.get("2", this::compile);
+        cache.get("3", this::compile); // первый оборот стрелки снимает флаги, вытесняется "1"
+        cache.get("2", this::compile); // "2" снова используется
+        cache.get("4", this::compile); // "3" не использовалось после добавления
+
+        cache.get("2", this::compile);
+
+        assertThat(cache.getStats())
+                .as("Неверные счетчики кэша")
+                .isEqualTo(new CacheStats(2, 4, 2, 2));
+    }
+
+    @Test
+    void evictByWeight() {
+        var cache = new ExpressionCache(100, 6);
+        cache.get("1+2", this::compile);
+        cache.get("3+4", this::compile);
+        cache.get("5+6", this::compile);
+        cache.get("1234567", this::compile); // длиннее всего кэша, не сохраняется
+
+        assertThat(cache.getStats().size()).isEqualTo(2);
+        assertThat(cache.getStats().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void removeIfKeepsRingConsistent() {
+        var cache = new ExpressionCache(3, Long.MAX_VALUE);
+        cache.get("1", this::compile);
+        cache.get("22", this::compile);
+        cache.get("333", this::compile);
+
+        var removed = cache.removeIf(prepared -> prepared.getExpression().length() % 2 == 1);
+        cache.get("4444", this::compile);
+        cache.get("55555", this::compile);
+        cache.get("666666", this::compile); // вытеснение после удаления идет по оставшемуся кольцу
+
+        assertThat(removed)
+                .as("Должны быть удалены выражения нечетной длины")
+                .isEqualTo(2);
+        assertThat(cache.getStats().size()).isEqualTo(3);
+        assertThat(cache.getStats().evictionCount()).isEqualTo(1);
+    }
+}
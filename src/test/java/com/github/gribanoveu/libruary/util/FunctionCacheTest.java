@@ -0,0 +1,110 @@
+package com.github.gribanoveu.libruary.util;
+
+import com.github.gribanoveu.libruary.calculator.ArithmeticCalculatorBuilder;
+import com.github.gribanoveu.libruary.compiler.EvaluationBackend;
+import com.github.gribanoveu.libruary.entity.MemoizationPolicy;
+import com.github.gribanoveu.libruary.function.CalculateFunction;
+import com.github.gribanoveu.libruary.function.Function2;
+import com.github.gribanoveu.libruary.function.VarargFunction;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class FunctionCacheTest {
+    private final AtomicInteger callCount = new AtomicInteger();
+
+    @Test
+    void reuseResultForSameArguments() {
+        var cache = new FunctionCache(MemoizationPolicy.maxEntries(16));
+        var pow = (Function2) cache.memoize((Function2) (a, b) -> {
+            callCount.incrementAndGet();
+            return Math.pow(a, b);
+        });
+
+        assertThat(pow.apply(2, 10)).isEqualTo(1024.0);
+        assertThat(pow.apply(2, 10)).isEqualTo(1024.0);
+        assertThat(pow.apply(10, 2)).isEqualTo(100.0);
+        assertThat(pow.apply(Double.NaN, 1)).isNaN();
+        assertThat(pow.apply(Double.NaN, 1)).isNaN();
+
+        assertThat(callCount.get())
+                .as("Функция вызывается один раз на каждый набор аргументов, NaN равны между собой")
+                .isEqualTo(3);
+        assertThat(cache.getStats())
+                .as("Неверные счетчики кэша")
+                .isEqualTo(new CacheStats(2, 3, 0, 3));
+    }
+
+    @Test
+    void keepCallKindAndCompareAllArguments() {
+        var cache = new FunctionCache(MemoizationPolicy.maxEntries(16));
+        var sum = cache.memoize((CalculateFunction) args -> {
+            callCount.incrementAndGet();
+            return args.stream().mapToDouble(Double::doubleValue).sum();
+        });
+
+        assertThat(sum)
+                .as("Функция со списком аргументов вызывается с кэшем без упаковки")
+                .isInstanceOf(VarargFunction.class);
+        var vararg = (VarargFunction) sum;
+        var args = new double[]{1, 2, 3, 99};
+        assertThat(vararg.apply(args, 3)).isEqualTo(6.0);
+        args[2] = 4; // массив аргументов переиспользуется калькулятором
+        assertThat(vararg.apply(args, 3)).isEqualTo(7.0);
+        assertThat(vararg.apply(new double[]{1, 2, 4}, 3)).isEqualTo(7.0);
+        assertThat(vararg.apply(new double[]{1, 2, 4, 0}, 4)).isEqualTo(7.0);
+        assertThat(callCount.get())
+                .as("Сохраняется копия аргументов, количество аргументов входит в ключ")
+                .isEqualTo(3);
+    }
+
+    @Test
+    void expireAfterTimeToLive() throws InterruptedException {
+        var cache = new FunctionCache(MemoizationPolicy.maxEntries(4).withTtl(Duration.ofMillis(20)));
+        var function = (VarargFunction) cache.memoize((VarargFunction) (args, length) -> callCount.incrementAndGet());
+
+        assertThat(function.apply(new double[]{1}, 1)).isEqualTo(1.0);
+        assertThat(function.apply(new double[]{1}, 1)).isEqualTo(1.0);
+        Thread.sleep(50);
+        assertThat(function.apply(new double[]{1}, 1))
+                .as("Истекший результат вычисляется заново")
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void memoizeInCalculatorWithEveryBackend() {
+        for (var backend : EvaluationBackend.values()) {
+            callCount.set(0);
+            memoizeInCalculator(backend);
+        }
+    }
+
+    private void memoizeInCalculator(EvaluationBackend backend) {
+        var calculator = new ArithmeticCalculatorBuilder()
+                .registerPureFunction("rate", (Function2) (currency, day) -> {
+                    callCount.incrementAndGet();
+                    return currency * 10 + day;
+                }, MemoizationPolicy.maxEntries(1024))
+                .backend(backend)
+                .build();
+        var prepared = calculator.prepare("rate(1, day) + rate(2, 0)"); // rate(2, 0) вычисляется при подготовке
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(prepared.evaluate(new double[]{i % 5})).isEqualTo(10 + i % 5 + 20);
+        }
+
+        assertThat(callCount.get())
+                .as("Функция вызывается один раз на каждый набор аргументов: " + backend)
+                .isEqualTo(6);
+        var stats = calculator.getFunctionCacheStats("rate");
+        assertThat(stats.missCount()).isEqualTo(6);
+        assertThat(stats.hitCount()).as("Остальные вызовы берутся из кэша").isEqualTo(95);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.gribanoveu.libruary.util;
+
+import com.github.gribanoveu.libruary.function.Function1;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Evgeny Gribanov
+ * @version 17.10.2026
+ */
+class FunctionRegistryTest {
+
+    @Test
+    void findByExpressionRegion() {
+        var functionManager = new FunctionManager();
+        for (int i = 0; i < 100; i++) {
+            functionManager.registerFunction("f" + i, (Function1) Math::abs);
+        }
+        // у "Aa" и "BB" одинаковый хеш, поиск должен различать их по символам
+        functionManager.registerFunction("Aa", (Function1) Math::abs);
+        functionManager.registerFunction("BB", (Function1) Math::abs);
+        var registry = functionManager.getRegistry();
+
+        for (int i = 0; i < 100; i++) {
+            var expression = "1 + f" + i + "(2)";
+            assertThat(registry.find(expression, 4, expression.indexOf('(')))
+                    .as("Функция находится по части выражения: " + expression)
+                    .isSameAs(registry.find("f" + i));
+        }
+        assertThat(registry.find("B B(1)", 0, 3))
+                .as("Пробелы внутри имени пропускаются и при подсчете хеша")
+                .isSameAs(registry.find("BB"));
+        assertThat(registry.find("Aa(1)", 0, 2)).as("Имя с тем же хешем").isSameAs(registry.find("Aa"));
+        assertThat(registry.find("f100(1)", 0, 4)).as("Незарегистрированное имя").isNull();
+        assertThat(registry.find("f1(1)", 0, 1)).as("Начало имени не совпадает с функцией").isNull();
+        assertThat(FunctionRegistry.EMPTY.find("f1(1)", 0, 2)).as("Пустой снимок").isNull();
+    }
+}